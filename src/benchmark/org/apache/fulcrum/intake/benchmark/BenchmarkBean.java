@@ -0,0 +1,121 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The bean mapped by the small benchmark group
+ *
+ * @version $Id$
+ */
+public class BenchmarkBean
+{
+    private String name;
+
+    private int count;
+
+    private boolean active;
+
+    private BigDecimal amount;
+
+    private LocalDate date;
+
+    /**
+     * @return the name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @param name the name
+     */
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * @return the count
+     */
+    public int getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @param count the count
+     */
+    public void setCount(int count)
+    {
+        this.count = count;
+    }
+
+    /**
+     * @return the active flag
+     */
+    public boolean isActive()
+    {
+        return active;
+    }
+
+    /**
+     * @param active the active flag
+     */
+    public void setActive(boolean active)
+    {
+        this.active = active;
+    }
+
+    /**
+     * @return the amount
+     */
+    public BigDecimal getAmount()
+    {
+        return amount;
+    }
+
+    /**
+     * @param amount the amount
+     */
+    public void setAmount(BigDecimal amount)
+    {
+        this.amount = amount;
+    }
+
+    /**
+     * @return the date
+     */
+    public LocalDate getDate()
+    {
+        return date;
+    }
+
+    /**
+     * @param date the date
+     */
+    public void setDate(LocalDate date)
+    {
+        this.date = date;
+    }
+}
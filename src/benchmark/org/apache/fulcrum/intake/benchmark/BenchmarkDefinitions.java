@@ -0,0 +1,220 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.avalon.framework.configuration.DefaultConfiguration;
+import org.apache.avalon.framework.context.DefaultContext;
+import org.apache.avalon.framework.logger.NullLogger;
+import org.apache.fulcrum.intake.IntakeService;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+
+/**
+ * The definition file used by the benchmarks and the setup of the service
+ * outside of a container. The file defines
+ * <ul>
+ * <li>the group <code>Small</code> with five fields mapped to
+ * {@link BenchmarkBean},</li>
+ * <li>the group <code>Large</code> with {@value #LARGE_FIELDS} fields,</li>
+ * <li>the group <code>Types</code> with one field per field type.</li>
+ * </ul>
+ *
+ * @version $Id$
+ */
+public final class BenchmarkDefinitions
+{
+    /** Number of fields of the large group */
+    public static final int LARGE_FIELDS = 200;
+
+    /** Key of the small group */
+    public static final String SMALL_KEY = "sm";
+
+    /** Key of the large group */
+    public static final String LARGE_KEY = "lg";
+
+    /** Key of the group with one field per type */
+    public static final String TYPES_KEY = "ty";
+
+    /** Valid input of the small group by field key */
+    public static final Map<String, String> SMALL_INPUT = new LinkedHashMap<String, String>();
+
+    /** Types of the fields of the types group with a valid and an invalid input */
+    public static final Map<String, String[]> TYPE_INPUT = new LinkedHashMap<String, String[]>();
+
+    static
+    {
+        SMALL_INPUT.put("nm", "Jane Doe");
+        SMALL_INPUT.put("ct", "42");
+        SMALL_INPUT.put("ac", "true");
+        SMALL_INPUT.put("am", "1234.56");
+        SMALL_INPUT.put("dt", "2024-02-29");
+
+        TYPE_INPUT.put("String", new String[] { "abc", "abcdefghijkl" });
+        TYPE_INPUT.put("int", new String[] { "42", "x42" });
+        TYPE_INPUT.put("long", new String[] { "4200000000", "x4200000000" });
+        TYPE_INPUT.put("short", new String[] { "42", "70000" });
+        TYPE_INPUT.put("float", new String[] { "4.25", "x4.25" });
+        TYPE_INPUT.put("double", new String[] { "4.25", "x4.25" });
+        TYPE_INPUT.put("BigDecimal", new String[] { "1234.56", "x1234.56" });
+        TYPE_INPUT.put("boolean", new String[] { "true", "maybe" });
+        TYPE_INPUT.put("DateString", new String[] { "29.02.2024", "30.02.2024" });
+        TYPE_INPUT.put("LocalDate", new String[] { "2024-02-29", "2024-02-30" });
+        TYPE_INPUT.put("LocalDateTime", new String[] { "2024-02-29T12:30:00", "2024-02-29 12:30" });
+        TYPE_INPUT.put("LocalTime", new String[] { "12:30:00", "25:30:00" });
+        TYPE_INPUT.put("Instant", new String[] { "2024-02-29T12:30:00Z", "2024-02-29T12:30:00" });
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BenchmarkDefinitions()
+    {
+        // empty
+    }
+
+    /**
+     * Write the definition file
+     *
+     * @return the file
+     * @throws IOException if the file could not be written
+     */
+    public static File writeDefinitions() throws IOException
+    {
+        StringBuilder sb = new StringBuilder(32768);
+        sb.append("<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\"")
+            .append(" basePackage=\"").append(BenchmarkDefinitions.class.getPackage().getName())
+            .append(".\">\n");
+
+        sb.append("<group name=\"Small\" key=\"").append(SMALL_KEY)
+            .append("\" mapToObject=\"BenchmarkBean\">\n");
+        sb.append("<field name=\"Name\" key=\"nm\" type=\"String\">")
+            .append("<rule name=\"maxLength\" value=\"20\">Too long</rule></field>\n");
+        sb.append("<field name=\"Count\" key=\"ct\" type=\"int\"/>\n");
+        sb.append("<field name=\"Active\" key=\"ac\" type=\"boolean\"/>\n");
+        sb.append("<field name=\"Amount\" key=\"am\" type=\"BigDecimal\"/>\n");
+        sb.append("<field name=\"Date\" key=\"dt\" type=\"LocalDate\"/>\n");
+        sb.append("</group>\n");
+
+        String[] largeTypes = { "String", "int", "boolean", "BigDecimal" };
+        sb.append("<group name=\"Large\" key=\"").append(LARGE_KEY).append("\">\n");
+        for (int i = 0; i < LARGE_FIELDS; i++)
+        {
+            sb.append("<field name=\"Field").append(i).append("\" key=\"f").append(i)
+                .append("\" type=\"").append(largeTypes[i % largeTypes.length]).append("\"/>\n");
+        }
+        sb.append("</group>\n");
+
+        sb.append("<group name=\"Types\" key=\"").append(TYPES_KEY).append("\">\n");
+        for (String type : TYPE_INPUT.keySet())
+        {
+            sb.append("<field name=\"").append(type).append("\" key=\"").append(type.toLowerCase())
+                .append("\" type=\"").append(type).append("\">");
+
+            if (type.equals("String"))
+            {
+                sb.append("<rule name=\"maxLength\" value=\"10\">Too long</rule>");
+            }
+            else if (type.equals("DateString"))
+            {
+                sb.append("<rule name=\"format\" value=\"dd.MM.yyyy\">Invalid date</rule>");
+            }
+
+            sb.append("</field>\n");
+        }
+        sb.append("</group>\n");
+        sb.append("</input-data>\n");
+
+        File xmlFile = File.createTempFile("intake-benchmark", ".xml");
+        xmlFile.deleteOnExit();
+        Files.writeString(xmlFile.toPath(), sb, StandardCharsets.UTF_8);
+
+        return xmlFile;
+    }
+
+    /**
+     * Get the valid input of the large group for a field
+     *
+     * @param index the number of the field
+     * @return the input
+     */
+    public static String getLargeInput(int index)
+    {
+        switch (index % 4)
+        {
+            case 0:
+                return "value" + index;
+            case 1:
+                return String.valueOf(index);
+            case 2:
+                return "true";
+            default:
+                return index + ".5";
+        }
+    }
+
+    /**
+     * Create and initialize a service outside of a container. The
+     * definitions are not saved.
+     *
+     * @param xmlFile the definition file
+     * @param settings pairs of names and values of further settings
+     * @return the service, registered with the facade
+     * @throws Exception if the service could not be initialized
+     */
+    public static IntakeServiceImpl createService(File xmlFile, String... settings)
+            throws Exception
+    {
+        DefaultContext context = new DefaultContext();
+        context.put("urn:avalon:home", xmlFile.getParentFile().getAbsoluteFile());
+
+        DefaultConfiguration conf = new DefaultConfiguration("intake");
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+        xmlPath.setValue(xmlFile.getName());
+        xmlPaths.addChild(xmlPath);
+        conf.addChild(xmlPaths);
+
+        DefaultConfiguration serialDataPath = new DefaultConfiguration(IntakeService.SERIAL_XML);
+        serialDataPath.setValue("none");
+        conf.addChild(serialDataPath);
+
+        for (int i = 0; i < settings.length; i += 2)
+        {
+            DefaultConfiguration setting = new DefaultConfiguration(settings[i]);
+            setting.setValue(settings[i + 1]);
+            conf.addChild(setting);
+        }
+
+        IntakeServiceImpl service = new IntakeServiceImpl();
+        service.enableLogging(new NullLogger());
+        service.contextualize(context);
+        service.configure(conf);
+        service.service(null);
+        service.initialize();
+
+        return service;
+    }
+}
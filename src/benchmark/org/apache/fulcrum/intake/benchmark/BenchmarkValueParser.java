@@ -0,0 +1,80 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Locale;
+
+import org.apache.avalon.framework.logger.NullLogger;
+import org.apache.fulcrum.parser.BaseValueParser;
+
+/**
+ * Stand-in for the parser of the request parameters, which does not need
+ * a parser service. Parameter names are used as they are, without the
+ * case folding configured in the parser service.
+ *
+ * @version $Id$
+ */
+public class BenchmarkValueParser extends BaseValueParser
+{
+    /**
+     * Constructor
+     */
+    public BenchmarkValueParser()
+    {
+        super("UTF-8", Locale.US);
+        enableLogging(new NullLogger());
+    }
+
+    /**
+     * Trims the parameter name without case folding
+     *
+     * @param value the parameter name
+     * @return the trimmed name
+     */
+    @Override
+    public String convertAndTrim(String value)
+    {
+        return (value == null) ? null : value.trim();
+    }
+
+    /**
+     * Trims the parameter name without case folding
+     *
+     * @param value the parameter name
+     * @param folding ignored
+     * @return the trimmed name
+     */
+    @Override
+    public String convertAndTrim(String value, URLCaseFolding folding)
+    {
+        return convertAndTrim(value);
+    }
+
+    /**
+     * Parameter names are not folded
+     *
+     * @return {@link URLCaseFolding#NONE}
+     */
+    @Override
+    public URLCaseFolding getUrlFolding()
+    {
+        return URLCaseFolding.NONE;
+    }
+}
@@ -0,0 +1,122 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+import org.apache.fulcrum.intake.model.Field;
+import org.apache.fulcrum.intake.model.Group;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the validation of a single field per field type, for valid
+ * and for invalid input.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldValidationBenchmark
+{
+    /** The field type */
+    @Param({ "String", "int", "long", "short", "float", "double", "BigDecimal", "boolean",
+        "DateString", "LocalDate", "LocalDateTime", "LocalTime", "Instant" })
+    public String type;
+
+    /** Is the input valid? */
+    @Param({ "true", "false" })
+    public boolean valid;
+
+    /** The service */
+    private IntakeServiceImpl service;
+
+    /** The group holding the field */
+    private Group group;
+
+    /** The field */
+    private Field<?> field;
+
+    /** The parameters */
+    private BenchmarkValueParser parser;
+
+    /**
+     * Create the field and its input
+     *
+     * @throws Exception if the service could not be initialized
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        service = BenchmarkDefinitions.createService(BenchmarkDefinitions.writeDefinitions());
+        group = service.getGroup("Types");
+        field = group.get(type);
+
+        parser = new BenchmarkValueParser();
+        parser.add(field.getKey(), BenchmarkDefinitions.TYPE_INPUT.get(type)[valid ? 0 : 1]);
+
+        if (validate() != valid)
+        {
+            throw new IllegalStateException("The input of " + type + " should be "
+                    + (valid ? "valid" : "invalid"));
+        }
+    }
+
+    /**
+     * Release the group and stop the service
+     *
+     * @throws IntakeException if the group could not be released
+     */
+    @TearDown
+    public void tearDown() throws IntakeException
+    {
+        service.releaseGroup(group);
+        service.dispose();
+    }
+
+    /**
+     * Initialize and validate the field
+     *
+     * @return the result of the validation
+     * @throws IntakeException if the field could not be initialized
+     */
+    @Benchmark
+    public boolean validate() throws IntakeException
+    {
+        field.init(parser);
+        return field.validate();
+    }
+}
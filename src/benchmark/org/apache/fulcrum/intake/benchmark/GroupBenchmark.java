@@ -0,0 +1,228 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.IntakeService;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+import org.apache.fulcrum.intake.model.Group;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the work done with a group during a request: the
+ * initialization from the request parameters, the transfer to and from
+ * the mapped bean and the initialization of many objects of a group.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupBenchmark
+{
+    /** The service */
+    private IntakeServiceImpl service;
+
+    /** The small group */
+    private Group small;
+
+    /** The large group */
+    private Group large;
+
+    /** The parameters of the small group */
+    private BenchmarkValueParser smallParser;
+
+    /** The parameters of the large group */
+    private BenchmarkValueParser largeParser;
+
+    /** The bean mapped by the small group */
+    private BenchmarkBean bean;
+
+    /**
+     * Create the service, the groups and the parameters
+     *
+     * @throws Exception if the service could not be initialized
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        // getObjects needs more instances than the pool holds
+        service = BenchmarkDefinitions.createService(BenchmarkDefinitions.writeDefinitions(),
+                IntakeService.POOL_OVERFLOW, "true");
+        small = service.getGroup("Small");
+        large = service.getGroup("Large");
+
+        smallParser = new BenchmarkValueParser();
+        for (Map.Entry<String, String> entry : BenchmarkDefinitions.SMALL_INPUT.entrySet())
+        {
+            smallParser.add(small.getObjectKey() + entry.getKey(), entry.getValue());
+        }
+
+        largeParser = new BenchmarkValueParser();
+        for (int i = 0; i < BenchmarkDefinitions.LARGE_FIELDS; i++)
+        {
+            largeParser.add(large.getObjectKey() + "f" + i, BenchmarkDefinitions.getLargeInput(i));
+        }
+
+        small.init(smallParser);
+        if (!small.isAllValid() || !large.init(largeParser).isAllValid())
+        {
+            throw new IllegalStateException("The benchmark input should be valid");
+        }
+
+        bean = new BenchmarkBean();
+        small.setProperties(bean);
+    }
+
+    /**
+     * Release the groups and stop the service
+     *
+     * @throws IntakeException if a group could not be released
+     */
+    @TearDown
+    public void tearDown() throws IntakeException
+    {
+        service.releaseGroup(small);
+        service.releaseGroup(large);
+        service.dispose();
+    }
+
+    /**
+     * Initialize and validate a group with five fields
+     *
+     * @return the group
+     * @throws IntakeException if the group could not be initialized
+     */
+    @Benchmark
+    public Group initSmallGroup() throws IntakeException
+    {
+        return small.init(smallParser);
+    }
+
+    /**
+     * Initialize and validate a group with 200 fields
+     *
+     * @return the group
+     * @throws IntakeException if the group could not be initialized
+     */
+    @Benchmark
+    public Group initLargeGroup() throws IntakeException
+    {
+        return large.init(largeParser);
+    }
+
+    /**
+     * Transfer the values of a group to the mapped bean
+     *
+     * @return the bean
+     * @throws IntakeException if a setter failed
+     */
+    @Benchmark
+    public BenchmarkBean setProperties() throws IntakeException
+    {
+        small.setProperties(bean);
+        return bean;
+    }
+
+    /**
+     * Load the values of a group from the mapped bean
+     *
+     * @return the group
+     * @throws IntakeException if a getter failed
+     */
+    @Benchmark
+    public Group getProperties() throws IntakeException
+    {
+        small.getProperties(bean);
+        return small;
+    }
+
+    /**
+     * The parameters of many objects of the small group
+     */
+    @State(Scope.Thread)
+    public static class Objects
+    {
+        /** Number of objects in the request */
+        @Param({ "10", "100", "1000" })
+        public int oids;
+
+        /** The parameters of the objects */
+        BenchmarkValueParser parser;
+
+        /**
+         * Create the parameters
+         */
+        @Setup
+        public void setUp()
+        {
+            parser = new BenchmarkValueParser();
+            for (int i = 0; i < oids; i++)
+            {
+                String oid = String.valueOf(i);
+                parser.add(BenchmarkDefinitions.SMALL_KEY, oid);
+
+                for (Map.Entry<String, String> entry : BenchmarkDefinitions.SMALL_INPUT.entrySet())
+                {
+                    parser.add(BenchmarkDefinitions.SMALL_KEY + "_" + oid + entry.getKey(),
+                            entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Initialize a group instance per object and release them
+     *
+     * @param objects the parameters
+     * @return the number of objects
+     * @throws IntakeException if a group could not be initialized
+     */
+    @Benchmark
+    public int getObjects(Objects objects) throws IntakeException
+    {
+        List<Group> groups = small.getObjects(objects.parser);
+
+        for (Group group : groups)
+        {
+            service.releaseGroup(group);
+        }
+
+        return groups.size();
+    }
+}
@@ -0,0 +1,85 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fulcrum.intake.IntakeService;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the initialization of the service with the JAXB and with the
+ * StAX definition loader. The definitions are parsed every time, no
+ * snapshot is used.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark
+{
+    /** The definition loader */
+    @Param({ "jaxb", "stax" })
+    public String loader;
+
+    /** The definition file */
+    private File xmlFile;
+
+    /**
+     * Write the definition file
+     *
+     * @throws Exception if the file could not be written
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        xmlFile = BenchmarkDefinitions.writeDefinitions();
+    }
+
+    /**
+     * Initialize a service
+     *
+     * @return the service
+     * @throws Exception if the service could not be initialized
+     */
+    @Benchmark
+    public IntakeServiceImpl initialize() throws Exception
+    {
+        // no pools, they would register an MBean each time
+        return BenchmarkDefinitions.createService(xmlFile,
+                IntakeService.XML_LOADER, loader, IntakeService.POOLING, "false");
+    }
+}
@@ -0,0 +1,100 @@
+package org.apache.fulcrum.intake.benchmark;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.IntakeService;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+import org.apache.fulcrum.intake.model.Group;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures borrowing a group from the service and releasing it, with
+ * and without pooling.
+ *
+ * @version $Id$
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark
+{
+    /** Are the groups pooled? */
+    @Param({ "true", "false" })
+    public boolean pooling;
+
+    /** The group to borrow */
+    @Param({ "Small", "Large" })
+    public String groupName;
+
+    /** The service */
+    private IntakeServiceImpl service;
+
+    /**
+     * Create the service
+     *
+     * @throws Exception if the service could not be initialized
+     */
+    @Setup
+    public void setUp() throws Exception
+    {
+        service = BenchmarkDefinitions.createService(BenchmarkDefinitions.writeDefinitions(),
+                IntakeService.POOLING, String.valueOf(pooling));
+    }
+
+    /**
+     * Stop the service
+     */
+    @TearDown
+    public void tearDown()
+    {
+        service.dispose();
+    }
+
+    /**
+     * Borrow a group and release it
+     *
+     * @return the group
+     * @throws IntakeException if the group could not be borrowed
+     */
+    @Benchmark
+    public Group getAndReleaseGroup() throws IntakeException
+    {
+        Group group = service.getGroup(groupName);
+        service.releaseGroup(group);
+        return group;
+    }
+}
@@ -0,0 +1,217 @@
+package org.apache.fulcrum.intake;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avalon.framework.logger.Logger;
+
+/**
+ * Watches the directories of the definition files and runs a callback
+ * in a background thread whenever one of the files has been created or
+ * modified. Changes which follow each other within a short quiet period
+ * are reported only once, so that a file is not read while it is still
+ * being written.
+ *
+ * @version $Id$
+ */
+final class DefinitionWatcher implements Runnable
+{
+    /** Time without further changes before the callback is run, in milliseconds */
+    private static final long QUIET_PERIOD = 200;
+
+    /** The watch service */
+    private final WatchService watchService;
+
+    /** The names of the watched files by directory key */
+    private final Map<WatchKey, Set<Path>> watchedFiles;
+
+    /** The callback run on changes */
+    private final Runnable onChange;
+
+    /** The logger */
+    private final Logger logger;
+
+    /** The background thread */
+    private Thread thread;
+
+    /**
+     * Constructor
+     *
+     * @param files the files to watch
+     * @param onChange the callback run on changes
+     * @param logger the logger
+     * @throws IOException if a directory could not be watched
+     */
+    DefinitionWatcher(Iterable<File> files, Runnable onChange, Logger logger)
+            throws IOException
+    {
+        this.onChange = onChange;
+        this.logger = logger;
+        this.watchedFiles = new HashMap<WatchKey, Set<Path>>();
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        Map<Path, WatchKey> keys = new HashMap<Path, WatchKey>();
+        for (File file : files)
+        {
+            Path path = file.toPath().toAbsolutePath();
+            Path directory = path.getParent();
+            WatchKey key = keys.get(directory);
+
+            if (key == null)
+            {
+                key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(directory, key);
+            }
+
+            watchedFiles.computeIfAbsent(key, k -> new HashSet<Path>())
+                    .add(path.getFileName());
+        }
+    }
+
+    /**
+     * Start watching in a daemon thread
+     */
+    synchronized void start()
+    {
+        if (thread == null)
+        {
+            thread = new Thread(this, "intake-reloader");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop watching and wait for the background thread to end
+     */
+    void close()
+    {
+        try
+        {
+            watchService.close();
+        }
+        catch (IOException e)
+        {
+            logger.warn("Could not close the watch service", e);
+        }
+
+        Thread t;
+        synchronized (this)
+        {
+            t = thread;
+        }
+
+        if (t != null && t != Thread.currentThread())
+        {
+            try
+            {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wait for changes and run the callback
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            while (true)
+            {
+                if (!isRelevant(watchService.take()))
+                {
+                    continue;
+                }
+
+                // wait until the files are quiet
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null)
+                {
+                    isRelevant(key);
+                }
+
+                try
+                {
+                    onChange.run();
+                }
+                catch (RuntimeException e)
+                {
+                    logger.error("Reloading the definitions failed", e);
+                }
+            }
+        }
+        catch (ClosedWatchServiceException e)
+        {
+            // closed, end the thread
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Check whether the events of a key concern one of the watched files
+     * and reset the key
+     *
+     * @param key the signalled key
+     * @return <code>true</code> if a watched file has changed
+     */
+    private boolean isRelevant(WatchKey key)
+    {
+        Set<Path> names = watchedFiles.get(key);
+        boolean relevant = false;
+
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || names != null && names.contains(event.context()))
+            {
+                relevant = true;
+            }
+        }
+
+        key.reset();
+        return relevant;
+    }
+}
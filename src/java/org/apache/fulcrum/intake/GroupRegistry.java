@@ -0,0 +1,231 @@
+package org.apache.fulcrum.intake;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.avalon.framework.logger.Logger;
+import org.apache.fulcrum.intake.model.AppData;
+import org.apache.fulcrum.intake.model.Group;
+
+/**
+ * The registered group names and keys of a set of definition files.
+ * A registry is built completely before it is used and never changes
+ * afterwards, so it can be replaced as a whole when the definitions
+ * are reloaded.
+ *
+ * @version $Id$
+ */
+final class GroupRegistry
+{
+    /** Map of groupNames -> appData elements */
+    private final Map<String, AppData> groupNames;
+
+    /** The cache of group names. */
+    private final Map<String, String> groupNameMap;
+
+    /** The cache of group keys. */
+    private final Map<String, String> groupKeyMap;
+
+    /** The definition files in the configured order */
+    private final Map<AppData, File> appDataElements;
+
+    /** The content hashes of the definition files */
+    private final Map<File, byte[]> fileHashes;
+
+    /**
+     * Registers the groups of the given definition files. The files are
+     * processed in the given order, the first definition of a group name
+     * or key wins.
+     *
+     * @param appDataElements the definition files in the configured order
+     * @param fileHashes the content hashes of the files, may be empty
+     * @param logger the logger
+     */
+    GroupRegistry(Map<AppData, File> appDataElements, Map<File, byte[]> fileHashes,
+            Logger logger)
+    {
+        this.groupNames = new HashMap<String, AppData>();
+        this.groupNameMap = new HashMap<String, String>();
+        this.groupKeyMap = new HashMap<String, String>();
+        this.appDataElements = Collections.unmodifiableMap(
+                new LinkedHashMap<AppData, File>(appDataElements));
+        this.fileHashes = Collections.unmodifiableMap(
+                new HashMap<File, byte[]>(fileHashes));
+
+        for (Entry<AppData, File> entry : appDataElements.entrySet())
+        {
+            AppData appData = entry.getKey();
+            List<Group> glist = appData.getGroups();
+            String groupPrefix = appData.getGroupPrefix();
+
+            for (ListIterator<Group> i = glist.listIterator(glist.size()); i.hasPrevious();)
+            {
+                Group g = i.previous();
+                String groupName = g.getIntakeGroupName();
+
+                boolean registerUnqualified = registerGroup(groupName, g, appData, true);
+
+                if (!registerUnqualified)
+                {
+                    logger.info(
+                            "Ignored redefinition of Group " + groupName
+                                    + " or Key " + g.getGID() + " from "
+                                    + entry.getValue());
+                }
+
+                if (groupPrefix != null)
+                {
+                    StringBuilder qualifiedName = new StringBuilder();
+                    qualifiedName.append(groupPrefix).append(':').append(groupName);
+
+                    // Add the fully qualified group name. Do _not_ check
+                    // for
+                    // the existence of the key if the unqualified
+                    // registration succeeded
+                    // (because then it was added by the registerGroup
+                    // above).
+                    if (!registerGroup(qualifiedName.toString(), g,
+                            appData, !registerUnqualified))
+                    {
+                        logger.error(
+                            "Could not register fully qualified name "
+                                    + qualifiedName
+                                    + ", maybe two XML files have the same prefix. Ignoring it.");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a given group name in the system
+     *
+     * @param groupName
+     *            The name to register the group under
+     * @param group
+     *            The Group to register in
+     * @param appData
+     *            The app Data object where the group can be found
+     * @param checkKey
+     *            Whether to check if the key also exists.
+     *
+     * @return true if successful, false if not
+     */
+    private boolean registerGroup(String groupName, Group group,
+            AppData appData, boolean checkKey)
+    {
+        if (groupNames.containsKey(groupName))
+        {
+            // This name already exists.
+            return false;
+        }
+
+        boolean keyExists = groupNameMap.containsKey(group.getGID());
+
+        if (checkKey && keyExists)
+        {
+            // The key for this package is already registered for another group
+            return false;
+        }
+
+        groupNames.put(groupName, appData);
+        groupKeyMap.put(groupName, group.getGID());
+
+        if (!keyExists)
+        {
+            // This key does not exist. Add it to the hash.
+            groupNameMap.put(group.getGID(), groupName);
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the definition file of a group
+     *
+     * @param groupName the registered name of the group
+     * @return the definitions or <code>null</code> if the group is unknown
+     */
+    AppData getAppData(String groupName)
+    {
+        return groupName == null ? null : groupNames.get(groupName);
+    }
+
+    /**
+     * Get the names of all registered groups
+     *
+     * @return array of names
+     */
+    String[] getGroupNames()
+    {
+        return groupNames.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * Gets the key for a group
+     *
+     * @param groupName the name of the group
+     * @return the key
+     */
+    String getGroupKey(String groupName)
+    {
+        return groupKeyMap.get(groupName);
+    }
+
+    /**
+     * Gets the group name given its key
+     *
+     * @param groupKey the key
+     * @return the name of the group
+     */
+    String getGroupName(String groupKey)
+    {
+        return groupNameMap.get(groupKey);
+    }
+
+    /**
+     * Get the definition files in the configured order
+     *
+     * @return an unmodifiable map of the definitions and their files
+     */
+    Map<AppData, File> getAppDataElements()
+    {
+        return appDataElements;
+    }
+
+    /**
+     * Get the content hash of a definition file
+     *
+     * @param xmlFile the file
+     * @return the hash or <code>null</code> if it is not known
+     */
+    byte[] getFileHash(File xmlFile)
+    {
+        return fileHashes.get(xmlFile);
+    }
+}
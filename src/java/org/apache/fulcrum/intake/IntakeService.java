@@ -68,6 +68,75 @@ public interface IntakeService
      */
     String SERIAL_XML_DEFAULT = "WEB-INF/appData.ser";
 
+    /**
+     * The configuration property specifying the loader for the xml
+     * specification. The value <code>jaxb</code> selects the JAXB
+     * unmarshaller with schema validation, <code>stax</code> selects
+     * a streaming loader which does not need the JAXB runtime at startup.
+     */
+    String XML_LOADER = "xmlLoader";
+
+    /**
+     * The default loader for the xml specification.
+     */
+    String XML_LOADER_DEFAULT = "jaxb";
+
+    /**
+     * The configuration property specifying whether group instances are
+     * pooled. If set to <code>false</code>, each call to getGroup() creates
+     * a new instance bound to the shared group definition and releaseGroup()
+     * does nothing. Validators which are not shareable are then created
+     * and initialized again for every new instance.
+     */
+    String POOLING = "pooling";
+
+    /**
+     * The default pooling mode.
+     */
+    boolean POOLING_DEFAULT = true;
+
+    /**
+     * The configuration property specifying what happens when the pool of
+     * a group is exhausted. If set to <code>false</code>, getGroup() waits
+     * until an instance is returned to the pool. If set to
+     * <code>true</code>, getGroup() does not wait but creates an instance
+     * which does not belong to the pool, so the pool capacity no longer
+     * limits the number of live instances. Like without pooling, such an
+     * instance creates its own validators which are not shareable.
+     */
+    String POOL_OVERFLOW = "poolOverflow";
+
+    /**
+     * The default overflow mode.
+     */
+    boolean POOL_OVERFLOW_DEFAULT = false;
+
+    /**
+     * The configuration property specifying whether groups are initialized
+     * on first use. If set to <code>true</code>, the groups are only
+     * registered at startup. The property accessors of a group and the pool
+     * of its definition file are built by the first call to getGroup().
+     */
+    String LAZY_INIT = "lazyInit";
+
+    /**
+     * The default initialization mode.
+     */
+    boolean LAZY_INIT_DEFAULT = false;
+
+    /**
+     * The configuration property specifying whether the xml specification
+     * files are watched. If set to <code>true</code>, changed files are
+     * read again in the background and the new definitions replace the
+     * current ones at once.
+     */
+    String RELOAD = "reload";
+
+    /**
+     * The default reloading mode.
+     */
+    boolean RELOAD_DEFAULT = false;
+
     /**
      * The default pool capacity.
      */
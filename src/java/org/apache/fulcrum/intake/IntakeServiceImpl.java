@@ -21,26 +21,37 @@ package org.apache.fulcrum.intake;
 
 import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 
+import org.apache.avalon.framework.activity.Disposable;
 import org.apache.avalon.framework.activity.Initializable;
 import org.apache.avalon.framework.configuration.Configurable;
 import org.apache.avalon.framework.configuration.Configuration;
@@ -58,8 +69,11 @@ import org.apache.commons.pool2.KeyedPooledObjectFactory;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
 import org.apache.fulcrum.intake.model.AppData;
+import org.apache.fulcrum.intake.model.DefinitionSnapshot;
 import org.apache.fulcrum.intake.model.Field;
 import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.model.StaxDefinitionLoader;
+import org.apache.fulcrum.intake.validator.ValidatorCache;
 
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.Unmarshaller;
@@ -80,25 +94,25 @@ import jakarta.xml.bind.helpers.DefaultValidationEventHandler;
  */
 public class IntakeServiceImpl extends AbstractLogEnabled implements
         IntakeService, Configurable, Initializable, Contextualizable,
-        Serviceable
+        Serviceable, Disposable
 {
-    /** Map of groupNames -> appData elements */
-    private Map<String, AppData> groupNames;
+    /** Upper limit of the threads parsing the XML files */
+    private static final int MAX_PARSER_THREADS = 8;
 
-    /** The cache of group names. */
-    private Map<String, String> groupNameMap;
+    /** The registered groups, replaced as a whole when the definitions are reloaded */
+    private volatile GroupRegistry registry;
 
-    /** The cache of group keys. */
-    private Map<String, String> groupKeyMap;
+    /** The cache of property descriptors, keyed by class and property name */
+    private Map<String, Map<String, PropertyDescriptor>> propertyMap;
 
-    /** The cache of property getters. */
-    private Map<String, Map<String, Method>> getterMap;
+    /** AppData -> keyed Pools Map, including closed pools with borrowed groups */
+    private Map<AppData, GenericKeyedObjectPool<String, Group>> keyedPools;
 
-    /** The cache of property setters. */
-    private Map<String, Map<String, Method>> setterMap;
+    /** The validators shared by all definition files */
+    private ValidatorCache validatorCache;
 
-    /** AppData -> keyed Pools Map */
-    private Map<AppData, KeyedObjectPool<String, Group>> keyedPools;
+    /** Number of the next pool, used in the JMX name */
+    private final AtomicInteger poolCounter = new AtomicInteger();
 
     /** The Avalon Container root directory */
     private String applicationRoot;
@@ -106,9 +120,36 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     /** List of configured xml specification files */
     private List<String> xmlPathes = null;
 
+    /** The xml specification files in the configured order */
+    private Set<File> xmlFiles;
+
     /** Configured location of the serialization file */
     private String serialDataPath = null;
 
+    /** Are the xml files watched and reloaded on changes? */
+    private boolean reload = RELOAD_DEFAULT;
+
+    /** The watcher of the xml files */
+    private DefinitionWatcher watcher;
+
+    /** Lock serializing the reloads */
+    private final Object reloadLock = new Object();
+
+    /** Are the xml files read by the StAX loader? */
+    private boolean staxLoader = false;
+
+    /** Are group instances pooled? */
+    private boolean pooling = POOLING_DEFAULT;
+
+    /** Are unpooled instances created when a pool is exhausted? */
+    private boolean poolOverflow = POOL_OVERFLOW_DEFAULT;
+
+    /** Are groups and pools initialized on first use? */
+    private boolean lazyInit = LAZY_INIT_DEFAULT;
+
+    /** Pending one-time initializations of groups and pools, keyed by the object to initialize */
+    private Map<Object, FutureTask<Void>> pendingInitializations;
+
     /**
      * Local Class to enable Avalon logging on the model classes
      *
@@ -132,73 +173,161 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     }
 
     /**
-     * Registers a given group name in the system
+     * Parses the given XML files. The files are parsed concurrently on a
+     * bounded number of threads, each file with its own unmarshaller. The
+     * resulting map preserves the order of the files, so the registration
+     * of the groups does not depend on the order in which the parsing
+     * finishes.
      *
-     * @param groupName
-     *            The name to register the group under
-     * @param group
-     *            The Group to register in
-     * @param appData
-     *            The app Data object where the group can be found
-     * @param checkKey
-     *            Whether to check if the key also exists.
+     * @param xmlFiles
+     *            The XML files to parse
+     *
+     * @return A map with the parsed appData objects in the order of the files
      *
-     * @return true if successful, false if not
+     * @throws Exception if one of the files could not be parsed
      */
-    private boolean registerGroup(String groupName, Group group,
-            AppData appData, boolean checkKey)
+    private Map<AppData, File> parseXmlFiles(Set<File> xmlFiles) throws Exception
     {
-        if (groupNames.containsKey(groupName))
+        final JAXBContext jaxb;
+        final Schema schema;
+
+        if (staxLoader)
+        {
+            jaxb = null;
+            schema = null;
+        }
+        else
         {
-            // This name already exists.
-            return false;
+            // Context and schema are thread-safe, unmarshallers are not
+            jaxb = JAXBContext.newInstance(AppData.class);
+            URL schemaURL = getClass().getResource("/intake.xsd");
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            schema = schemaFactory.newSchema(schemaURL);
         }
 
-        boolean keyExists = groupNameMap.containsKey(group.getGID());
+        Map<AppData, File> appDataElements = new LinkedHashMap<AppData, File>();
 
-        if (checkKey && keyExists)
+        int threads = Math.min(xmlFiles.size(),
+                Math.min(MAX_PARSER_THREADS, Runtime.getRuntime().availableProcessors()));
+
+        if (threads <= 1)
         {
-            // The key for this package is already registered for another group
-            return false;
+            for (File xmlFile : xmlFiles)
+            {
+                appDataElements.put(parseXmlFile(jaxb, schema, xmlFile), xmlFile);
+            }
+
+            return appDataElements;
         }
 
-        groupNames.put(groupName, appData);
-        groupKeyMap.put(groupName, group.getGID());
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "intake-parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try
+        {
+            List<Future<AppData>> results = new ArrayList<Future<AppData>>(xmlFiles.size());
+
+            for (File xmlFile : xmlFiles)
+            {
+                results.add(executor.submit(() -> parseXmlFile(jaxb, schema, xmlFile)));
+            }
+
+            Iterator<File> files = xmlFiles.iterator();
+            for (Future<AppData> result : results)
+            {
+                File xmlFile = files.next();
+
+                try
+                {
+                    appDataElements.put(result.get(), xmlFile);
+                }
+                catch (ExecutionException e)
+                {
+                    Throwable cause = e.getCause();
+                    getLogger().error("Could not parse " + xmlFile, cause);
 
-        if (!keyExists)
+                    if (cause instanceof Exception exception)
+                    {
+                        throw exception;
+                    }
+
+                    throw e;
+                }
+            }
+        }
+        finally
         {
-            // This key does not exist. Add it to the hash.
-            groupNameMap.put(group.getGID(), groupName);
+            executor.shutdownNow();
         }
 
-        List<Field<?>> fields = group.getFields();
-        for (Field<?> field : fields)
+        return appDataElements;
+    }
+
+    /**
+     * Parses a single XML file with a new unmarshaller or the StAX loader
+     *
+     * @param jaxb
+     *            The JAXB context, <code>null</code> for the StAX loader
+     * @param schema
+     *            The schema to validate the file against
+     * @param xmlFile
+     *            The XML file to parse
+     *
+     * @return The appData object of the file
+     *
+     * @throws Exception if the file could not be parsed
+     */
+    private AppData parseXmlFile(JAXBContext jaxb, Schema schema, File xmlFile)
+            throws Exception
+    {
+        if (staxLoader)
         {
-            String className = field.getMapToObject();
-            if (!getterMap.containsKey(className))
+            getLogger().debug("Now loading: " + xmlFile);
+            try (InputStream is = new BufferedInputStream(new FileInputStream(xmlFile)))
             {
-                getterMap.put(className, new HashMap<String, Method>());
-                setterMap.put(className, new HashMap<String, Method>());
+                return StaxDefinitionLoader.load(is, getLogger());
             }
         }
-        return true;
+
+        Unmarshaller um = jaxb.createUnmarshaller();
+
+        // Debug mapping
+        um.setEventHandler(new DefaultValidationEventHandler());
+
+        // Enable logging
+        um.setListener(new AvalonLogEnabledListener());
+        um.setSchema(schema);
+
+        getLogger().debug("Now parsing: " + xmlFile);
+        try (FileInputStream fis = new FileInputStream(xmlFile))
+        {
+            AppData appData = (AppData) um.unmarshal(fis);
+            getLogger().debug("Saving AppData for " + xmlFile);
+
+            return appData;
+        }
     }
 
     /**
-     * Tries to load a serialized Intake Group file. This can reduce the startup
-     * time of Turbine.
+     * Tries to load a snapshot of the Intake definitions. This can reduce
+     * the startup time of Turbine.
      *
      * @param serialDataPath
      *            The path of the File to load.
+     * @param hash
+     *            The hash of the current XML files
      *
      * @return A map with appData objects loaded from the file or null if the
      *         map could not be loaded.
      */
-    private Map<AppData, File> loadSerialized(String serialDataPath, long timeStamp)
+    private Map<AppData, File> loadSnapshot(String serialDataPath, byte[] hash)
     {
-        getLogger().debug(
-                "Entered loadSerialized(" + serialDataPath + ", " + timeStamp
-                        + ")");
+        getLogger().debug("Entered loadSnapshot(" + serialDataPath + ")");
 
         long timer = System.currentTimeMillis();
 
@@ -207,105 +336,44 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
             return null;
         }
 
-        File serialDataFile = new File(serialDataPath);
-
-        if (!serialDataFile.exists())
-        {
-            getLogger().info("No serialized file found, parsing XML");
-            return null;
-        }
-
-        if (serialDataFile.lastModified() <= timeStamp)
-        {
-            getLogger().info("serialized file too old, parsing XML");
-            return null;
-        }
-
         Map<AppData, File> serialData = null;
 
-        try (FileInputStream fin = new FileInputStream(serialDataFile);
-             ObjectInputStream in = new ObjectInputStream(fin))
+        try
         {
-            Object o = in.readObject();
-
-            if (o instanceof Map)
-            {
-                @SuppressWarnings("unchecked") // checked with instanceof
-				Map<AppData, File> map = (Map<AppData, File>) o;
-				serialData = map;
-            }
-            else
-            {
-                // This could be old file from intake. Try to delete it
-                getLogger().info("serialized object is not an intake map, ignoring");
-                in.close();
-
-                // Try to delete the file
-                if (serialDataFile.delete() == false )
-                {
-                	getLogger().error("Unknown serialized file could not be removed");
-                }
-            }
+            serialData = DefinitionSnapshot.load(new File(serialDataPath), hash, getLogger());
         }
         catch (IOException e)
         {
-            getLogger().error("Serialized File could not be read.", e);
-
-            // We got a corrupt file for some reason.
-            // Null out serialData to be sure
-            serialData = null;
-        }
-        catch (ClassNotFoundException e)
-        {
-            getLogger().error("Objects could not be read from serialized file.", e);
-
-            // This should not happen
-            // Null out serialData to be sure
-            serialData = null;
+            getLogger().error("Snapshot file could not be read.", e);
+            return null;
         }
 
-        // Recreate transient loggers
-        if (serialData != null)
+        if (serialData == null)
         {
-        	for (AppData appData : serialData.keySet())
-        	{
-        		for (Group group : appData.getGroups())
-        		{
-        			if (group instanceof LogEnabled)
-        			{
-        				group.enableLogging(getLogger());
-        			}
-
-    				for (Field<?> field : group.getFields())
-    				{
-            			if (field instanceof LogEnabled)
-            			{
-            				field.enableLogging(getLogger());
-            			}
-    				}
-        		}
-        	}
+            getLogger().info("No current snapshot found, parsing XML");
+            return null;
         }
-        getLogger().info("Loaded serialized map object, ignoring XML");
+
+        getLogger().info("Loaded definition snapshot, ignoring XML");
         getLogger().debug("Loading took " + (System.currentTimeMillis() - timer));
         return serialData;
     }
 
     /**
-     * Writes a parsed XML map with all the appData groups into a file. This
+     * Writes a snapshot of all the appData groups into a file. This
      * will speed up loading time when you restart the Intake Service because it
-     * will only unserialize this file instead of reloading all of the XML files
+     * will only read this file instead of parsing all of the XML files
      *
      * @param serialDataPath
      *            The path of the file to write to
+     * @param hash
+     *            The hash of the XML files
      * @param appDataElements
      *            A Map containing all of the XML parsed appdata elements
      */
-    private void saveSerialized(String serialDataPath, Map<AppData, File> appDataElements)
+    private void saveSnapshot(String serialDataPath, byte[] hash, Map<AppData, File> appDataElements)
     {
-        getLogger().debug(
-                "Entered saveSerialized(" + serialDataPath
-                        + ", appDataElements)");
+        getLogger().debug("Entered saveSnapshot(" + serialDataPath + ", appDataElements)");
 
         long timer = System.currentTimeMillis();
 
@@ -314,57 +382,16 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
             return;
         }
 
-        File serialData = new File(serialDataPath);
-
         try
         {
-            if (serialData.createNewFile() == false)
-            {
-            	getLogger().error("Could not create new serialized file");
-            }
-
-            // Try to delete the file
-            if (serialData.delete() == false)
-            {
-            	getLogger().error("Serialized file could not be removed");
-            }
-
-        }
-        catch (IOException e)
-        {
-            getLogger().info(
-                    "Could not create serialized file " + serialDataPath
-                            + ", not serializing the XML data", e);
-            return;
-        }
-
-        try (FileOutputStream fout = new FileOutputStream(serialDataPath);
-             ObjectOutputStream out = new ObjectOutputStream(fout))
-        {
-            // write the appData file out
-            out.writeObject(appDataElements);
-            out.flush();
+            DefinitionSnapshot.save(new File(serialDataPath), hash, appDataElements);
+            getLogger().debug("Writing the snapshot successful");
         }
         catch (IOException e)
         {
             getLogger().info(
-                    "Could not write serialized file to " + serialDataPath
-                            + ", not serializing the XML data", e);
-        }
-
-        // read the file back in. for some reason on OSX 10.1
-        // this is necessary.
-        try (FileInputStream fin = new FileInputStream(serialDataPath);
-             ObjectInputStream in = new ObjectInputStream(fin))
-        {
-            /* Map dummy = (Map) */ in.readObject();
-
-            getLogger().debug("Serializing successful");
-        }
-        catch (IOException | ClassNotFoundException e)
-        {
-            getLogger().info(
-                    "Could not re-read serialized file from " + serialDataPath, e);
+                    "Could not write snapshot file to " + serialDataPath
+                            + ", not saving the XML data", e);
         }
 
         getLogger().debug("Saving took " + (System.currentTimeMillis() - timer));
@@ -385,7 +412,8 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     {
         Group group = null;
 
-        AppData appData = groupNames.get(groupName);
+        GroupRegistry current = registry;
+        AppData appData = current.getAppData(groupName);
 
         if (groupName == null)
         {
@@ -399,9 +427,71 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
                     "Intake IntakeServiceImpl.getGroup(groupName): No XML definition for Group "
                             + groupName + " found");
         }
+
+        if (lazyInit)
+        {
+            completeInitialization(appData);
+            completeInitialization(appData.getGroup(groupName));
+
+            if (current != registry)
+            {
+                // reloaded in the meantime, the definition may be retired
+                return getGroup(groupName);
+            }
+        }
+
+        if (!pooling)
+        {
+            Group prototype = appData.getGroup(groupName);
+            if (prototype == null)
+            {
+                throw new IntakeException("Group " + groupName + " not found");
+            }
+
+            return prototype.newInstance();
+        }
+
+        GenericKeyedObjectPool<String, Group> pool = keyedPools.get(appData);
+
+        if (pool == null)
+        {
+            if (current != registry)
+            {
+                // the pool was retired by a reload, use the current definition
+                return getGroup(groupName);
+            }
+
+            throw new IntakeException(
+                    "Intake IntakeServiceImpl.getGroup(groupName): No pool for Group "
+                            + groupName + " found");
+        }
+
         try
         {
-            group = keyedPools.get(appData).borrowObject(groupName);
+            group = pool.borrowObject(groupName);
+        }
+        catch (IllegalStateException e)
+        {
+            if (pool.isClosed() && current != registry)
+            {
+                // the pool was retired by a reload, use the current definition
+                return getGroup(groupName);
+            }
+
+            throw new IntakeException("Could not get group " + groupName, e);
+        }
+        catch (NoSuchElementException e)
+        {
+            // The pool is exhausted and overflow is enabled. Do not wait for
+            // an instance to be returned but hand out one which does not
+            // belong to the pool.
+            if (getLogger().isDebugEnabled())
+            {
+                getLogger().debug("Pool for group " + groupName
+                        + " is exhausted, creating a new instance");
+            }
+
+            group = appData.getGroup(groupName).newInstance();
         }
         catch (Exception e)
         {
@@ -411,7 +501,116 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     }
 
     /**
-     * Puts a Group back to the pool.
+     * Runs the pending initialization of a group or a pool if there is one.
+     * The first caller runs it, concurrent callers wait for it to finish.
+     *
+     * @param target
+     *            the group or the AppData object of the pool
+     *
+     * @throws IntakeException
+     *             if the initialization failed
+     */
+    private void completeInitialization(Object target) throws IntakeException
+    {
+        FutureTask<Void> initialization = pendingInitializations.get(target);
+
+        if (initialization == null)
+        {
+            return;
+        }
+
+        // only the first call runs the task, all others return at once
+        initialization.run();
+
+        try
+        {
+            initialization.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new IntakeException("Could not initialize " + target, e.getCause());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IntakeException("Interrupted while initializing " + target, e);
+        }
+
+        pendingInitializations.remove(target, initialization);
+    }
+
+    /**
+     * Checks whether the group with the given name and its pool are
+     * completely initialized
+     *
+     * @param groupName
+     *            the name of the group
+     * @return <code>true</code> if no initialization is pending
+     * @throws IntakeException if the group does not exist
+     */
+    boolean isInitialized(String groupName) throws IntakeException
+    {
+        AppData appData = registry.getAppData(groupName);
+
+        return appData != null
+                && !pendingInitializations.containsKey(appData)
+                && !pendingInitializations.containsKey(appData.getGroup(groupName));
+    }
+
+    /**
+     * Registers the mapped classes and builds the property accessors of
+     * the fields of a group
+     *
+     * @param group
+     *            the group definition
+     */
+    private void initFields(Group group)
+    {
+        List<Field<?>> fields = group.getFields();
+        for (Field<?> field : fields)
+        {
+            String className = field.getMapToObject();
+            if (className != null)
+            {
+                propertyMap.computeIfAbsent(className,
+                        k -> new ConcurrentHashMap<String, PropertyDescriptor>());
+            }
+        }
+
+        for (Field<?> f : fields)
+        {
+            f.initGetterAndSetter();
+        }
+    }
+
+    /**
+     * Creates the pool for the groups of a definition file
+     *
+     * @param appData
+     *            the definition file
+     * @param maxPooledGroups
+     *            the maximum number of pooled instances per group
+     */
+    private void createPool(AppData appData, int maxPooledGroups)
+    {
+        KeyedPooledObjectFactory<String, Group> factory =
+            new Group.GroupFactory(appData);
+
+        GenericKeyedObjectPoolConfig<Group> poolConfig = new GenericKeyedObjectPoolConfig<Group>();
+        poolConfig.setMaxTotalPerKey(maxPooledGroups);
+        poolConfig.setBlockWhenExhausted(!poolOverflow);
+        poolConfig.setJmxEnabled(true);
+        poolConfig.setJmxNamePrefix("fulcrum-intake-pool-" + poolCounter.getAndIncrement());
+
+        keyedPools.put(appData,
+            new GenericKeyedObjectPool<String, Group>(factory, poolConfig));
+    }
+
+    /**
+     * Puts a Group back to the pool. If groups are not pooled or the
+     * instance does not belong to a pool, this method does nothing.
+     * A group is always returned to the pool it was borrowed from, even
+     * if its definition has been reloaded in the meantime.
      *
      * @param instance
      *            the object instance to recycle.
@@ -422,12 +621,12 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     @Override
     public void releaseGroup(Group instance) throws IntakeException
     {
-        if (instance != null)
+        if (instance != null && pooling && instance.isPooled())
         {
             String groupName = instance.getIntakeGroupName();
-            AppData appData = groupNames.get(groupName);
+            GenericKeyedObjectPool<String, Group> pool = keyedPools.get(instance.getAppData());
 
-            if (appData == null)
+            if (pool == null)
             {
                 throw new IntakeException(
                         "Intake IntakeServiceImpl.releaseGroup(groupName): "
@@ -437,7 +636,7 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
 
             try
             {
-                keyedPools.get(appData).returnObject(groupName, instance);
+                pool.returnObject(groupName, instance);
             }
             catch (IllegalStateException e)
             {
@@ -456,11 +655,18 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
             {
                 throw new IntakeException("Could not get group " + groupName, e);
             }
+
+            if (pool.isClosed() && pool.getNumActive() == 0)
+            {
+                // the last group of a retired pool has come back
+                keyedPools.remove(instance.getAppData(), pool);
+            }
         }
     }
 
     /**
-     * Gets the current size of the pool for a group.
+     * Gets the current size of the pool for a group. If groups are
+     * not pooled, the size is always 0.
      *
      * @param groupName
      *            the name of the group.
@@ -471,7 +677,7 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     @Override
     public int getSize(String groupName) throws IntakeException
     {
-        AppData appData = groupNames.get(groupName);
+        AppData appData = registry.getAppData(groupName);
         if (appData == null)
         {
             throw new IntakeException(
@@ -479,8 +685,19 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
                             + groupName + " found");
         }
 
+        if (!pooling)
+        {
+            return 0;
+        }
+
         KeyedObjectPool<String, Group> kop = keyedPools.get(appData);
 
+        if (kop == null)
+        {
+            // not initialized yet
+            return 0;
+        }
+
         return kop.getNumActive(groupName) + kop.getNumIdle(groupName);
     }
 
@@ -492,7 +709,7 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     @Override
     public String[] getGroupNames()
     {
-        return groupNames.keySet().toArray(new String[0]);
+        return registry.getGroupNames();
     }
 
     /**
@@ -505,7 +722,7 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     @Override
     public String getGroupKey(String groupName)
     {
-        return groupKeyMap.get(groupName);
+        return registry.getGroupKey(groupName);
     }
 
     /**
@@ -518,7 +735,7 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     @Override
     public String getGroupName(String groupKey)
     {
-        return groupNameMap.get(groupKey);
+        return registry.getGroupName(groupKey);
     }
 
     /**
@@ -536,47 +753,15 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     public Method getFieldSetter(String className, String propName)
             throws ClassNotFoundException, IntrospectionException
     {
-        Map<String, Method> settersForClassName = setterMap.get(className);
-
-        if (settersForClassName == null)
-        {
-            throw new IntrospectionException("No setter Map for " + className
-                    + " available!");
-        }
-
-        Method setter = settersForClassName.get(propName);
+        Method setter = getPropertyDescriptor(className, propName).getWriteMethod();
 
         if (setter == null)
         {
-            PropertyDescriptor pd = new PropertyDescriptor(propName, Class
-                    .forName(className));
-            synchronized (setterMap)
-            {
-                setter = pd.getWriteMethod();
-                settersForClassName.put(propName, setter);
-                if (setter == null)
-                {
-                    getLogger().error(
-                            "Intake: setter for '" + propName + "' in class '"
-                                    + className + "' could not be found.");
-                }
-            }
-            // we have already completed the reflection on the getter, so
-            // save it so we do not have to repeat
-            synchronized (getterMap)
-            {
-                Map<String, Method> gettersForClassName = getterMap.get(className);
-
-                if (gettersForClassName != null)
-                {
-                    Method getter = pd.getReadMethod();
-                    if (getter != null)
-                    {
-                        gettersForClassName.put(propName, getter);
-                    }
-                }
-            }
+            getLogger().error(
+                    "Intake: setter for '" + propName + "' in class '"
+                            + className + "' could not be found.");
         }
+
         return setter;
     }
 
@@ -595,48 +780,57 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     public Method getFieldGetter(String className, String propName)
             throws ClassNotFoundException, IntrospectionException
     {
-        Map<String, Method> gettersForClassName = getterMap.get(className);
+        Method getter = getPropertyDescriptor(className, propName).getReadMethod();
 
-        if (gettersForClassName == null)
+        if (getter == null)
         {
-            throw new IntrospectionException("No getter Map for " + className
+            getLogger().error(
+                    "Intake: getter for '" + propName + "' in class '"
+                            + className + "' could not be found.");
+        }
+
+        return getter;
+    }
+
+    /**
+     * Gets the cached descriptor of a property. The introspection is done
+     * without holding a lock, so concurrent callers may introspect the
+     * same property more than once, but all of them get the same
+     * descriptor.
+     *
+     * @param className
+     *            the name of the object.
+     * @param propName
+     *            the name of the property.
+     * @return the property descriptor
+     * @throws ClassNotFoundException if the class specified could not be loaded
+     * @throws IntrospectionException if the property could not be found
+     */
+    private PropertyDescriptor getPropertyDescriptor(String className, String propName)
+            throws ClassNotFoundException, IntrospectionException
+    {
+        Map<String, PropertyDescriptor> descriptors =
+                (className == null) ? null : propertyMap.get(className);
+
+        if (descriptors == null)
+        {
+            throw new IntrospectionException("No property Map for " + className
                     + " available!");
         }
 
-        Method getter = gettersForClassName.get(propName);
+        PropertyDescriptor pd = descriptors.get(propName);
 
-        if (getter == null)
+        if (pd == null)
         {
-            PropertyDescriptor pd = null;
-            synchronized (getterMap)
+            pd = new PropertyDescriptor(propName, Class.forName(className));
+            PropertyDescriptor existing = descriptors.putIfAbsent(propName, pd);
+            if (existing != null)
             {
-                pd = new PropertyDescriptor(propName, Class.forName(className));
-                getter = pd.getReadMethod();
-                gettersForClassName.put(propName, getter);
-                if (getter == null)
-                {
-                    getLogger().error(
-                            "Intake: getter for '" + propName + "' in class '"
-                                    + className + "' could not be found.");
-                }
-            }
-            // we have already completed the reflection on the setter, so
-            // save it so we do not have to repeat
-            synchronized (setterMap)
-            {
-                Map<String, Method> settersForClassName = getterMap.get(className);
-
-                if (settersForClassName != null)
-                {
-                    Method setter = pd.getWriteMethod();
-                    if (setter != null)
-                    {
-                        settersForClassName.put(propName, setter);
-                    }
-                }
+                pd = existing;
             }
         }
-        return getter;
+
+        return pd;
     }
 
     // ---------------- Avalon Lifecycle Methods ---------------------
@@ -676,6 +870,39 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
         }
 
         getLogger().debug("Path for serializing: " + serialDataPath);
+
+        String loader = conf.getChild(XML_LOADER).getValue(XML_LOADER_DEFAULT);
+
+        if ("stax".equalsIgnoreCase(loader))
+        {
+            staxLoader = true;
+        }
+        else if ("jaxb".equalsIgnoreCase(loader))
+        {
+            staxLoader = false;
+        }
+        else
+        {
+            throw new ConfigurationException("Unknown xml loader " + loader);
+        }
+
+        getLogger().debug("Loader for XML files: " + loader);
+
+        pooling = conf.getChild(POOLING).getValueAsBoolean(POOLING_DEFAULT);
+
+        getLogger().debug("Pooling of groups: " + pooling);
+
+        poolOverflow = conf.getChild(POOL_OVERFLOW).getValueAsBoolean(POOL_OVERFLOW_DEFAULT);
+
+        getLogger().debug("Overflow of exhausted pools: " + poolOverflow);
+
+        lazyInit = conf.getChild(LAZY_INIT).getValueAsBoolean(LAZY_INIT_DEFAULT);
+
+        getLogger().debug("Lazy initialization of groups: " + lazyInit);
+
+        reload = conf.getChild(RELOAD).getValueAsBoolean(RELOAD_DEFAULT);
+
+        getLogger().debug("Reloading of changed XML files: " + reload);
     }
 
     /**
@@ -690,16 +917,13 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
     {
         Map<AppData, File> appDataElements = null;
 
-        groupNames = new HashMap<String, AppData>();
-        groupKeyMap = new HashMap<String, String>();
-        groupNameMap = new HashMap<String, String>();
-        getterMap = new HashMap<String, Map<String,Method>>();
-        setterMap = new HashMap<String, Map<String,Method>>();
-        keyedPools = new HashMap<AppData, KeyedObjectPool<String, Group>>();
-
-        Set<File> xmlFiles = new HashSet<File>();
+        propertyMap = new ConcurrentHashMap<String, Map<String, PropertyDescriptor>>();
+        keyedPools = new ConcurrentHashMap<AppData, GenericKeyedObjectPool<String, Group>>();
+        pendingInitializations = new ConcurrentHashMap<Object, FutureTask<Void>>();
+        validatorCache = new ValidatorCache();
 
-        long timeStamp = 0;
+        // Keep the configured order, it decides which redefinition wins
+        xmlFiles = new LinkedHashSet<File>();
 
         getLogger().debug("logger is " + getLogger().getClass().getSimpleName());
 
@@ -722,132 +946,298 @@ public class IntakeServiceImpl extends AbstractLogEnabled implements
             xmlFiles.add(xmlFile);
 
             getLogger().debug("Added " + xmlPath + " as File to parse");
-
-            // Get the timestamp of the youngest file to be compared with
-            // a serialized file. If it is younger than the serialized file,
-            // then we have to parse the XML anyway.
-            timeStamp = xmlFile.lastModified() > timeStamp ? xmlFile
-                    .lastModified() : timeStamp;
         }
 
-        Map<AppData, File> serializedMap = loadSerialized(serialDataPath, timeStamp);
+        // The hashes of the single files are only needed to detect changes
+        Map<File, byte[]> fileHashes = reload
+                ? computeFileHashes(xmlFiles) : new HashMap<File, byte[]>();
+
+        // The snapshot is only used if it was made from the same XML content
+        byte[] hash = null;
+        if (serialDataPath != null)
+        {
+            hash = reload ? DefinitionSnapshot.combineHashes(fileHashes)
+                    : DefinitionSnapshot.computeHash(xmlFiles);
+        }
+        Map<AppData, File> snapshotMap = loadSnapshot(serialDataPath, hash);
 
-        if (serializedMap != null)
+        if (snapshotMap != null)
         {
-            // Use the serialized data as XML groups. Don't parse.
-            appDataElements = serializedMap;
-            getLogger().debug("Using the serialized map");
+            // Use the snapshot data as XML groups. Don't parse.
+            appDataElements = snapshotMap;
+            getLogger().debug("Using the definition snapshot");
         }
         else
         {
-        	long timer = System.currentTimeMillis();
+            long timer = System.currentTimeMillis();
 
-            // Parse all the given XML files
-            JAXBContext jaxb = JAXBContext.newInstance(AppData.class);
-            Unmarshaller um = jaxb.createUnmarshaller();
+            appDataElements = parseXmlFiles(xmlFiles);
 
-            // Debug mapping
-            um.setEventHandler(new DefaultValidationEventHandler());
+            getLogger().debug("Parsing took " + (System.currentTimeMillis() - timer));
+            saveSnapshot(serialDataPath, hash, appDataElements);
+        }
 
-            // Enable logging
-            Listener logEnabledListener = new AvalonLogEnabledListener();
-            um.setListener(logEnabledListener);
+        registry = buildRegistry(appDataElements, fileHashes, null);
 
-            URL schemaURL = getClass().getResource("/intake.xsd");
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-            um.setSchema(schemaFactory.newSchema(schemaURL));
-            appDataElements = new HashMap<AppData, File>();
+        if (reload)
+        {
+            watcher = new DefinitionWatcher(xmlFiles, this::reload, getLogger());
+            watcher.start();
 
-            for (File xmlFile : xmlFiles)
+            // catch up with changes made while the files were parsed
+            reload();
+        }
+
+        if (getLogger().isInfoEnabled())
+        {
+            getLogger().info("Intake Service is initialized now.");
+        }
+    }
+
+    /**
+     * Builds a new registry for the given definition files and prepares
+     * the groups and pools of all definition files which are not part of
+     * the previous registry. Groups which are defined exactly as in the
+     * previous version of their file take over the property accessors of
+     * the previous version.
+     *
+     * @param appDataElements
+     *            The definition files in the configured order
+     * @param fileHashes
+     *            The content hashes of the files
+     * @param previous
+     *            The current registry or <code>null</code> at startup
+     *
+     * @return the new registry
+     *
+     * @throws IntakeException if a group could not be prepared
+     */
+    private GroupRegistry buildRegistry(Map<AppData, File> appDataElements,
+            Map<File, byte[]> fileHashes, GroupRegistry previous) throws IntakeException
+    {
+        GroupRegistry next = new GroupRegistry(appDataElements, fileHashes, getLogger());
+        Map<File, AppData> previousFiles = new HashMap<File, AppData>();
+
+        if (previous != null)
+        {
+            for (Entry<AppData, File> entry : previous.getAppDataElements().entrySet())
             {
-                getLogger().debug("Now parsing: " + xmlFile);
-                try (FileInputStream fis = new FileInputStream(xmlFile))
-                {
-                    AppData appData = (AppData) um.unmarshal(fis);
+                previousFiles.put(entry.getValue(), entry.getKey());
+            }
+        }
+
+        for (Entry<AppData, File> entry : appDataElements.entrySet())
+        {
+            AppData appData = entry.getKey();
+
+            if (previous != null && previous.getAppDataElements().containsKey(appData))
+            {
+                // unchanged file, groups and pool are kept
+                continue;
+            }
 
-                    appDataElements.put(appData, xmlFile);
-                    getLogger().debug("Saving AppData for " + xmlFile);
+            AppData previousData = previousFiles.get(entry.getValue());
+
+            // share the validators of all files
+            appData.setValidatorCache(validatorCache);
+
+            int maxPooledGroups = 0;
+
+            for (Group g : appData.getGroups())
+            {
+                Group previousGroup = (previousData == null)
+                        ? null : previousData.getGroup(g.getIntakeGroupName());
+
+                if (previousGroup != null
+                        && !pendingInitializations.containsKey(previousGroup)
+                        && g.reuseAccessors(previousGroup))
+                {
+                    getLogger().debug("Group " + g.getIntakeGroupName() + " is unchanged");
+                }
+                else if (lazyInit)
+                {
+                    // Init fields on first use
+                    pendingInitializations.put(g, new FutureTask<Void>(() -> initFields(g), null));
+                }
+                else
+                {
+                    initFields(g);
                 }
+
+                maxPooledGroups = Math.max(maxPooledGroups, g.getPoolCapacity());
             }
 
-            getLogger().debug("Parsing took " + (System.currentTimeMillis() - timer));
-            saveSerialized(serialDataPath, appDataElements);
+            if (!pooling)
+            {
+                continue;
+            }
+
+            if (lazyInit)
+            {
+                int poolCapacity = maxPooledGroups;
+
+                pendingInitializations.put(appData, new FutureTask<Void>(
+                        () -> createPool(appData, poolCapacity), null));
+            }
+            else
+            {
+                createPool(appData, maxPooledGroups);
+            }
         }
 
-        int counter = 0;
-        AppData appData;
-        File dataFile;
-        for ( Entry<AppData, File> entry : appDataElements.entrySet() )
+        return next;
+    }
+
+    /**
+     * Computes the content hashes of the given files
+     *
+     * @param files
+     *            The files
+     *
+     * @return the hashes by file in the order of the files
+     *
+     * @throws IOException if a file could not be read
+     */
+    private static Map<File, byte[]> computeFileHashes(Set<File> files) throws IOException
+    {
+        // keep the order of the files, it is part of the snapshot hash
+        Map<File, byte[]> fileHashes = new LinkedHashMap<File, byte[]>();
+
+        for (File file : files)
         {
-        	// Set the entry pair
-        	appData = entry.getKey();
-        	dataFile = entry.getValue();
+            fileHashes.put(file, DefinitionSnapshot.computeFileHash(file));
+        }
 
-            int maxPooledGroups = 0;
-            List<Group> glist = appData.getGroups();
+        return fileHashes;
+    }
 
-            String groupPrefix = appData.getGroupPrefix();
+    /**
+     * Reloads the XML files which have changed since they were read. The
+     * new definitions are registered in a new registry which replaces the
+     * current one at once. Definition files whose content is unchanged keep
+     * their groups and pools. Groups borrowed from a retired pool are
+     * returned to that pool. If a file could not be read, the current
+     * definitions stay in place.
+     *
+     * @return <code>true</code> if new definitions have been published
+     */
+    boolean reload()
+    {
+        synchronized (reloadLock)
+        {
+            GroupRegistry previous = registry;
 
-            for (ListIterator<Group> i = glist.listIterator(glist.size()); i.hasPrevious();)
+            try
             {
-                Group g = i.previous();
-                String groupName = g.getIntakeGroupName();
-
-                boolean registerUnqualified = registerGroup(groupName, g, appData, true);
+                Map<File, byte[]> fileHashes = computeFileHashes(xmlFiles);
+                Map<File, AppData> previousFiles = new HashMap<File, AppData>();
 
-                if (!registerUnqualified)
+                for (Entry<AppData, File> entry : previous.getAppDataElements().entrySet())
                 {
-                    getLogger().info(
-                            "Ignored redefinition of Group " + groupName
-                                    + " or Key " + g.getGID() + " from "
-                                    + dataFile);
+                    previousFiles.put(entry.getValue(), entry.getKey());
                 }
 
-                if (groupPrefix != null)
+                Set<File> changedFiles = new LinkedHashSet<File>();
+
+                for (File xmlFile : xmlFiles)
                 {
-                    StringBuilder qualifiedName = new StringBuilder();
-                    qualifiedName.append(groupPrefix).append(':').append(groupName);
-
-                    // Add the fully qualified group name. Do _not_ check
-                    // for
-                    // the existence of the key if the unqualified
-                    // registration succeeded
-                    // (because then it was added by the registerGroup
-                    // above).
-                    if (!registerGroup(qualifiedName.toString(), g,
-                            appData, !registerUnqualified))
+                    if (!previousFiles.containsKey(xmlFile)
+                            || !Arrays.equals(fileHashes.get(xmlFile), previous.getFileHash(xmlFile)))
                     {
-                        getLogger().error(
-                            "Could not register fully qualified name "
-                                    + qualifiedName
-                                    + ", maybe two XML files have the same prefix. Ignoring it.");
+                        changedFiles.add(xmlFile);
                     }
                 }
 
-                // Init fields
-                for (Field<?> f : g.getFields())
+                if (changedFiles.isEmpty())
                 {
-                    f.initGetterAndSetter();
+                    return false;
                 }
 
-                maxPooledGroups = Math.max(maxPooledGroups, g.getPoolCapacity());
+                getLogger().info("Reloading changed XML files " + changedFiles);
+
+                for (Entry<AppData, File> entry : parseXmlFiles(changedFiles).entrySet())
+                {
+                    previousFiles.put(entry.getValue(), entry.getKey());
+                }
+
+                Map<AppData, File> appDataElements = new LinkedHashMap<AppData, File>();
+
+                for (File xmlFile : xmlFiles)
+                {
+                    appDataElements.put(previousFiles.get(xmlFile), xmlFile);
+                }
+
+                GroupRegistry next = buildRegistry(appDataElements, fileHashes, previous);
+
+                // publish the new definitions
+                registry = next;
+
+                retire(previous, next);
+                saveSnapshot(serialDataPath,
+                        DefinitionSnapshot.combineHashes(fileHashes), appDataElements);
+
+                return true;
+            }
+            catch (Exception e)
+            {
+                getLogger().error("Could not reload the XML files, keeping the current definitions", e);
+                return false;
             }
+        }
+    }
 
-            KeyedPooledObjectFactory<String, Group> factory =
-                new Group.GroupFactory(appData);
+    /**
+     * Retires the definition files of the previous registry which are not
+     * part of the new one. Their pools are closed, groups borrowed from them
+     * are destroyed when they are released.
+     *
+     * @param previous
+     *            The previous registry
+     * @param next
+     *            The new registry
+     *
+     * @throws IntakeException if a group could not be found
+     */
+    private void retire(GroupRegistry previous, GroupRegistry next) throws IntakeException
+    {
+        for (AppData appData : previous.getAppDataElements().keySet())
+        {
+            if (next.getAppDataElements().containsKey(appData))
+            {
+                continue;
+            }
+
+            pendingInitializations.remove(appData);
+
+            for (Group g : appData.getGroups())
+            {
+                pendingInitializations.remove(g);
+            }
 
-            GenericKeyedObjectPoolConfig<Group> poolConfig = new GenericKeyedObjectPoolConfig<Group>();
-            poolConfig.setMaxTotalPerKey(maxPooledGroups);
-            poolConfig.setJmxEnabled(true);
-            poolConfig.setJmxNamePrefix("fulcrum-intake-pool-" + counter++);
+            GenericKeyedObjectPool<String, Group> pool = keyedPools.get(appData);
 
-            keyedPools.put(appData,
-                new GenericKeyedObjectPool<String, Group>(factory, poolConfig));
+            if (pool != null)
+            {
+                pool.close();
+
+                if (pool.getNumActive() == 0)
+                {
+                    keyedPools.remove(appData, pool);
+                }
+            }
         }
+    }
 
-        if (getLogger().isInfoEnabled())
+    /**
+     * Avalon component lifecycle method. Stops watching the XML files.
+     */
+    @Override
+    public void dispose()
+    {
+        if (watcher != null)
         {
-            getLogger().info("Intake Service is initialized now.");
+            watcher.close();
+            watcher = null;
         }
     }
 
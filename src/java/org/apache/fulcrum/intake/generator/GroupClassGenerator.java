@@ -0,0 +1,516 @@
+package org.apache.fulcrum.intake.generator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.SourceVersion;
+
+import org.apache.avalon.framework.logger.Logger;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.model.AppData;
+import org.apache.fulcrum.intake.model.Field;
+import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.model.StaxDefinitionLoader;
+
+/**
+ * Generates a typed group class for every group of a definition file.
+ * The generated classes extend {@link org.apache.fulcrum.intake.model.TypedGroup}
+ * and provide
+ * <ul>
+ * <li>an accessor per field which returns the field class of the field
+ * type, e.g. <code>LoginGroup.username()</code> returns a
+ * <code>StringField</code>,</li>
+ * <li><code>setProperties()</code> and <code>getProperties()</code> for
+ * every class named in <code>mapToObject</code>, which call the setters
+ * and getters of the bean directly instead of through reflection.</li>
+ * </ul>
+ *
+ * Misspelled group, field and property names thus become compile errors
+ * in the code using the generated classes. The classes of custom fields
+ * and of the mapped beans must be on the class path of the generator,
+ * their properties are checked with the same introspection the service
+ * uses at runtime.
+ *
+ * The generator is meant to run at build time, e.g. with the
+ * <code>java</code> goal of the exec-maven-plugin:
+ * <pre>
+ * GroupClassGenerator &lt;package&gt; &lt;output directory&gt; &lt;xml file&gt;...
+ * </pre>
+ *
+ * @version $Id$
+ */
+public final class GroupClassGenerator
+{
+    /** Method names of the generated classes which fields must not hide */
+    private static final Set<String> RESERVED_NAMES = new HashSet<String>(Arrays.asList(
+            "getGroup", "field", "setProperties", "getProperties", "of", "from",
+            "toString", "hashCode", "equals", "getClass", "clone", "finalize",
+            "notify", "notifyAll", "wait"));
+
+    /** The package of the generated classes */
+    private final String packageName;
+
+    /** The names of the groups generated so far */
+    private final Set<String> generatedGroups = new HashSet<String>();
+
+    /**
+     * Constructor
+     *
+     * @param packageName the package of the generated classes
+     */
+    public GroupClassGenerator(String packageName)
+    {
+        if (StringUtils.isNotEmpty(packageName)
+                && !SourceVersion.isName(packageName))
+        {
+            throw new IllegalArgumentException("Invalid package name " + packageName);
+        }
+
+        this.packageName = packageName;
+    }
+
+    /**
+     * Generate the classes for the groups of a definition file. Like the
+     * service, the generator uses the first definition of a group name, so
+     * the files have to be passed in the configured order.
+     *
+     * @param appData the definitions
+     * @param outputDirectory the root directory of the generated sources
+     * @return the files written
+     * @throws IntakeException if a field or property could not be mapped
+     * @throws IOException if a file could not be written
+     */
+    public List<File> generate(AppData appData, File outputDirectory)
+            throws IntakeException, IOException
+    {
+        File directory = StringUtils.isEmpty(packageName) ? outputDirectory
+                : new File(outputDirectory, packageName.replace('.', File.separatorChar));
+        List<File> files = new ArrayList<File>();
+
+        for (Group group : appData.getGroups())
+        {
+            if (!generatedGroups.add(group.getIntakeGroupName()))
+            {
+                // redefinitions are ignored by the service as well
+                continue;
+            }
+
+            File javaFile = new File(directory, getClassName(group) + ".java");
+            Files.createDirectories(directory.toPath());
+            Files.writeString(javaFile.toPath(), generate(group), StandardCharsets.UTF_8);
+            files.add(javaFile);
+        }
+
+        return files;
+    }
+
+    /**
+     * Generate the source of the typed class of a group
+     *
+     * @param group the group definition
+     * @return the java source
+     * @throws IntakeException if a field or property could not be mapped
+     */
+    public String generate(Group group) throws IntakeException
+    {
+        String className = getClassName(group);
+        List<Field<?>> fields = group.getFields();
+        String[] names = getAccessorNames(fields);
+        String[] types = new String[fields.size()];
+
+        for (int i = 0; i < types.length; i++)
+        {
+            types[i] = getTypeName(fields.get(i).getClass());
+        }
+
+        StringBuilder sb = new StringBuilder(1024);
+
+        if (StringUtils.isNotEmpty(packageName))
+        {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+
+        sb.append("import org.apache.fulcrum.intake.IntakeException;\n");
+        sb.append("import org.apache.fulcrum.intake.IntakeService;\n");
+        sb.append("import org.apache.fulcrum.intake.model.Group;\n");
+        sb.append("import org.apache.fulcrum.intake.model.TypedGroup;\n\n");
+        sb.append("/**\n");
+        sb.append(" * Typed access to the intake group ").append(group.getIntakeGroupName()).append(".\n");
+        sb.append(" * Generated from the definition file, do not edit.\n");
+        sb.append(" */\n");
+        sb.append("public class ").append(className).append(" extends TypedGroup\n{\n");
+        sb.append("    /** The name of the group */\n");
+        sb.append("    public static final String NAME = ")
+            .append(literal(group.getIntakeGroupName())).append(";\n\n");
+        sb.append("    /** The key of the group */\n");
+        sb.append("    public static final String KEY = ").append(literal(group.getGID())).append(";\n");
+
+        for (int i = 0; i < names.length; i++)
+        {
+            sb.append("\n    /** The field ").append(fields.get(i).getName()).append(" */\n");
+            sb.append("    private final ").append(types[i]).append(' ').append(names[i]).append(";\n");
+        }
+
+        sb.append("\n    /**\n");
+        sb.append("     * Wrap a group instance\n");
+        sb.append("     *\n");
+        sb.append("     * @param group the group instance\n");
+        sb.append("     * @throws IntakeException if the group does not match the definition\n");
+        sb.append("     */\n");
+        sb.append("    protected ").append(className).append("(Group group) throws IntakeException\n");
+        sb.append("    {\n");
+        sb.append("        super(group, NAME);\n");
+
+        for (int i = 0; i < names.length; i++)
+        {
+            sb.append("        this.").append(names[i]).append(" = field(").append(i).append(", ")
+                .append(literal(fields.get(i).getName())).append(", ")
+                .append(types[i]).append(".class);\n");
+        }
+
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * Wrap a group instance\n");
+        sb.append("     *\n");
+        sb.append("     * @param group the group instance\n");
+        sb.append("     * @return the typed group\n");
+        sb.append("     * @throws IntakeException if the group does not match the definition\n");
+        sb.append("     */\n");
+        sb.append("    public static ").append(className)
+            .append(" of(Group group) throws IntakeException\n");
+        sb.append("    {\n");
+        sb.append("        return new ").append(className).append("(group);\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * Get a group instance from the service. It must be released with\n");
+        sb.append("     * <code>intake.releaseGroup(group.getGroup())</code>.\n");
+        sb.append("     *\n");
+        sb.append("     * @param intake the intake service\n");
+        sb.append("     * @return the typed group\n");
+        sb.append("     * @throws IntakeException if the group could not be created\n");
+        sb.append("     */\n");
+        sb.append("    public static ").append(className)
+            .append(" from(IntakeService intake) throws IntakeException\n");
+        sb.append("    {\n");
+        sb.append("        return new ").append(className).append("(intake.getGroup(NAME));\n");
+        sb.append("    }\n");
+
+        for (int i = 0; i < names.length; i++)
+        {
+            sb.append("\n    /**\n");
+            sb.append("     * Get the field ").append(fields.get(i).getName()).append("\n");
+            sb.append("     *\n");
+            sb.append("     * @return the field\n");
+            sb.append("     */\n");
+            sb.append("    public ").append(types[i]).append(' ').append(names[i]).append("()\n");
+            sb.append("    {\n");
+            sb.append("        return ").append(names[i]).append(";\n");
+            sb.append("    }\n");
+        }
+
+        for (Map.Entry<Class<?>, List<Integer>> entry : getMappedFields(group).entrySet())
+        {
+            appendBinding(sb, group, entry.getKey(), entry.getValue(), names);
+        }
+
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Append the binding methods for a mapped bean class
+     *
+     * @param sb the source
+     * @param group the group definition
+     * @param beanClass the mapped bean class
+     * @param indexes the positions of the fields mapped to the class
+     * @param names the accessor names of the fields
+     * @throws IntakeException if a property could not be found
+     */
+    private static void appendBinding(StringBuilder sb, Group group, Class<?> beanClass,
+            List<Integer> indexes, String[] names) throws IntakeException
+    {
+        String beanType = getTypeName(beanClass);
+        List<Field<?>> fields = group.getFields();
+        StringBuilder setters = new StringBuilder();
+        StringBuilder getters = new StringBuilder();
+
+        for (int index : indexes)
+        {
+            Field<?> field = fields.get(index);
+            String property = field.getDefinition().getMapToProperty();
+            PropertyDescriptor pd;
+
+            try
+            {
+                pd = new PropertyDescriptor(property, beanClass);
+            }
+            catch (IntrospectionException e)
+            {
+                throw new IntakeException("Could not map field " + field.getName()
+                        + " in group " + group.getIntakeGroupName() + " to the property "
+                        + property + " in object " + beanClass.getName(), e);
+            }
+
+            Method setter = pd.getWriteMethod();
+            Method getter = pd.getReadMethod();
+
+            setters.append("        bean.").append(setter.getName()).append("((")
+                .append(getTypeName(setter.getParameterTypes()[0])).append(") ")
+                .append(names[index]).append(".getPropertyValue());\n");
+            getters.append("        ").append(names[index]).append(".setPropertyValue(bean.")
+                .append(getter.getName()).append("());\n");
+        }
+
+        sb.append("\n    /**\n");
+        sb.append("     * Calls the setters of the bean for the fields mapped to it\n");
+        sb.append("     *\n");
+        sb.append("     * @param bean the bean\n");
+        sb.append("     * @throws IntakeException if a field is not valid\n");
+        sb.append("     */\n");
+        sb.append("    public void setProperties(").append(beanType)
+            .append(" bean) throws IntakeException\n");
+        sb.append("    {\n").append(setters).append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * Loads the fields mapped to the bean from its getters\n");
+        sb.append("     *\n");
+        sb.append("     * @param bean the bean\n");
+        sb.append("     */\n");
+        sb.append("    public void getProperties(").append(beanType).append(" bean)\n");
+        sb.append("    {\n").append(getters).append("    }\n");
+    }
+
+    /**
+     * Get the fields of a group which are mapped to a bean, by bean class
+     *
+     * @param group the group definition
+     * @return the positions of the mapped fields by bean class
+     * @throws IntakeException if a bean class could not be loaded
+     */
+    private static Map<Class<?>, List<Integer>> getMappedFields(Group group)
+            throws IntakeException
+    {
+        Map<Class<?>, List<Integer>> mappedFields = new LinkedHashMap<Class<?>, List<Integer>>();
+        List<Field<?>> fields = group.getFields();
+
+        for (int i = 0; i < fields.size(); i++)
+        {
+            String mapToObject = fields.get(i).getMapToObject();
+
+            if (StringUtils.isEmpty(mapToObject)
+                    || StringUtils.isEmpty(fields.get(i).getDefinition().getMapToProperty()))
+            {
+                continue;
+            }
+
+            Class<?> beanClass;
+
+            try
+            {
+                beanClass = Class.forName(mapToObject, false,
+                        Thread.currentThread().getContextClassLoader());
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new IntakeException("Could not load the class " + mapToObject
+                        + " mapped by group " + group.getIntakeGroupName(), e);
+            }
+
+            mappedFields.computeIfAbsent(beanClass, k -> new ArrayList<Integer>()).add(i);
+        }
+
+        return mappedFields;
+    }
+
+    /**
+     * Get the name of the generated class of a group
+     *
+     * @param group the group definition
+     * @return the simple class name
+     */
+    static String getClassName(Group group)
+    {
+        String name = toIdentifier(group.getIntakeGroupName());
+        name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        return SourceVersion.isKeyword(name) ? name + "_" : name;
+    }
+
+    /**
+     * Get unique accessor names for the fields of a group
+     *
+     * @param fields the fields
+     * @return the method names in field order
+     */
+    private static String[] getAccessorNames(List<Field<?>> fields)
+    {
+        String[] names = new String[fields.size()];
+        Set<String> used = new HashSet<String>(RESERVED_NAMES);
+
+        for (int i = 0; i < names.length; i++)
+        {
+            String name = toIdentifier(fields.get(i).getName());
+            name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+
+            if (SourceVersion.isKeyword(name) || used.contains(name))
+            {
+                name = name + "Field";
+            }
+
+            String unique = name;
+            for (int n = 2; used.contains(unique); n++)
+            {
+                unique = name + n;
+            }
+
+            used.add(unique);
+            names[i] = unique;
+        }
+
+        return names;
+    }
+
+    /**
+     * Replace the characters of a name which are not allowed in java
+     * identifiers
+     *
+     * @param name the name from the definition file
+     * @return a valid identifier
+     */
+    private static String toIdentifier(String name)
+    {
+        StringBuilder sb = new StringBuilder(name.length() + 1);
+
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+
+        if (sb.length() == 0 || !Character.isJavaIdentifierStart(sb.charAt(0)))
+        {
+            sb.insert(0, '_');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Get the name of a class as used in source code
+     *
+     * @param type the class
+     * @return the canonical name
+     * @throws IntakeException if the class cannot be named in source code
+     */
+    private static String getTypeName(Class<?> type) throws IntakeException
+    {
+        String name = type.getCanonicalName();
+
+        if (name == null)
+        {
+            throw new IntakeException("The class " + type.getName()
+                    + " cannot be used in generated code");
+        }
+
+        return name;
+    }
+
+    /**
+     * Create a java string literal
+     *
+     * @param value the string
+     * @return the quoted and escaped string
+     */
+    private static String literal(String value)
+    {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\')
+            {
+                sb.append('\\').append(c);
+            }
+            else if (c < ' ' || c > '~')
+            {
+                sb.append(String.format("\\u%04x", Integer.valueOf(c)));
+            }
+            else
+            {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Generate the group classes for the given definition files
+     *
+     * @param args the package, the output directory and the xml files
+     * @throws Exception if a file could not be read or a class could not
+     * be generated
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 3)
+        {
+            throw new IllegalArgumentException("Usage: GroupClassGenerator"
+                    + " <package> <output directory> <xml file>...");
+        }
+
+        Logger logger = new SystemErrLogger(true);
+        GroupClassGenerator generator = new GroupClassGenerator(args[0]);
+        File outputDirectory = new File(args[1]);
+
+        for (int i = 2; i < args.length; i++)
+        {
+            try (InputStream is = new BufferedInputStream(new FileInputStream(args[i])))
+            {
+                AppData appData = StaxDefinitionLoader.load(is, logger);
+
+                for (File javaFile : generator.generate(appData, outputDirectory))
+                {
+                    logger.info("Generated " + javaFile);
+                }
+            }
+        }
+    }
+}
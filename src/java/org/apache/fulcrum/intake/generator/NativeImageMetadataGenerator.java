@@ -0,0 +1,451 @@
+package org.apache.fulcrum.intake.generator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.avalon.framework.logger.Logger;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.IntakeServiceImpl;
+import org.apache.fulcrum.intake.model.AppData;
+import org.apache.fulcrum.intake.model.DefinitionSnapshot;
+import org.apache.fulcrum.intake.model.Field;
+import org.apache.fulcrum.intake.model.FieldAdapter;
+import org.apache.fulcrum.intake.model.FieldDefinition;
+import org.apache.fulcrum.intake.model.FieldType;
+import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.model.Rule;
+import org.apache.fulcrum.intake.model.StaxDefinitionLoader;
+import org.apache.fulcrum.intake.model.XmlField;
+import org.apache.fulcrum.intake.validator.ValidatorCache;
+
+/**
+ * Creates the metadata for ahead-of-time compilation from definition
+ * files. The service loads validators, custom fields and the property
+ * accessors of mapped beans by the class names given in the definition
+ * files. These classes are invisible to the static analysis of a
+ * GraalVM native image and are loaded late for a class data sharing
+ * archive. The generator writes
+ * <ul>
+ * <li><code>reflect-config.json</code> with the constructors of the
+ * validators and custom fields, the getters and setters of the mapped
+ * properties and the definition classes read by JAXB,</li>
+ * <li><code>resource-config.json</code> with the schema used by JAXB,</li>
+ * <li><code>intake.classlist</code>, a class list for
+ * <code>-XX:SharedClassListFile</code> when dumping an AppCDS archive.</li>
+ * </ul>
+ *
+ * The classes named in the definition files must be on the class path of
+ * the generator. Usage:
+ * <pre>
+ * NativeImageMetadataGenerator &lt;output directory&gt; &lt;xml file&gt;...
+ * </pre>
+ *
+ * @version $Id$
+ */
+public final class NativeImageMetadataGenerator
+{
+    /** File name of the reflection configuration */
+    public static final String REFLECT_CONFIG = "reflect-config.json";
+
+    /** File name of the resource configuration */
+    public static final String RESOURCE_CONFIG = "resource-config.json";
+
+    /** File name of the AppCDS class list */
+    public static final String CLASS_LIST = "intake.classlist";
+
+    /** The schema loaded by the JAXB loader */
+    private static final String SCHEMA_RESOURCE = "intake.xsd";
+
+    /** The classes of the service needed by every application */
+    private static final Class<?>[] SERVICE_CLASSES = {
+        IntakeServiceImpl.class, AppData.class, Group.class, Group.GroupFactory.class,
+        Field.class, FieldDefinition.class, FieldType.class, XmlField.class, Rule.class,
+        FieldAdapter.class, DefinitionSnapshot.class, StaxDefinitionLoader.class,
+        ValidatorCache.class
+    };
+
+    /** The classes read and written by JAXB through reflection */
+    private static final Class<?>[] JAXB_CLASSES = {
+        AppData.class, Group.class, XmlField.class, Rule.class, FieldType.class,
+        FieldAdapter.class
+    };
+
+    /** The reflection entries by class name */
+    private final Map<String, ReflectionEntry> entries = new TreeMap<String, ReflectionEntry>();
+
+    /** The classes of the class list */
+    private final Set<String> classList = new TreeSet<String>();
+
+    /**
+     * Constructor
+     */
+    public NativeImageMetadataGenerator()
+    {
+        for (Class<?> type : JAXB_CLASSES)
+        {
+            getEntry(type).allDeclared = true;
+        }
+
+        for (Class<?> type : SERVICE_CLASSES)
+        {
+            addClass(type);
+        }
+
+        for (FieldType type : FieldType.values())
+        {
+            // the constants with a body have their own class
+            addClass(type.getClass());
+        }
+    }
+
+    /**
+     * Add the classes used by the groups of a definition file
+     *
+     * @param appData the definitions
+     * @throws IntakeException if a class or property could not be found
+     */
+    public void add(AppData appData) throws IntakeException
+    {
+        for (Group group : appData.getGroups())
+        {
+            for (Field<?> field : group.getFields())
+            {
+                add(group, field);
+            }
+        }
+    }
+
+    /**
+     * Add the classes used by a field
+     *
+     * @param group the group of the field
+     * @param field the field
+     * @throws IntakeException if a class or property could not be found
+     */
+    private void add(Group group, Field<?> field) throws IntakeException
+    {
+        FieldDefinition definition = field.getDefinition();
+
+        // custom fields are created through this constructor, the definition
+        // does not tell them apart from the built-in types any more
+        getEntry(field.getClass()).addMethod("<init>",
+                XmlField.class.getName(), Group.class.getName());
+        addClass(field.getClass());
+
+        Class<?> validatorClass = loadClass(definition.getValidatorClassName(), group, field);
+        getEntry(validatorClass).addMethod("<init>");
+        addClass(validatorClass);
+
+        String mapToObject = definition.getMapToObject();
+        String mapToProperty = definition.getMapToProperty();
+
+        if (StringUtils.isEmpty(mapToObject) || StringUtils.isEmpty(mapToProperty))
+        {
+            return;
+        }
+
+        Class<?> beanClass = loadClass(mapToObject, group, field);
+        PropertyDescriptor pd;
+
+        try
+        {
+            pd = new PropertyDescriptor(mapToProperty, beanClass);
+        }
+        catch (IntrospectionException e)
+        {
+            throw new IntakeException("Could not map field " + field.getName()
+                    + " in group " + group.getIntakeGroupName() + " to the property "
+                    + mapToProperty + " in object " + mapToObject, e);
+        }
+
+        ReflectionEntry entry = getEntry(beanClass);
+
+        // the introspection looks up the accessors by name
+        entry.queryAllPublicMethods = true;
+
+        for (Method method : new Method[] { pd.getReadMethod(), pd.getWriteMethod() })
+        {
+            String[] parameterTypes = new String[method.getParameterCount()];
+
+            for (int i = 0; i < parameterTypes.length; i++)
+            {
+                parameterTypes[i] = method.getParameterTypes()[i].getTypeName();
+            }
+
+            entry.addMethod(method.getName(), parameterTypes);
+        }
+
+        addClass(beanClass);
+    }
+
+    /**
+     * Load a class named in a definition file
+     *
+     * @param className the class name
+     * @param group the group
+     * @param field the field naming the class
+     * @return the class
+     * @throws IntakeException if the class could not be found
+     */
+    private static Class<?> loadClass(String className, Group group, Field<?> field)
+            throws IntakeException
+    {
+        try
+        {
+            return Class.forName(className, false, Thread.currentThread().getContextClassLoader());
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IntakeException("Could not load the class " + className
+                    + " used by field " + field.getName() + " in group "
+                    + group.getIntakeGroupName(), e);
+        }
+    }
+
+    /**
+     * Get the reflection entry of a class
+     *
+     * @param type the class
+     * @return the entry
+     */
+    private ReflectionEntry getEntry(Class<?> type)
+    {
+        return entries.computeIfAbsent(type.getName(), k -> new ReflectionEntry());
+    }
+
+    /**
+     * Add a class to the class list
+     *
+     * @param type the class
+     */
+    private void addClass(Class<?> type)
+    {
+        classList.add(type.getName().replace('.', '/'));
+    }
+
+    /**
+     * Get the reflection configuration
+     *
+     * @return the content of <code>reflect-config.json</code>
+     */
+    public String getReflectionConfig()
+    {
+        StringBuilder sb = new StringBuilder(4096).append("[\n");
+        String separator = "";
+
+        for (Map.Entry<String, ReflectionEntry> entry : entries.entrySet())
+        {
+            sb.append(separator);
+            entry.getValue().appendJson(sb, entry.getKey());
+            separator = ",\n";
+        }
+
+        return sb.append("\n]\n").toString();
+    }
+
+    /**
+     * Get the resource configuration
+     *
+     * @return the content of <code>resource-config.json</code>
+     */
+    public String getResourceConfig()
+    {
+        return "{\n  \"resources\": {\n    \"includes\": [\n      { \"pattern\": "
+                + quote("\\Q" + SCHEMA_RESOURCE + "\\E") + " }\n    ]\n  }\n}\n";
+    }
+
+    /**
+     * Get the class list for an AppCDS archive
+     *
+     * @return the content of <code>intake.classlist</code>
+     */
+    public String getClassList()
+    {
+        StringBuilder sb = new StringBuilder(4096);
+
+        for (String className : classList)
+        {
+            sb.append(className).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Write the configuration files
+     *
+     * @param outputDirectory the directory, e.g.
+     * <code>META-INF/native-image/&lt;groupId&gt;/&lt;artifactId&gt;</code>
+     * in the resources of the application
+     * @throws IOException if a file could not be written
+     */
+    public void write(File outputDirectory) throws IOException
+    {
+        Files.createDirectories(outputDirectory.toPath());
+        Files.writeString(new File(outputDirectory, REFLECT_CONFIG).toPath(),
+                getReflectionConfig(), StandardCharsets.UTF_8);
+        Files.writeString(new File(outputDirectory, RESOURCE_CONFIG).toPath(),
+                getResourceConfig(), StandardCharsets.UTF_8);
+        Files.writeString(new File(outputDirectory, CLASS_LIST).toPath(),
+                getClassList(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Create a JSON string
+     *
+     * @param value the string
+     * @return the quoted and escaped string
+     */
+    private static String quote(String value)
+    {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\')
+            {
+                sb.append('\\').append(c);
+            }
+            else if (c < ' ')
+            {
+                sb.append(String.format("\\u%04x", Integer.valueOf(c)));
+            }
+            else
+            {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    /**
+     * The reflection configuration of a class
+     */
+    private static final class ReflectionEntry
+    {
+        /** Are all declared members accessed? */
+        boolean allDeclared;
+
+        /** Are the public methods looked up? */
+        boolean queryAllPublicMethods;
+
+        /** The invoked methods as JSON objects */
+        final Set<String> methods = new TreeSet<String>();
+
+        /**
+         * Add an invoked method or constructor
+         *
+         * @param name the method name, <code>&lt;init&gt;</code> for constructors
+         * @param parameterTypes the names of the parameter types
+         */
+        void addMethod(String name, String... parameterTypes)
+        {
+            StringBuilder sb = new StringBuilder("{ \"name\": ").append(quote(name))
+                    .append(", \"parameterTypes\": [");
+
+            for (int i = 0; i < parameterTypes.length; i++)
+            {
+                sb.append(i == 0 ? "" : ", ").append(quote(parameterTypes[i]));
+            }
+
+            methods.add(sb.append("] }").toString());
+        }
+
+        /**
+         * Append the entry as JSON object
+         *
+         * @param sb the output
+         * @param className the name of the class
+         */
+        void appendJson(StringBuilder sb, String className)
+        {
+            sb.append("  {\n    \"name\": ").append(quote(className));
+
+            if (allDeclared)
+            {
+                sb.append(",\n    \"allDeclaredConstructors\": true")
+                    .append(",\n    \"allDeclaredMethods\": true")
+                    .append(",\n    \"allDeclaredFields\": true");
+            }
+
+            if (queryAllPublicMethods)
+            {
+                sb.append(",\n    \"queryAllPublicMethods\": true");
+            }
+
+            if (!methods.isEmpty())
+            {
+                sb.append(",\n    \"methods\": [\n      ")
+                    .append(String.join(",\n      ", methods))
+                    .append("\n    ]");
+            }
+
+            sb.append("\n  }");
+        }
+    }
+
+    /**
+     * Generate the metadata for the given definition files
+     *
+     * @param args the output directory and the xml files
+     * @throws Exception if a file could not be read or written
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 2)
+        {
+            throw new IllegalArgumentException("Usage: NativeImageMetadataGenerator"
+                    + " <output directory> <xml file>...");
+        }
+
+        Logger logger = new SystemErrLogger(true);
+        NativeImageMetadataGenerator generator = new NativeImageMetadataGenerator();
+
+        for (int i = 1; i < args.length; i++)
+        {
+            try (InputStream is = new BufferedInputStream(new FileInputStream(args[i])))
+            {
+                generator.add(StaxDefinitionLoader.load(is, logger));
+            }
+        }
+
+        File outputDirectory = new File(args[0]);
+        generator.write(outputDirectory);
+        logger.info("Generated the metadata in " + outputDirectory);
+    }
+}
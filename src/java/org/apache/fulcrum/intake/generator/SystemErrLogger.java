@@ -0,0 +1,161 @@
+package org.apache.fulcrum.intake.generator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.avalon.framework.logger.Logger;
+
+/**
+ * Logger of the build time tools, which writes warnings, errors and,
+ * optionally, informational messages to <code>System.err</code>. The
+ * avalon logger implementations are not available outside of a container.
+ *
+ * @version $Id$
+ */
+final class SystemErrLogger implements Logger
+{
+    /** Are informational messages written? */
+    private final boolean verbose;
+
+    /**
+     * Constructor
+     *
+     * @param verbose <code>true</code> if informational messages are written
+     */
+    SystemErrLogger(boolean verbose)
+    {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Write a message
+     *
+     * @param level the level of the message
+     * @param message the message
+     * @param throwable the cause or <code>null</code>
+     */
+    private static void write(String level, String message, Throwable throwable)
+    {
+        System.err.println("[" + level + "] " + message);
+
+        if (throwable != null)
+        {
+            throwable.printStackTrace();
+        }
+    }
+
+    @Override
+    public void debug(String message)
+    {
+        // not written
+    }
+
+    @Override
+    public void debug(String message, Throwable throwable)
+    {
+        // not written
+    }
+
+    @Override
+    public boolean isDebugEnabled()
+    {
+        return false;
+    }
+
+    @Override
+    public void info(String message)
+    {
+        info(message, null);
+    }
+
+    @Override
+    public void info(String message, Throwable throwable)
+    {
+        if (verbose)
+        {
+            write("INFO", message, throwable);
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled()
+    {
+        return verbose;
+    }
+
+    @Override
+    public void warn(String message)
+    {
+        write("WARN", message, null);
+    }
+
+    @Override
+    public void warn(String message, Throwable throwable)
+    {
+        write("WARN", message, throwable);
+    }
+
+    @Override
+    public boolean isWarnEnabled()
+    {
+        return true;
+    }
+
+    @Override
+    public void error(String message)
+    {
+        write("ERROR", message, null);
+    }
+
+    @Override
+    public void error(String message, Throwable throwable)
+    {
+        write("ERROR", message, throwable);
+    }
+
+    @Override
+    public boolean isErrorEnabled()
+    {
+        return true;
+    }
+
+    @Override
+    public void fatalError(String message)
+    {
+        write("FATAL", message, null);
+    }
+
+    @Override
+    public void fatalError(String message, Throwable throwable)
+    {
+        write("FATAL", message, throwable);
+    }
+
+    @Override
+    public boolean isFatalErrorEnabled()
+    {
+        return true;
+    }
+
+    @Override
+    public Logger getChildLogger(String name)
+    {
+        return this;
+    }
+}
@@ -0,0 +1,227 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.format.DateTimeParseException;
+import java.time.temporal.Temporal;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.IntakeRuntimeException;
+import org.apache.fulcrum.intake.validator.TemporalValidator;
+import org.apache.fulcrum.intake.validator.Validator;
+
+/**
+ * Base class for fields holding java.time values. The values are parsed
+ * by a TemporalValidator and handed to the mapped objects as they are.
+ * Default and empty values are given in the ISO format of the type.
+ *
+ * @param <T> the java.time type
+ *
+ * @version $Id$
+ */
+public abstract class AbstractTemporalField<T extends Temporal & Comparable<? super T>>
+        extends Field<T>
+{
+    /** Serial version */
+    private static final long serialVersionUID = -2286431597290867211L;
+
+    /**
+     * Constructor.
+     *
+     * @param field xml field definition object
+     * @param group xml group definition object
+     * @throws IntakeException thrown by superclass
+     */
+    public AbstractTemporalField(XmlField field, Group group)
+            throws IntakeException
+    {
+        super(field, group);
+    }
+
+    /**
+     * Parse a value in the ISO format of the type
+     *
+     * @param value the string value
+     * @return the parsed value
+     * @throws DateTimeParseException if the value could not be parsed
+     */
+    protected abstract T parseIsoValue(String value) throws DateTimeParseException;
+
+    /**
+     * Create an array of the value type
+     *
+     * @param size the size of the array
+     * @return the array
+     */
+    protected abstract T[] newArray(int size);
+
+    /**
+     * Sets the default value for the field
+     *
+     * @param prop Parameter for the default values
+     */
+    @Override
+    public void setDefaultValue(String prop)
+    {
+        defaultValue = null;
+
+        if (prop == null)
+        {
+            return;
+        }
+
+        try
+        {
+            defaultValue = parseIsoValue(prop);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new IntakeRuntimeException("Could not parse " + prop
+                    + " into a valid value for the default value", e);
+        }
+    }
+
+    /**
+     * Set the empty Value. This value is used if Intake
+     * maps a field to a parameter returned by the user and
+     * the corresponding field is either empty (empty string)
+     * or non-existent.
+     *
+     * @param prop The value to use if the field is empty.
+     */
+    @Override
+    public void setEmptyValue(String prop)
+    {
+        emptyValue = null;
+
+        if (prop == null)
+        {
+            return;
+        }
+
+        try
+        {
+            emptyValue = parseIsoValue(prop);
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new IntakeRuntimeException("Could not parse " + prop
+                    + " into a valid value for the empty value", e);
+        }
+    }
+
+    /**
+     * Sets the value of the field from data in the parser.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doSetValue()
+    {
+        if (isMultiValued() && isParsed())
+        {
+            // use the values parsed by the validator
+            Object[] inputs = getParsedValue();
+            T[] values = newArray(inputs.length);
+            for (int i = 0; i < inputs.length; i++)
+            {
+                values[i] = inputs[i] == null ? getEmptyValue() : (T) inputs[i];
+            }
+            setTestValue(values);
+        }
+        else if (isParsed())
+        {
+            T value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
+        else if (isMultiValued())
+        {
+            String[] inputs = parser.getStrings(getKey());
+            T[] values = newArray(inputs.length);
+            for (int i = 0; i < inputs.length; i++)
+            {
+                values[i] = StringUtils.isNotEmpty(inputs[i])
+                        ? parseValue(inputs[i]) : getEmptyValue();
+            }
+            setTestValue(values);
+        }
+        else
+        {
+            String val = parser.getString(getKey());
+            setTestValue(StringUtils.isNotEmpty(val) ? parseValue(val) : getEmptyValue());
+        }
+    }
+
+    /**
+     * Parses a string using the Validator if it is an instance of
+     * TemporalValidator. Otherwise, the ISO format is used.
+     *
+     * @param value the string to parse
+     * @return the value or <code>null</code> if it could not be parsed
+     */
+    private T parseValue(String value)
+    {
+        Validator<T> validator = getValidator();
+
+        if (validator instanceof TemporalValidator<T> temporalValidator)
+        {
+            return temporalValidator.parse(value, getLocale());
+        }
+
+        try
+        {
+            return parseIsoValue(value);
+        }
+        catch (DateTimeParseException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * returns a String representation
+     *
+     * @return a String representation
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public String toString()
+    {
+        Object value = getValue();
+
+        if (value == null)
+        {
+            return "";
+        }
+        else if (value instanceof String)
+        {
+            return (String) value;
+        }
+
+        Validator<T> validator = getValidator();
+
+        if (validator instanceof TemporalValidator<T> temporalValidator)
+        {
+            return temporalValidator.format((T) value, getLocale());
+        }
+
+        return value.toString();
+    }
+}
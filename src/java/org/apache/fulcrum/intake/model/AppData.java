@@ -19,12 +19,21 @@ package org.apache.fulcrum.intake.model;
  * under the License.
  */
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.validator.ValidatorCache;
 
+import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
 import jakarta.xml.bind.annotation.XmlAttribute;
@@ -57,6 +66,12 @@ public class AppData implements Serializable
     /** Prefix string that will be used to qualify &lt;prefix&gt;:&lt;intakegroup&gt; names */
     private String groupPrefix;
 
+    /** Cache of the validators shared by the fields */
+    private transient ValidatorCache validatorCache;
+
+    /** Groups by unqualified and qualified name */
+    private transient volatile Map<String, Group> groupIndex;
+
     /**
      * Return a collection of input sections (&lt;group&gt;).
      * The names of the groups returned here are only unique
@@ -80,11 +95,13 @@ public class AppData implements Serializable
     public void setGroups(List<Group> groups)
     {
         this.groups = groups;
+        this.groupIndex = null;
     }
 
     /**
      * Get a XmlGroup with the given name. It finds both
-     * qualified and unqualified names in this package.
+     * qualified and unqualified names in this package. The
+     * lookup uses an index which is built once.
      *
      * @param groupName a <code>String</code> value
      * @return a <code>Group</code> value
@@ -99,29 +116,59 @@ public class AppData implements Serializable
                     "Intake AppData.getGroup(groupName) is null");
         }
 
-        String groupPrefix = getGroupPrefix();
+        Map<String, Group> index = groupIndex;
 
-        for (Group group : groups)
+        if (index == null)
         {
-            if (group.getIntakeGroupName().equals(groupName))
-            {
-                return group;
-            }
-            if (groupPrefix != null)
-            {
-                StringBuilder qualifiedGroupName = new StringBuilder();
+            index = buildGroupIndex();
+        }
 
-                qualifiedGroupName.append(groupPrefix)
-                        .append(':')
-                        .append(group.getIntakeGroupName());
+        return index.get(groupName);
+    }
 
-                if (qualifiedGroupName.toString().equals(groupName))
+    /**
+     * Build the index of the groups by name. If several groups match a
+     * name, the first one in document order wins, with the unqualified
+     * name of a group taking precedence over its qualified name.
+     *
+     * @return the unmodifiable index
+     */
+    private Map<String, Group> buildGroupIndex()
+    {
+        Map<String, Group> index = new HashMap<String, Group>();
+
+        if (groups != null)
+        {
+            String groupPrefix = getGroupPrefix();
+
+            for (Group group : groups)
+            {
+                String groupName = group.getIntakeGroupName();
+                index.putIfAbsent(groupName, group);
+
+                if (groupPrefix != null)
                 {
-                    return group;
+                    index.putIfAbsent(groupPrefix + ':' + groupName, group);
                 }
             }
         }
-        return null;
+
+        Map<String, Group> unmodifiableIndex = Collections.unmodifiableMap(index);
+        groupIndex = unmodifiableIndex;
+
+        return unmodifiableIndex;
+    }
+
+    /**
+     * JAXB / Jakarta callback to build the group index once
+     * all groups have been read
+     *
+     * @param um the Unmarshaller
+     * @param parent the parent object (none)
+     */
+    public void afterUnmarshal(Unmarshaller um, Object parent)
+    {
+        buildGroupIndex();
     }
 
     /**
@@ -183,6 +230,123 @@ public class AppData implements Serializable
     public void setGroupPrefix(String groupPrefix)
     {
         this.groupPrefix = groupPrefix;
+        this.groupIndex = null;
+    }
+
+    /**
+     * Get the cache of the validators shared by the fields
+     *
+     * @return the cache or <code>null</code> if validators are not shared
+     */
+    public ValidatorCache getValidatorCache()
+    {
+        return validatorCache;
+    }
+
+    /**
+     * Set the cache of the validators shared by the fields. The same
+     * cache may be used for several AppData objects.
+     *
+     * @param validatorCache the cache
+     */
+    public void setValidatorCache(ValidatorCache validatorCache)
+    {
+        this.validatorCache = validatorCache;
+    }
+
+    /**
+     * Read the definitions from a definition file
+     *
+     * @param in the xml input positioned on the input-data element
+     * @return the definitions
+     * @throws XMLStreamException if the xml is not well-formed
+     * @throws IntakeException if the definitions are invalid
+     */
+    static AppData readXml(StaxDefinitionLoader.Input in)
+            throws XMLStreamException, IntakeException
+    {
+        AppData appData = new AppData();
+
+        for (int i = 0; i < in.getAttributeCount(); i++)
+        {
+            String attribute = in.getAttributeName(i);
+
+            if ("basePackage".equals(attribute))
+            {
+                appData.setBasePackage(in.getAttributeValue(i));
+            }
+            else if ("groupPrefix".equals(attribute))
+            {
+                appData.setGroupPrefix(in.getAttributeValue(i));
+            }
+            else
+            {
+                in.skipAttribute(i);
+            }
+        }
+
+        List<Group> groups = new ArrayList<Group>();
+
+        while (in.nextElement("group"))
+        {
+            groups.add(Group.readXml(in, appData));
+        }
+
+        if (groups.isEmpty())
+        {
+            throw in.error("No groups defined");
+        }
+
+        appData.setGroups(groups);
+        appData.afterUnmarshal(null, null);
+        return appData;
+    }
+
+    /**
+     * Write the definitions to a snapshot
+     *
+     * @param out the snapshot output
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DefinitionSnapshot.Output out) throws IOException
+    {
+        out.writeString(basePackage);
+        out.writeString(groupPrefix);
+        out.writeInt(groups == null ? 0 : groups.size());
+
+        if (groups != null)
+        {
+            for (Group group : groups)
+            {
+                group.writeSnapshot(out);
+            }
+        }
+    }
+
+    /**
+     * Read the definitions from a snapshot
+     *
+     * @param in the snapshot input
+     * @return the definitions
+     * @throws IOException if the data is invalid
+     */
+    static AppData readSnapshot(DefinitionSnapshot.Input in) throws IOException
+    {
+        AppData appData = new AppData();
+        appData.basePackage = in.readString();
+        appData.groupPrefix = in.readString();
+
+        int count = in.readCount();
+        List<Group> groups = new ArrayList<Group>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            groups.add(Group.readSnapshot(in, appData));
+        }
+
+        appData.setGroups(groups);
+        appData.afterUnmarshal(null, null);
+        return appData;
     }
 
     /**
@@ -109,7 +109,23 @@ public class BigDecimalField
     {
         if (isMultiValued())
         {
-            BigDecimal[] values = parser.getBigDecimals(getKey());
+            BigDecimal[] values;
+
+            // use the values parsed by the validator if available
+            if (isParsed())
+            {
+                Object[] inputs = getParsedValue();
+                values = new BigDecimal[inputs.length];
+
+                for (int i = 0; i < inputs.length; i++)
+                {
+                    values[i] = (BigDecimal) inputs[i];
+                }
+            }
+            else
+            {
+                values = parser.getBigDecimals(getKey());
+            }
 
             for (int i = 0; i < values.length; i++)
             {
@@ -121,6 +137,11 @@ public class BigDecimalField
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            BigDecimal value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getBigDecimal(getKey(), getEmptyValue()));
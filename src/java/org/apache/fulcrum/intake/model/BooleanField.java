@@ -127,18 +127,25 @@ public class BooleanField
     {
         if (isMultiValued())
         {
-            Boolean[] inputs = parser.getBooleanObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getBooleanObjects(getKey());
             boolean[] values = new boolean[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().booleanValue()
-                        : inputs[i].booleanValue();
+                        : ((Boolean) inputs[i]).booleanValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Boolean value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getBooleanObject(getKey(), getEmptyValue()));
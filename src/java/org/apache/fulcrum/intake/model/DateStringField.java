@@ -19,13 +19,13 @@ package org.apache.fulcrum.intake.model;
  * under the License.
  */
 
-import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.Date;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fulcrum.intake.IntakeException;
 import org.apache.fulcrum.intake.IntakeRuntimeException;
+import org.apache.fulcrum.intake.validator.CompiledDateFormat;
 import org.apache.fulcrum.intake.validator.DateStringValidator;
 import org.apache.fulcrum.intake.validator.Validator;
 
@@ -44,10 +44,7 @@ public class DateStringField
         extends Field<Date>
 {
     /** Serial version */
-	private static final long serialVersionUID = 3659498567870484883L;
-
-	/** date format */
-    private DateFormat df = null;
+	private static final long serialVersionUID = 3659498567870484884L;
 
     /**
      * Constructor.
@@ -60,13 +57,6 @@ public class DateStringField
             throws IntakeException
     {
         super(field, group);
-
-        Validator<?> validator = getValidator();
-        if (validator == null || !(validator instanceof DateStringValidator))
-        {
-            df = DateFormat.getInstance();
-            df.setLenient(true);
-        }
     }
 
     /**
@@ -141,7 +131,23 @@ public class DateStringField
     @Override
 	protected void doSetValue()
     {
-        if (isMultiValued())
+        if (isMultiValued() && isParsed())
+        {
+            // use the values parsed by the validator
+            Object[] inputs = getParsedValue();
+            Date[] values = new Date[inputs.length];
+            for (int i = 0; i < inputs.length; i++)
+            {
+                values[i] = inputs[i] == null ? getEmptyValue() : (Date) inputs[i];
+            }
+            setTestValue(values);
+        }
+        else if (isParsed())
+        {
+            Date value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
+        else if (isMultiValued())
         {
             String[] inputs = parser.getStrings(getKey());
             Date[] values = new Date[inputs.length];
@@ -175,8 +181,8 @@ public class DateStringField
 
     /**
      * Parses a test date string using the Validator if it exists and
-     * is an instance of DateStringValidator.  Otherwise, DateFormat.parse()
-     * is used.
+     * is an instance of DateStringValidator.  Otherwise, the shared lenient
+     * default format of the locale is used.
      *
      * @param dateString The string date to parse
      * @return A <code>Date</code> object
@@ -194,7 +200,12 @@ public class DateStringField
         }
         else
         {
-            date = df.parse(dateString);
+            date = CompiledDateFormat.getInstance().parse(dateString);
+
+            if (date == null)
+            {
+                throw new ParseException("Could not parse the date", 0);
+            }
         }
         return date;
     }
@@ -224,7 +235,7 @@ public class DateStringField
         }
         else
         {
-            s = df.format((Date) value);
+            s = CompiledDateFormat.getInstance().format((Date) value);
         }
         return s;
     }
@@ -0,0 +1,484 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.avalon.framework.logger.Logger;
+
+/**
+ * Reads and writes a compact binary snapshot of the parsed definition
+ * files. The snapshot holds the data of the xml files, so that the
+ * definitions can be rebuilt without parsing and validating the xml.
+ * It does not use Java serialization.
+ *
+ * The snapshot starts with a header consisting of a magic number, the
+ * format version, the SHA-256 hash of the xml files it was made from,
+ * the length and the CRC32 checksum of the body. A snapshot is only
+ * used if the format version and the hash match. Snapshots are written
+ * to a temporary file which is then moved into place atomically and
+ * read through a memory-mapped buffer.
+ *
+ * @version $Id$
+ */
+public final class DefinitionSnapshot
+{
+    /** Magic number of a snapshot file, "INTK" */
+    private static final int MAGIC = 0x494E544B;
+
+    /** Version of the snapshot format */
+    static final int FORMAT_VERSION = 1;
+
+    /** Name of the hash algorithm for the xml files */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /** Length of the hash in bytes */
+    private static final int HASH_LENGTH = 32;
+
+    /** Length of the header in bytes */
+    private static final int HEADER_LENGTH = 4 + 4 + HASH_LENGTH + 8 + 8;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private DefinitionSnapshot()
+    {
+        // empty
+    }
+
+    /**
+     * Compute the hash of the given xml files. The result depends on the
+     * content, the absolute location and the order of the files, because
+     * the order decides which redefinition of a group wins.
+     *
+     * @param xmlFiles the definition files in the configured order
+     * @return the SHA-256 hash of the files
+     * @throws IOException if a file could not be read
+     */
+    public static byte[] computeHash(Iterable<File> xmlFiles) throws IOException
+    {
+        Map<File, byte[]> fileHashes = new LinkedHashMap<File, byte[]>();
+
+        for (File file : xmlFiles)
+        {
+            fileHashes.put(file, computeFileHash(file));
+        }
+
+        return combineHashes(fileHashes);
+    }
+
+    /**
+     * Compute the hash of the content of a single xml file
+     *
+     * @param xmlFile the definition file
+     * @return the SHA-256 hash of the file content
+     * @throws IOException if the file could not be read
+     */
+    public static byte[] computeFileHash(File xmlFile) throws IOException
+    {
+        MessageDigest md = newHashDigest();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = new DigestInputStream(Files.newInputStream(xmlFile.toPath()), md))
+        {
+            while (in.read(buffer) >= 0)
+            {
+                // digested while reading
+            }
+        }
+
+        return md.digest();
+    }
+
+    /**
+     * Combine the hashes of single files into the hash of all files as
+     * computed by {@link #computeHash(Iterable)}
+     *
+     * @param fileHashes the hashes of the single files in the configured
+     * order of the files
+     * @return the SHA-256 hash of the files
+     */
+    public static byte[] combineHashes(Map<File, byte[]> fileHashes)
+    {
+        MessageDigest md = newHashDigest();
+
+        for (Map.Entry<File, byte[]> entry : fileHashes.entrySet())
+        {
+            byte[] path = entry.getKey().toPath().toAbsolutePath().normalize()
+                    .toString().getBytes(StandardCharsets.UTF_8);
+
+            md.update(ByteBuffer.allocate(Integer.BYTES).putInt(path.length).flip());
+            md.update(path);
+            md.update(entry.getValue());
+        }
+
+        return md.digest();
+    }
+
+    /**
+     * Write a snapshot of the definitions. The file is replaced atomically
+     * where the file system supports it.
+     *
+     * @param file the snapshot file
+     * @param hash the hash of the xml files the definitions were read from
+     * @param appDataElements the definitions and the files they were read from
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void save(File file, byte[] hash, Map<AppData, File> appDataElements)
+            throws IOException
+    {
+        if (hash.length != HASH_LENGTH)
+        {
+            throw new IllegalArgumentException("Invalid hash length " + hash.length);
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(16384);
+
+        try (DataOutputStream out = new DataOutputStream(body))
+        {
+            Output output = new Output(out);
+            out.writeInt(appDataElements.size());
+
+            for (Map.Entry<AppData, File> entry : appDataElements.entrySet())
+            {
+                output.writeString(entry.getValue().getPath());
+                entry.getKey().writeSnapshot(output);
+            }
+        }
+
+        byte[] bodyBytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC)
+            .putInt(FORMAT_VERSION)
+            .put(hash)
+            .putLong(bodyBytes.length)
+            .putLong(crc.getValue())
+            .flip();
+
+        Path target = file.toPath().toAbsolutePath();
+        Path directory = target.getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+
+        try
+        {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+            {
+                ByteBuffer content = ByteBuffer.wrap(bodyBytes);
+                while (header.hasRemaining() || content.hasRemaining())
+                {
+                    channel.write(new ByteBuffer[] { header, content });
+                }
+                channel.force(true);
+            }
+
+            try
+            {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Load the definitions from a snapshot
+     *
+     * @param file the snapshot file
+     * @param hash the hash of the current xml files
+     * @param logger the logger for the definition objects
+     * @return the definitions and the files they were read from or
+     * <code>null</code> if the file does not exist, is not a snapshot
+     * of the current format or was made from different xml files
+     * @throws IOException if the snapshot is corrupt or could not be read
+     */
+    public static Map<AppData, File> load(File file, byte[] hash, Logger logger)
+            throws IOException
+    {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+
+        if (buffer.remaining() < HEADER_LENGTH
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != FORMAT_VERSION)
+        {
+            return null;
+        }
+
+        byte[] snapshotHash = new byte[HASH_LENGTH];
+        buffer.get(snapshotHash);
+        if (!Arrays.equals(hash, snapshotHash))
+        {
+            return null;
+        }
+
+        long length = buffer.getLong();
+        long checksum = buffer.getLong();
+        if (length != buffer.remaining())
+        {
+            throw new IOException("Snapshot " + file + " is truncated");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate());
+        if (crc.getValue() != checksum)
+        {
+            throw new IOException("Snapshot " + file + " has an invalid checksum");
+        }
+
+        try
+        {
+            Input input = new Input(buffer, logger);
+            int count = input.readCount();
+            Map<AppData, File> appDataElements = new LinkedHashMap<AppData, File>();
+
+            for (int i = 0; i < count; i++)
+            {
+                File xmlFile = new File(input.readString());
+                appDataElements.put(AppData.readSnapshot(input), xmlFile);
+            }
+
+            if (buffer.hasRemaining())
+            {
+                throw new IOException("Snapshot " + file + " has trailing data");
+            }
+
+            return appDataElements;
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException("Snapshot " + file + " is corrupt", e);
+        }
+    }
+
+    /**
+     * Create the digest for the hash of the xml files
+     *
+     * @return the message digest
+     */
+    private static MessageDigest newHashDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the primitive values of a snapshot
+     */
+    static final class Output
+    {
+        /** The underlying stream */
+        private final DataOutputStream out;
+
+        /**
+         * Constructor
+         *
+         * @param out the underlying stream
+         */
+        Output(DataOutputStream out)
+        {
+            this.out = out;
+        }
+
+        /**
+         * Write a string which may be <code>null</code>
+         *
+         * @param s the string
+         * @throws IOException if writing fails
+         */
+        void writeString(String s) throws IOException
+        {
+            if (s == null)
+            {
+                out.writeInt(-1);
+            }
+            else
+            {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * Write an int
+         *
+         * @param i the value
+         * @throws IOException if writing fails
+         */
+        void writeInt(int i) throws IOException
+        {
+            out.writeInt(i);
+        }
+
+        /**
+         * Write a boolean
+         *
+         * @param b the value
+         * @throws IOException if writing fails
+         */
+        void writeBoolean(boolean b) throws IOException
+        {
+            out.writeBoolean(b);
+        }
+    }
+
+    /**
+     * Reads the primitive values of a snapshot
+     */
+    static final class Input
+    {
+        /** The buffer holding the body of the snapshot */
+        private final ByteBuffer buffer;
+
+        /** The logger for the definition objects */
+        private final Logger logger;
+
+        /**
+         * Constructor
+         *
+         * @param buffer the buffer holding the body of the snapshot
+         * @param logger the logger for the definition objects
+         */
+        Input(ByteBuffer buffer, Logger logger)
+        {
+            this.buffer = buffer;
+            this.logger = logger;
+        }
+
+        /**
+         * Get the logger for the definition objects
+         *
+         * @return the logger
+         */
+        Logger getLogger()
+        {
+            return logger;
+        }
+
+        /**
+         * Read a string which may be <code>null</code>
+         *
+         * @return the string
+         * @throws IOException if the data is invalid
+         */
+        String readString() throws IOException
+        {
+            int length = buffer.getInt();
+
+            if (length == -1)
+            {
+                return null;
+            }
+            if (length < 0 || length > buffer.remaining())
+            {
+                throw new IOException("Invalid string length " + length);
+            }
+
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Read an int
+         *
+         * @return the value
+         */
+        int readInt()
+        {
+            return buffer.getInt();
+        }
+
+        /**
+         * Read the number of elements of a list
+         *
+         * @return the number of elements
+         * @throws IOException if the number is invalid
+         */
+        int readCount() throws IOException
+        {
+            int count = buffer.getInt();
+
+            if (count < 0 || count > buffer.remaining())
+            {
+                throw new IOException("Invalid element count " + count);
+            }
+
+            return count;
+        }
+
+        /**
+         * Read a boolean
+         *
+         * @return the value
+         */
+        boolean readBoolean()
+        {
+            return buffer.get() != 0;
+        }
+    }
+}
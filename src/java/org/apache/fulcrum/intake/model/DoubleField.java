@@ -129,18 +129,25 @@ public class DoubleField
     {
         if (isMultiValued())
         {
-            Double[] inputs = parser.getDoubleObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getDoubleObjects(getKey());
             double[] values = new double[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().doubleValue()
-                        : inputs[i].doubleValue();
+                        : ((Number) inputs[i]).doubleValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Double value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getDoubleObject(getKey(), getEmptyValue()));
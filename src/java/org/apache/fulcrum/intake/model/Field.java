@@ -23,19 +23,17 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Locale;
-import java.util.Map;
 
 import org.apache.avalon.framework.logger.LogEnabled;
 import org.apache.avalon.framework.logger.Logger;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.fulcrum.intake.IntakeError;
 import org.apache.fulcrum.intake.IntakeException;
 import org.apache.fulcrum.intake.IntakeServiceFacade;
 import org.apache.fulcrum.intake.Retrievable;
 import org.apache.fulcrum.intake.validator.DefaultValidator;
-import org.apache.fulcrum.intake.validator.InitableByConstraintMap;
-import org.apache.fulcrum.intake.validator.ValidationException;
+import org.apache.fulcrum.intake.validator.ValidationResult;
 import org.apache.fulcrum.intake.validator.Validator;
+import org.apache.fulcrum.intake.validator.ValidatorCache;
 import org.apache.fulcrum.parser.ValueParser;
 
 /**
@@ -49,16 +47,16 @@ import org.apache.fulcrum.parser.ValueParser;
  * @author <a href="mailto:tv@apache.org">Thomas Vandahl</a>
  * @version $Id$
  */
-public abstract class Field<T> implements Serializable, LogEnabled
+public abstract class Field<T> implements Serializable, LogEnabled, Cloneable
 {
     /** Serial version */
-    private static final long serialVersionUID = 6897267716698096895L;
+    private static final long serialVersionUID = -3295430935862812405L;
 
     /** Empty Value */
     private static final String EMPTY = "";
 
     /** CGI Key for "value if absent" */
-    private static final String VALUE_IF_ABSENT_KEY = "_vifa_";
+    static final String VALUE_IF_ABSENT_KEY = "_vifa_";
 
     /** Default Validator Package */
     public static final String defaultValidatorPackage = "org.apache.fulcrum.intake.validator.";
@@ -66,46 +64,20 @@ public abstract class Field<T> implements Serializable, LogEnabled
     /** Default Field Package */
     public static final String defaultFieldPackage = "org.apache.fulcrum.intake.model.";
 
-    // the following are set from the xml file and are permanent (final)
-
-    /** Name of the field. */
-    private final String name;
-
-    /** Key used to identify the field in the parser */
-    private final String key;
-
-    /** Display size of the field */
-    private final String displaySize;
-
-    /** Class name of the object to which the field is mapped */
-    protected String mapToObject;
-
-    /** Optional property name of the object to which the field is mapped */
-    private String mapToProperty;
-
-    /** Class name of the validator (for deserialization) */
-    private String validatorClassName;
+    /** The permanent data from the xml file, shared by all instances */
+    private final FieldDefinition definition;
 
     /** Used to validate the contents of the field */
     private transient Validator<T> validator;
 
-    /** Getter method in the mapped object used to populate the field */
-    private Method getter;
-
-    /** Setter method in the mapped object used to store the value of field */
-    private Method setter;
-
-    /** Error message set on the field if required and not set by parser */
-    private String ifRequiredMessage;
-
-    /** Does this field accept multiple values? */
-    private final boolean isMultiValued;
-
     /** Group to which the field belongs */
-    private final Group group;
+    private Group group;
+
+    /** The query data key, computed when the group is initialized */
+    private transient String key;
 
-    /** Is this field always required?  This is only set through the XML file */
-    private boolean alwaysRequired;
+    /** The query data key of the value if absent, computed on first use */
+    private transient String valueIfAbsentKey;
 
     /** Default value of the field */
     protected T defaultValue;
@@ -116,56 +88,12 @@ public abstract class Field<T> implements Serializable, LogEnabled
     /** Display name of the field to be used on data entry forms... */
     private String displayName;
 
-    /** Max size of the field */
-    private String maxSize;
-
-    // these are reset when the Field is returned to the pool
-
-    /** Has the field has been set from the parser? */
-    private boolean setFlag;
-
-    /** Has the field passed the validation test? */
-    private boolean validFlag;
-
-    /** Has the field been validated? */
-    private boolean validated;
-
-    /** Does the field require a value? */
-    private boolean required;
-
-    /** Has the field has been set from the parser? */
-    private boolean initialized;
-
-    /** Error message, is any, resulting from validation */
-    private String message;
-
-    /** Mapped object used to set the initial field value */
-    private Retrievable retrievable;
-
-    /** Locale of the field */
-    private Locale locale;
-
-    /** String value of the field */
-    private String stringValue;
-
-    /** String values of the field if isMultiValued=true */
-    private String[] stringValues;
-
-    /** Stores the value of the field from the Retrievable object */
-    private T validValue;
-
-    /** Stores the value of the field from the parser */
-    private Object testValue;
-
-    /** Used to pass testValue to the setter method through reflection */
-    private final Object[] valArray;
+    /** The request state, reset when the Field is returned to the pool */
+    private FieldState state;
 
     /** The object containing the field data. */
     protected ValueParser parser;
 
-    /** Store rules for deserialization */
-    private Map<String, Rule> ruleMap;
-
     /** Logging */
     protected transient Logger log;
 
@@ -182,12 +110,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
     {
     	enableLogging(field.getLogger());
         this.group = group;
-        key = field.getKey();
-        name = field.getName();
         displayName = field.getDisplayName();
-        displaySize = field.getDisplaySize();
-        isMultiValued = field.isMultiValued();
-        ruleMap = field.getRuleMap();
 
         try
         {
@@ -211,7 +134,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
                     + field.getEmptyValue(), e);
         }
 
-        this.validatorClassName = field.getValidator();
+        String validatorClassName = field.getValidator();
         if (validatorClassName == null)
         {
             validatorClassName = getDefaultValidator();
@@ -221,24 +144,8 @@ public abstract class Field<T> implements Serializable, LogEnabled
             validatorClassName = defaultValidatorPackage + validatorClassName;
         }
 
-        // field may have been declared as always required in the xml spec
-        Rule reqRule = field.getRuleMap().get(Validator.REQUIRED_RULE_NAME);
-        if (reqRule != null)
-        {
-            alwaysRequired = Boolean.valueOf(reqRule.getValue()).booleanValue();
-            ifRequiredMessage = reqRule.getMessage();
-        }
-
-        Rule maxLengthRule = field.getRuleMap().get(Validator.MAX_LENGTH_RULE_NAME);
-        if (maxLengthRule != null)
-        {
-            maxSize = maxLengthRule.getValue();
-        }
-
-        // map the getter and setter methods
-        mapToObject = field.getMapToObject();
-        mapToProperty = field.getMapToProperty();
-        valArray = new Object[1];
+        definition = new FieldDefinition(field, validatorClassName);
+        state = new FieldState();
     }
 
     /**
@@ -255,6 +162,8 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public void initGetterAndSetter()
     {
+        String mapToObject = definition.getMapToObject();
+        String mapToProperty = definition.getMapToProperty();
         Method tmpGetter = null;
         Method tmpSetter = null;
         if (StringUtils.isNotEmpty(mapToObject)
@@ -285,8 +194,58 @@ public abstract class Field<T> implements Serializable, LogEnabled
                         + mapToObject, e);
             }
         }
-        getter = tmpGetter;
-        setter = tmpSetter;
+        definition.setAccessors(tmpGetter, tmpSetter);
+    }
+
+    /**
+     * Get the permanent data of this field as specified in the xml file.
+     * The definition is shared by all instances of this field.
+     *
+     * @return the field definition
+     */
+    public FieldDefinition getDefinition()
+    {
+        return definition;
+    }
+
+    /**
+     * Creates a new instance of this field which belongs to the given group.
+     * The new instance shares the permanent data from the xml specification
+     * with this field but has its own request state, so that it can be
+     * handed out to a request independently of this field.
+     *
+     * Subclasses which hold additional request related or otherwise
+     * non-shareable data should override this method and call
+     * <code>super.newInstance(group)</code> first.
+     *
+     * @param group the group the new field instance belongs to
+     * @return a new field instance
+     * @throws IntakeException if the field could not be copied
+     */
+    protected Field<T> newInstance(Group group) throws IntakeException
+    {
+        Field<T> field;
+
+        try
+        {
+            @SuppressWarnings("unchecked") // clone() returns Object
+            Field<T> clone = (Field<T>) super.clone();
+            field = clone;
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new IntakeException("Could not create new instance of field "
+                    + getName() + " in group " + group.getIntakeGroupName(), e);
+        }
+
+        field.group = group;
+        field.key = null;
+        field.valueIfAbsentKey = null;
+        field.validator = null;
+        field.state = new FieldState();
+        field.parser = null;
+
+        return field;
     }
 
     /**
@@ -307,17 +266,17 @@ public abstract class Field<T> implements Serializable, LogEnabled
         setValid(true);
         setValidated(false);
 
-        this.locale = pp.getLocale();
+        state.put(FieldState.LOCALE, pp.getLocale());
 
         if (pp.containsKey(getKey()))
         {
             if (log.isDebugEnabled())
             {
-                log.debug(name + ": Found our Key in the request, setting Value");
+                log.debug(getName() + ": Found our Key in the request, setting Value");
             }
             if (pp.getString(getKey()) != null)
             {
-                setFlag = true;
+                setSet(true);
             }
             // validate();
         }
@@ -325,11 +284,11 @@ public abstract class Field<T> implements Serializable, LogEnabled
                 pp.getString(getValueIfAbsent()) != null)
         {
             pp.add(getKey(), pp.getString(getValueIfAbsent()));
-            setFlag = true;
+            setSet(true);
             // validate();
         }
 
-        initialized = true;
+        state.set(FieldState.INITIALIZED, true);
         return this;
     }
 
@@ -344,12 +303,12 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public Field<T> init(Retrievable obj)
     {
-        if (!initialized)
+        if (!state.is(FieldState.INITIALIZED))
         {
-            validFlag = true;
-            validated = false;
+            setValid(true);
+            setValidated(false);
         }
-        retrievable = obj;
+        state.put(FieldState.RETRIEVABLE, obj);
         return this;
     }
 
@@ -372,7 +331,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public Locale getLocale()
     {
-        return locale;
+        return state.get(FieldState.LOCALE);
     }
 
     /**
@@ -386,21 +345,28 @@ public abstract class Field<T> implements Serializable, LogEnabled
     }
 
     /**
-     * Gets the Validator object for this field.
+     * Gets the Validator object for this field. Shareable validators
+     * are created once for all fields with the same rules.
+     *
      * @return a <code>Validator</code> object
      */
     public Validator<T> getValidator()
     {
-    	if (validator == null && validatorClassName != null)
+    	if (validator == null)
         {
-            try
-            {
-				validator = createValidator(validatorClassName);
-			}
-            catch (IntakeException e)
+            validator = definition.getValidator();
+
+            if (validator == null && definition.getValidatorClassName() != null)
             {
-            	log.error("Could not create validator", e);
-			}
+                try
+                {
+                    validator = createValidator(definition.getValidatorClassName());
+                }
+                catch (IntakeException e)
+                {
+                    log.error("Could not create validator", e);
+                }
+            }
         }
         return validator;
     }
@@ -412,7 +378,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getMapToObject()
     {
-        return mapToObject;
+        return definition.getMapToObject();
     }
 
     /**
@@ -422,7 +388,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean isMultiValued()
     {
-        return isMultiValued;
+        return definition.isMultiValued();
     }
 
     /**
@@ -432,7 +398,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean isRequired()
     {
-        return alwaysRequired || required;
+        return definition.isAlwaysRequired() || state.is(FieldState.REQUIRED);
     }
 
     /**
@@ -444,7 +410,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public void setRequired(boolean v)
     {
-        setRequired(v, ifRequiredMessage);
+        setRequired(v, definition.getIfRequiredMessage());
     }
 
     /**
@@ -455,11 +421,11 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public void setRequired(boolean v, String message)
     {
-        this.required = v;
-        if (v && (!setFlag || null == getTestValue()))
+        state.set(FieldState.REQUIRED, v);
+        if (v && (!isSet() || null == getTestValue()))
         {
-            validFlag = false;
-            this.message = message;
+            setValid(false);
+            state.put(FieldState.MESSAGE, message);
         }
     }
 
@@ -470,7 +436,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
     public void removeFromRequest()
     {
         parser.remove(getKey());
-        parser.remove(getKey()+ VALUE_IF_ABSENT_KEY);
+        parser.remove(getValueIfAbsent());
     }
 
     /**
@@ -481,20 +447,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
     public void dispose()
     {
         parser = null;
-        initialized = false;
-        setFlag = false;
-        validFlag = false;
-        validated = false;
-        required = false;
-        message = null;
-        retrievable = null;
-
-        locale = null;
-        stringValue = null;
-        stringValues = null;
-        validValue = null;
-        testValue = null;
-        valArray[0] = null;
+        state.reset();
     }
 
     /**
@@ -504,7 +457,42 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getKey()
     {
-        return (group == null) ? key : group.getObjectKey() + key;
+        String k = key;
+
+        if (k == null)
+        {
+            k = (group == null) ? definition.getKey() : group.getObjectKey() + definition.getKey();
+        }
+
+        return k;
+    }
+
+    /**
+     * Precompute the query data keys for the object key of the group.
+     * The keys for new objects are shared by all instances of the field.
+     *
+     * @param objectKey the object key of the group or <code>null</code>
+     * to reset the keys
+     */
+    void setObjectKey(String objectKey)
+    {
+        if (objectKey == null)
+        {
+            key = null;
+            valueIfAbsentKey = null;
+        }
+        // the group hands out its shared instance for new objects
+        else if (objectKey == group.getNewObjectKey())
+        {
+            String[] keys = definition.getNewKeys(objectKey);
+            key = keys[0];
+            valueIfAbsentKey = keys[1];
+        }
+        else
+        {
+            key = objectKey + definition.getKey();
+            valueIfAbsentKey = null;
+        }
     }
 
     /**
@@ -516,7 +504,19 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getValueIfAbsent()
     {
-        return getKey() + VALUE_IF_ABSENT_KEY;
+        String k = valueIfAbsentKey;
+
+        if (k == null)
+        {
+            k = getKey() + VALUE_IF_ABSENT_KEY;
+
+            if (key != null)
+            {
+                valueIfAbsentKey = k;
+            }
+        }
+
+        return k;
     }
 
     /**
@@ -528,7 +528,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean isValid()
     {
-        return validFlag;
+        return state.is(FieldState.VALID);
     }
 
     /**
@@ -538,7 +538,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean isValidated()
     {
-        return validated;
+        return state.is(FieldState.VALIDATED);
     }
 
     /**
@@ -551,7 +551,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean isSet()
     {
-        return setFlag;
+        return state.is(FieldState.SET);
     }
 
     /**
@@ -563,7 +563,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getDisplayName()
     {
-        return (displayName == null) ? name : displayName;
+        return (displayName == null) ? getName() : displayName;
     }
 
     /**
@@ -586,6 +586,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getMessage()
     {
+        String message = state.get(FieldState.MESSAGE);
         return (message == null) ? EMPTY : message;
     }
 
@@ -596,8 +597,8 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public void setMessage(String message)
     {
-        this.message = message;
-        validFlag = false;
+        state.put(FieldState.MESSAGE, message);
+        setValid(false);
     }
 
     /**
@@ -607,7 +608,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     protected void setSet(boolean setFlag)
     {
-        this.setFlag = setFlag;
+        state.set(FieldState.SET, setFlag);
     }
 
     /**
@@ -617,7 +618,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     protected void setValid(boolean validFlag)
     {
-        this.validFlag = validFlag;
+        state.set(FieldState.VALID, validFlag);
     }
 
     /**
@@ -627,7 +628,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     protected void setValidated(boolean validated)
     {
-        this.validated = validated;
+        state.set(FieldState.VALIDATED, validated);
     }
 
     /**
@@ -637,16 +638,18 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public boolean validate()
     {
+        String name = getName();
         log.debug(name + ": validate()");
         Validator<T> v = getValidator();
 
         if (isMultiValued())
         {
-            stringValues = parser.getStrings(getKey());
+            String[] stringValues = parser.getStrings(getKey());
+            state.put(FieldState.STRING_VALUES, stringValues);
 
             if (log.isDebugEnabled())
             {
-                log.debug(name + ": Multi-Valued, Value is " + stringValue);
+                log.debug(name + ": Multi-Valued, Value is " + state.get(FieldState.STRING_VALUE));
                 if (stringValues != null)
                 {
                     for (int i = 0; i < stringValues.length; i++)
@@ -661,25 +664,25 @@ public abstract class Field<T> implements Serializable, LogEnabled
                 // set the test value as a String[] which might be replaced by
                 // the correct type if the input is valid.
                 setTestValue(stringValues);
+                clearParsedValue();
 
-                try
-                {
-                    v.assertValidity(this);
-                }
-                catch (ValidationException ve)
+                ValidationResult result = new ValidationResult();
+
+                if (!v.validate(this, result))
                 {
-                    setMessage(ve.getMessage());
+                    setMessage(result.getMessage());
                 }
             }
 
-            if (validFlag)
+            if (isValid())
             {
                 doSetValue();
             }
         }
         else
         {
-            stringValue = parser.getString(getKey());
+            String stringValue = parser.getString(getKey());
+            state.put(FieldState.STRING_VALUE, stringValue);
 
             if (log.isDebugEnabled())
             {
@@ -691,17 +694,19 @@ public abstract class Field<T> implements Serializable, LogEnabled
                 // set the test value as a String which might be replaced by
                 // the correct type if the input is valid.
                 setTestValue(stringValue);
+                clearParsedValue();
 
-                try
+                ValidationResult result = new ValidationResult();
+
+                if (v.validate(this, result))
                 {
-                    v.assertValidity(this);
                     log.debug(name + ": Value is ok");
                     doSetValue();
                 }
-                catch (ValidationException ve)
+                else
                 {
                     log.debug(name + ": Value failed validation!");
-                    setMessage(ve.getMessage());
+                    setMessage(result.getMessage());
                 }
             }
             else
@@ -710,9 +715,9 @@ public abstract class Field<T> implements Serializable, LogEnabled
             }
         }
 
-        validated = true;
+        setValidated(true);
 
-        return validFlag;
+        return isValid();
     }
 
     /**
@@ -746,7 +751,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     void setInitialValue(T obj)
     {
-        validValue = obj;
+        state.put(FieldState.VALID_VALUE, obj);
     }
 
     /**
@@ -761,8 +766,9 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public T getInitialValue() throws IntakeException
     {
-        if (validValue == null)
+        if (state.get(FieldState.VALID_VALUE) == null)
         {
+            Retrievable retrievable = state.get(FieldState.RETRIEVABLE);
             if (retrievable != null)
             {
                 getProperty(retrievable);
@@ -773,7 +779,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
             }
         }
 
-        return validValue;
+        return state.get(FieldState.VALID_VALUE);
     }
 
     /**
@@ -783,7 +789,55 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     void setTestValue(Object obj)
     {
-        testValue = obj;
+        state.put(FieldState.TEST_VALUE, obj);
+    }
+
+    /**
+     * Set the value converted by the validator while checking the test
+     * value. Validators which parse the input use this method to hand the
+     * typed value to the field, so that the field does not need to parse
+     * the input again. For multi-valued fields, the value is an
+     * <code>Object[]</code> with one element per input value. Empty input
+     * values are represented by <code>null</code>.
+     *
+     * @param value the converted value
+     */
+    public void setParsedValue(Object value)
+    {
+        state.put(FieldState.PARSED_VALUE, value);
+        state.set(FieldState.PARSED, true);
+    }
+
+    /**
+     * Flag set to true, if the validator has converted the test value
+     * during the last validation.
+     *
+     * @return true if a parsed value is available
+     */
+    public boolean isParsed()
+    {
+        return state.is(FieldState.PARSED);
+    }
+
+    /**
+     * Get the value converted by the validator.
+     *
+     * @param <TT> the type of the parsed value
+     * @return the parsed value or <code>null</code> if not available
+     * @see #setParsedValue(Object)
+     */
+    public <TT> TT getParsedValue()
+    {
+        return state.get(FieldState.PARSED_VALUE);
+    }
+
+    /**
+     * Forget the value converted during a previous validation
+     */
+    private void clearParsedValue()
+    {
+        state.put(FieldState.PARSED_VALUE, null);
+        state.set(FieldState.PARSED, false);
     }
 
     /**
@@ -792,10 +846,9 @@ public abstract class Field<T> implements Serializable, LogEnabled
      * @param <TT> the type of the test value
      * @return an <code>TT</code> value
      */
-    @SuppressWarnings("unchecked")
 	public <TT> TT getTestValue()
     {
-        return (TT)testValue;
+        return state.get(FieldState.TEST_VALUE);
     }
 
     /**
@@ -839,6 +892,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
     public String toString()
     {
         String res = EMPTY;
+        String stringValue = state.get(FieldState.STRING_VALUE);
 
         if (stringValue != null)
         {
@@ -878,33 +932,33 @@ public abstract class Field<T> implements Serializable, LogEnabled
     {
         try
         {
-            @SuppressWarnings("unchecked") // invoke returns Object
-			T t = (T)getter.invoke(obj);
-			validValue = t;
+            setPropertyValue(definition.readProperty(obj));
         }
-        catch (IllegalAccessException e)
-        {
-            throwSetGetException("getter", obj, this.getDisplayName(),
-                    this.group.getIntakeGroupName(), e);
-        }
-        catch (IllegalArgumentException e)
-        {
-            throwSetGetException("getter", obj, this.getDisplayName(),
-                    this.group.getIntakeGroupName(), e);
-        }
-        catch (InvocationTargetException e)
+        catch (IllegalAccessException | InvocationTargetException | RuntimeException e)
         {
             throwSetGetException("getter", obj, this.getDisplayName(),
                     this.group.getIntakeGroupName(), e);
         }
     }
 
+    /**
+     * Loads a value read from the mapped property of a bean. This is the
+     * second half of {@link #getProperty(Object)} for callers which read
+     * the property themselves, like generated binding code.
+     *
+     * @param value the value of the property
+     */
+    public void setPropertyValue(Object value)
+    {
+        state.put(FieldState.VALID_VALUE, value);
+    }
+
     /**
      * Loads the default value from the object
      */
     public void getDefault()
     {
-        validValue = getDefaultValue();
+        state.put(FieldState.VALID_VALUE, getDefaultValue());
     }
 
     /**
@@ -917,32 +971,13 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public void setProperty(Object obj) throws IntakeException
     {
+        String name = getName();
         if (log.isDebugEnabled())
         {
             log.debug(name + ".setProperty(" + obj.getClass().getName() + ")");
         }
 
-        if (!isValid())
-        {
-            throw new IntakeException(
-                    "Attempted to assign an invalid input.");
-        }
-        if (isSet() && null != getTestValue())
-        {
-            valArray[0] = getTestValue();
-            if (log.isDebugEnabled())
-            {
-                log.debug(name + ": Property is set, value is " + valArray[0]);
-            }
-        }
-        else
-        {
-            valArray[0] = getSafeEmptyValue();
-            if (log.isDebugEnabled())
-            {
-                log.debug(name + ": Property is not set, using emptyValue " + valArray[0]);
-            }
-        }
+        Object value = getPropertyValue();
 
         try
         {
@@ -952,35 +987,65 @@ public abstract class Field<T> implements Serializable, LogEnabled
              * we leave the mapToProperty empty, we will get a NPE here. So we
              * have to double check, if we really have a setter set.
              */
-            if(setter != null)
+            if(definition.getSetter() != null)
             {
-                setter.invoke(obj, valArray);
+                definition.writeProperty(obj, value);
             }
             else if (log.isDebugEnabled())
             {
                 log.debug(name + ": has a null setter for the mapToProperty"
                         + " Attribute, although all Fields should be mapped"
-                        + " to " + mapToObject + ". If this is unwanted, you"
+                        + " to " + getMapToObject() + ". If this is unwanted, you"
                         + " should double check the mapToProperty Attribute, and"
                         + " consult the logs. The Turbine Intake Service will"
                         + " have logged a detailed Message with the error.");
             }
         }
-        catch (IllegalAccessException e)
+        catch (IllegalAccessException | InvocationTargetException | RuntimeException e)
         {
             throwSetGetException("setter", obj, this.getDisplayName(),
                     this.group.getIntakeGroupName(), e);
         }
-        catch (IllegalArgumentException e)
+    }
+
+    /**
+     * Gets the value which {@link #setProperty(Object)} writes to the
+     * mapped property: the value of the field if it has been set, the
+     * empty value otherwise. Generated binding code uses this to call
+     * the setter of the bean directly.
+     *
+     * @return the value for the mapped property
+     *
+     * @throws IntakeException if the field is not valid
+     */
+    public Object getPropertyValue() throws IntakeException
+    {
+        String name = getName();
+
+        if (!isValid())
         {
-            throwSetGetException("setter", obj, this.getDisplayName(),
-                    this.group.getIntakeGroupName(), e);
+            throw new IntakeException(
+                    "Attempted to assign an invalid input.");
         }
-        catch (InvocationTargetException e)
+        Object value;
+        if (isSet() && null != getTestValue())
         {
-            throwSetGetException("setter", obj, this.getDisplayName(),
-                    this.group.getIntakeGroupName(), e);
+            value = getTestValue();
+            if (log.isDebugEnabled())
+            {
+                log.debug(name + ": Property is set, value is " + value);
+            }
+        }
+        else
+        {
+            value = getSafeEmptyValue();
+            if (log.isDebugEnabled())
+            {
+                log.debug(name + ": Property is not set, using emptyValue " + value);
+            }
         }
+
+        return value;
     }
 
     /**
@@ -1046,7 +1111,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getName()
     {
-        return name;
+        return definition.getName();
     }
 
     /**
@@ -1058,6 +1123,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getDisplaySize()
     {
+        String displaySize = definition.getDisplaySize();
         return (StringUtils.isEmpty(displaySize) ? "" : displaySize);
     }
 
@@ -1070,6 +1136,7 @@ public abstract class Field<T> implements Serializable, LogEnabled
      */
     public String getMaxSize()
     {
+        String maxSize = definition.getMaxSize();
         return (StringUtils.isEmpty(maxSize) ? "" : maxSize);
     }
 
@@ -1089,54 +1156,32 @@ public abstract class Field<T> implements Serializable, LogEnabled
     }
 
     /**
-     * Create a validator instance for the given class name
+     * Create or look up the validator of this field. The validator is
+     * kept in the field definition if it is shared.
      *
-     * @param validatorClassName the class name
-     * @param field the related xml field containing the rule map
-     * @return the validator instance
-     * @throws IntakeException if the instance could not be created
+     * @param validatorClassName the fully qualified class name of the validator
+     * @return the validator
+     * @throws IntakeException if the validator could not be created
      */
-    @SuppressWarnings("unchecked")
     private Validator<T> createValidator(String validatorClassName)
             throws IntakeException
     {
+        AppData appData = (group == null) ? null : group.getAppData();
+        ValidatorCache cache = (appData == null) ? null : appData.getValidatorCache();
         Validator<T> v;
 
-        try
-        {
-            v = (Validator<T>)
-                    Class.forName(validatorClassName).getDeclaredConstructor().newInstance();
-        }
-        catch (InstantiationException | IllegalAccessException | IllegalArgumentException |
-                InvocationTargetException | NoSuchMethodException e)
+        if (cache != null)
         {
-            throw new IntakeException(
-                    "Could not create new instance of Validator("
-                    + validatorClassName + ")", e);
-        }
-        catch (ClassNotFoundException e)
-        {
-            throw new IntakeException(
-                    "Could not load Validator class("
-                    + validatorClassName + ")", e);
-        }
+            v = cache.getValidator(validatorClassName, definition.getRuleMap(), log);
 
-        if (v instanceof LogEnabled logEnabled)
-        {
-        	logEnabled.enableLogging(log);
-        }
-
-        // this should always be true for now
-        // (until bean property initialization is implemented)
-        if (v instanceof InitableByConstraintMap initable)
-        {
-            initable.init(this.ruleMap);
+            if (v instanceof DefaultValidator<?> dv && dv.isShared())
+            {
+                definition.setValidator(v);
+            }
         }
         else
         {
-            throw new IntakeError(
-                    "All Validation objects must be subclasses of "
-                    + "InitableByConstraintMap");
+            v = ValidatorCache.createValidator(validatorClassName, definition.getRuleMap(), log);
         }
 
         return v;
@@ -0,0 +1,530 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.fulcrum.intake.validator.Validator;
+
+/**
+ * Holds the permanent data of a field as specified in the xml file.
+ * A definition is shared by all instances of a field that are handed
+ * out to requests. It is completed while the service is initialized
+ * and must not be changed afterwards.
+ *
+ * @version $Id$
+ */
+public final class FieldDefinition implements Serializable
+{
+    /** Serial version */
+    private static final long serialVersionUID = 2624727475233960587L;
+
+    /** The xml specification of the field */
+    private final transient XmlField xmlField;
+
+    /** Name of the field. */
+    private final String name;
+
+    /** Key used to identify the field in the parser */
+    private final String key;
+
+    /** Display size of the field */
+    private final String displaySize;
+
+    /** Class name of the object to which the field is mapped */
+    private String mapToObject;
+
+    /** Optional property name of the object to which the field is mapped */
+    private final String mapToProperty;
+
+    /** Class name of the validator */
+    private final String validatorClassName;
+
+    /** Rules of the field keyed by rule name */
+    private final Map<String, Rule> ruleMap;
+
+    /** Does this field accept multiple values? */
+    private final boolean multiValued;
+
+    /** Is this field always required?  This is only set through the XML file */
+    private final boolean alwaysRequired;
+
+    /** Error message set on the field if required and not set by parser */
+    private final String ifRequiredMessage;
+
+    /** Max size of the field */
+    private final String maxSize;
+
+    /** Getter method in the mapped object used to populate the field */
+    private transient Method getter;
+
+    /** Setter method in the mapped object used to store the value of field */
+    private transient Method setter;
+
+    /** Direct accessor calling the getter, if it could be created */
+    private transient Function<Object, Object> getterFunction;
+
+    /** Direct accessor calling the setter, if it could be created */
+    private transient BiConsumer<Object, Object> setterFunction;
+
+    /** Query data keys of the field for new objects */
+    private transient volatile String[] newKeys;
+
+    /** Validator shared by all instances of the field */
+    private transient volatile Validator<?> validator;
+
+    /**
+     * Creates the definition of a field from its xml specification
+     *
+     * @param field the xml field definition object
+     * @param validatorClassName the fully qualified class name of the validator
+     */
+    FieldDefinition(XmlField field, String validatorClassName)
+    {
+        this.xmlField = field;
+        this.name = field.getName();
+        this.key = field.getKey();
+        this.displaySize = field.getDisplaySize();
+        this.mapToObject = field.getMapToObject();
+        this.mapToProperty = field.getMapToProperty();
+        this.validatorClassName = validatorClassName;
+        this.ruleMap = Collections.unmodifiableMap(field.getRuleMap());
+        this.multiValued = field.isMultiValued();
+
+        // field may have been declared as always required in the xml spec
+        Rule reqRule = ruleMap.get(Validator.REQUIRED_RULE_NAME);
+        if (reqRule != null)
+        {
+            this.alwaysRequired = Boolean.parseBoolean(reqRule.getValue());
+            this.ifRequiredMessage = reqRule.getMessage();
+        }
+        else
+        {
+            this.alwaysRequired = false;
+            this.ifRequiredMessage = null;
+        }
+
+        Rule maxLengthRule = ruleMap.get(Validator.MAX_LENGTH_RULE_NAME);
+        this.maxSize = (maxLengthRule != null) ? maxLengthRule.getValue() : null;
+    }
+
+    /**
+     * Get the xml specification of the field
+     *
+     * @return the xml field definition object or <code>null</code> if
+     * the definition has been deserialized
+     */
+    XmlField getXmlField()
+    {
+        return xmlField;
+    }
+
+    /**
+     * Gets the name of the field.
+     *
+     * @return name of the field as specified in the XML file.
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Get the key used to identify the field within the group.
+     *
+     * @return the field key as specified in the XML file.
+     */
+    public String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * Get the query data key and the value-if-absent key of the field
+     * for a new object. The keys are computed on first use and shared by
+     * all instances of the field.
+     *
+     * @param newObjectKey the object key of the group for a new object
+     * @return an array holding the key and the value-if-absent key
+     */
+    String[] getNewKeys(String newObjectKey)
+    {
+        String[] keys = newKeys;
+
+        if (keys == null)
+        {
+            String fullKey = newObjectKey + key;
+            keys = new String[] { fullKey, fullKey + Field.VALUE_IF_ABSENT_KEY };
+            newKeys = keys;
+        }
+
+        return keys;
+    }
+
+    /**
+     * Gets the display size of the field.
+     *
+     * @return the display size as specified in the XML file or
+     * <code>null</code>
+     */
+    public String getDisplaySize()
+    {
+        return displaySize;
+    }
+
+    /**
+     * Get the name of the object that takes this input
+     *
+     * @return the fully qualified class name of the mapped object
+     */
+    public String getMapToObject()
+    {
+        return mapToObject;
+    }
+
+    /**
+     * Set the name of the object that takes this input
+     *
+     * @param mapToObject the fully qualified class name of the mapped object
+     */
+    void setMapToObject(String mapToObject)
+    {
+        this.mapToObject = mapToObject;
+    }
+
+    /**
+     * Get the property of the mapped object that takes this input
+     *
+     * @return the property name
+     */
+    public String getMapToProperty()
+    {
+        return mapToProperty;
+    }
+
+    /**
+     * Get the class name of the validator
+     *
+     * @return the fully qualified class name of the validator
+     */
+    public String getValidatorClassName()
+    {
+        return validatorClassName;
+    }
+
+    /**
+     * The rules of this field keyed by rule name.
+     *
+     * @return an unmodifiable <code>Map</code> of rules
+     */
+    public Map<String, Rule> getRuleMap()
+    {
+        return ruleMap;
+    }
+
+    /**
+     * Flag to determine whether the field has been declared as multi-valued.
+     *
+     * @return value of multiValued.
+     */
+    public boolean isMultiValued()
+    {
+        return multiValued;
+    }
+
+    /**
+     * Flag to determine whether the field has been declared as required
+     * in the XML file.
+     *
+     * @return value of alwaysRequired.
+     */
+    public boolean isAlwaysRequired()
+    {
+        return alwaysRequired;
+    }
+
+    /**
+     * Get the message of the required rule
+     *
+     * @return the message to set if the field is required but not set
+     */
+    public String getIfRequiredMessage()
+    {
+        return ifRequiredMessage;
+    }
+
+    /**
+     * Get the value of the maxLength rule
+     *
+     * @return the maximum size or <code>null</code>
+     */
+    public String getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Get the validator shared by all instances of the field
+     *
+     * @param <T> the field type
+     * @return the validator or <code>null</code> if the field has
+     * no shared validator (yet)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Validator<T> getValidator()
+    {
+        return (Validator<T>) validator;
+    }
+
+    /**
+     * Set the validator shared by all instances of the field
+     *
+     * @param validator the shared validator
+     */
+    void setValidator(Validator<?> validator)
+    {
+        this.validator = validator;
+    }
+
+    /**
+     * Get the getter method in the mapped object
+     *
+     * @return the getter or <code>null</code> if not mapped
+     */
+    public Method getGetter()
+    {
+        return getter;
+    }
+
+    /**
+     * Get the setter method in the mapped object
+     *
+     * @return the setter or <code>null</code> if not mapped
+     */
+    public Method getSetter()
+    {
+        return setter;
+    }
+
+    /**
+     * Set the property accessors of the mapped object. Direct accessors
+     * are created for the methods where possible, otherwise the methods
+     * are called through reflection. Methods declaring checked exceptions
+     * are always called through reflection, which wraps these exceptions
+     * in an <code>InvocationTargetException</code>.
+     *
+     * @param getter the getter method
+     * @param setter the setter method
+     */
+    void setAccessors(Method getter, Method setter)
+    {
+        this.getter = getter;
+        this.setter = setter;
+        this.getterFunction = (getter == null || throwsCheckedException(getter))
+                ? null : createGetterFunction(getter);
+        this.setterFunction = (setter == null || throwsCheckedException(setter))
+                ? null : createSetterFunction(setter);
+    }
+
+    /**
+     * Check whether the given method declares a checked exception
+     *
+     * @param method the method
+     * @return <code>true</code> if the method declares a checked exception
+     */
+    private static boolean throwsCheckedException(Method method)
+    {
+        for (Class<?> exceptionType : method.getExceptionTypes())
+        {
+            if (!RuntimeException.class.isAssignableFrom(exceptionType)
+                    && !Error.class.isAssignableFrom(exceptionType))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Check whether the accessors of the mapped object are called directly
+     * rather than through reflection
+     *
+     * @return <code>true</code> if direct accessors exist for all methods
+     */
+    boolean isDirectAccess()
+    {
+        return (getter == null || getterFunction != null)
+                && (setter == null || setterFunction != null);
+    }
+
+    /**
+     * Read the value of the mapped property from the given object
+     *
+     * @param obj the object to read from
+     * @return the value of the property
+     * @throws IllegalAccessException if the getter is not accessible
+     * @throws InvocationTargetException if the getter threw an exception
+     */
+    Object readProperty(Object obj)
+            throws IllegalAccessException, InvocationTargetException
+    {
+        if (getterFunction != null)
+        {
+            return getterFunction.apply(obj);
+        }
+
+        if (getter == null)
+        {
+            throw new IllegalStateException("No getter for property "
+                    + mapToProperty + " of " + mapToObject);
+        }
+
+        return getter.invoke(obj);
+    }
+
+    /**
+     * Write the value of the mapped property to the given object
+     *
+     * @param obj the object to write to
+     * @param value the value of the property
+     * @throws IllegalAccessException if the setter is not accessible
+     * @throws InvocationTargetException if the setter threw an exception
+     */
+    void writeProperty(Object obj, Object value)
+            throws IllegalAccessException, InvocationTargetException
+    {
+        if (setterFunction != null)
+        {
+            setterFunction.accept(obj, value);
+        }
+        else
+        {
+            setter.invoke(obj, value);
+        }
+    }
+
+    /**
+     * Create a function calling the given getter directly
+     *
+     * @param method the getter method
+     * @return the function or <code>null</code> if it could not be created
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetterFunction(Method method)
+    {
+        Class<?> type = method.getDeclaringClass();
+
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(wrap(method.getReturnType()), type));
+
+            return (Function<Object, Object>) newLambda(site);
+        }
+        catch (ReflectiveOperationException | LambdaConversionException | RuntimeException e)
+        {
+            // use reflection
+            return null;
+        }
+    }
+
+    /**
+     * Create a function calling the given setter directly
+     *
+     * @param method the setter method
+     * @return the function or <code>null</code> if it could not be created
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetterFunction(Method method)
+    {
+        Class<?> type = method.getDeclaringClass();
+
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, wrap(method.getParameterTypes()[0])));
+
+            return (BiConsumer<Object, Object>) newLambda(site);
+        }
+        catch (ReflectiveOperationException | LambdaConversionException | RuntimeException e)
+        {
+            // use reflection
+            return null;
+        }
+    }
+
+    /**
+     * Create the instance of a non-capturing lambda from its call site
+     *
+     * @param site the call site created by the LambdaMetafactory
+     * @return the lambda instance
+     */
+    private static Object newLambda(CallSite site)
+    {
+        try
+        {
+            return site.getTarget().invoke();
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            // the factory of a non-capturing lambda declares no exceptions
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    /**
+     * Get the wrapper class of a primitive type
+     *
+     * @param type the type
+     * @return the wrapper class if type is primitive, type otherwise
+     */
+    private static Class<?> wrap(Class<?> type)
+    {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,150 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Holds the request state of a field. The flags are packed into a
+ * bit set and the values are kept in an array of slots, so that the
+ * whole state can be reset in one step when the field is returned
+ * to the pool.
+ *
+ * @version $Id$
+ */
+final class FieldState implements Serializable
+{
+    /** Serial version */
+    private static final long serialVersionUID = -2119404484627751366L;
+
+    /** Has the field has been set from the parser? */
+    static final int SET = 1;
+
+    /** Has the field passed the validation test? */
+    static final int VALID = 1 << 1;
+
+    /** Has the field been validated? */
+    static final int VALIDATED = 1 << 2;
+
+    /** Does the field require a value? */
+    static final int REQUIRED = 1 << 3;
+
+    /** Has the field been initialized from the parser? */
+    static final int INITIALIZED = 1 << 4;
+
+    /** Has the validator converted the test value? */
+    static final int PARSED = 1 << 5;
+
+    /** Error message, is any, resulting from validation */
+    static final int MESSAGE = 0;
+
+    /** Mapped object used to set the initial field value */
+    static final int RETRIEVABLE = 1;
+
+    /** Locale of the field */
+    static final int LOCALE = 2;
+
+    /** String value of the field */
+    static final int STRING_VALUE = 3;
+
+    /** String values of the field if isMultiValued=true */
+    static final int STRING_VALUES = 4;
+
+    /** Value of the field from the Retrievable object */
+    static final int VALID_VALUE = 5;
+
+    /** Value of the field from the parser */
+    static final int TEST_VALUE = 6;
+
+    /** Value of the field converted by the validator */
+    static final int PARSED_VALUE = 7;
+
+    /** Number of value slots */
+    private static final int SLOTS = 8;
+
+    /** The flags */
+    private int flags;
+
+    /** The values */
+    private final Object[] slots = new Object[SLOTS];
+
+    /**
+     * Check a flag
+     *
+     * @param flag the flag to check
+     * @return true if the flag is set
+     */
+    boolean is(int flag)
+    {
+        return (flags & flag) != 0;
+    }
+
+    /**
+     * Set or clear a flag
+     *
+     * @param flag the flag to change
+     * @param value true to set the flag, false to clear it
+     */
+    void set(int flag, boolean value)
+    {
+        if (value)
+        {
+            flags |= flag;
+        }
+        else
+        {
+            flags &= ~flag;
+        }
+    }
+
+    /**
+     * Get the value of a slot
+     *
+     * @param <V> the type of the value
+     * @param slot the slot index
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    <V> V get(int slot)
+    {
+        return (V) slots[slot];
+    }
+
+    /**
+     * Set the value of a slot
+     *
+     * @param slot the slot index
+     * @param value the value
+     */
+    void put(int slot, Object value)
+    {
+        slots[slot] = value;
+    }
+
+    /**
+     * Reset all flags and values
+     */
+    void reset()
+    {
+        flags = 0;
+        Arrays.fill(slots, null);
+    }
+}
@@ -101,6 +101,38 @@ public enum FieldType implements Serializable
             return new DateStringField(f, g);
         }
     },
+    @XmlEnumValue("LocalDate") FIELD_LOCALDATE("LocalDate")
+    {
+        @Override
+        public Field<?> getInstance(XmlField f, Group g) throws IntakeException
+        {
+            return new LocalDateField(f, g);
+        }
+    },
+    @XmlEnumValue("LocalDateTime") FIELD_LOCALDATETIME("LocalDateTime")
+    {
+        @Override
+        public Field<?> getInstance(XmlField f, Group g) throws IntakeException
+        {
+            return new LocalDateTimeField(f, g);
+        }
+    },
+    @XmlEnumValue("LocalTime") FIELD_LOCALTIME("LocalTime")
+    {
+        @Override
+        public Field<?> getInstance(XmlField f, Group g) throws IntakeException
+        {
+            return new LocalTimeField(f, g);
+        }
+    },
+    @XmlEnumValue("Instant") FIELD_INSTANT("Instant")
+    {
+        @Override
+        public Field<?> getInstance(XmlField f, Group g) throws IntakeException
+        {
+            return new InstantField(f, g);
+        }
+    },
     @XmlEnumValue("ComboKey") FIELD_COMBOKEY("ComboKey")
     {
         @Override
@@ -129,18 +129,25 @@ public class FloatField
     {
         if (isMultiValued())
         {
-            Float[] inputs = parser.getFloatObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getFloatObjects(getKey());
             float[] values = new float[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().floatValue()
-                        : inputs[i].floatValue();
+                        : ((Number) inputs[i]).floatValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Float value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getFloatObject(getKey(), getEmptyValue()));
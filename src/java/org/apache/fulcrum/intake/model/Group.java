@@ -19,14 +19,20 @@ package org.apache.fulcrum.intake.model;
  * under the License.
  */
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.avalon.framework.logger.LogEnabled;
 import org.apache.avalon.framework.logger.Logger;
 import org.apache.commons.lang3.StringUtils;
@@ -59,7 +65,7 @@ import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 public class Group implements Serializable, LogEnabled
 {
     /** Serial version */
-    private static final long serialVersionUID = -5452725641409669284L;
+    private static final long serialVersionUID = 3812935207236317049L;
 
     public static final String EMPTY = "";
 
@@ -102,19 +108,37 @@ public class Group implements Serializable, LogEnabled
     private AppData parent;
 
     /**
-     * A map of the fields in this group mapped by field name.
+     * The index of the fields by field name, shared by all instances
+     * of this group
+     */
+    private FieldIndex fieldIndex;
+
+    /**
+     * Map of the field indexes by mapToObject
      */
-    private Map<String, Field<?>> fieldsByName;
+    private Map<String, int[]> mapToObjectFields;
 
     /**
-     * Map of the fields by mapToObject
+     * The binding plans of this group for the mapped classes,
+     * shared by all instances of this group
      */
-    private Map<String, Field<?>[]> mapToObjectFields;
+    private transient BindingPlans bindingPlans;
 
     /**
-     * A list of fields in this group.
+     * The fields in this group.
      */
-    private LinkedList<Field<?>> fields;
+    private Field<?>[] fields;
+
+    /**
+     * An unmodifiable view of the fields in this group
+     */
+    private transient List<Field<?>> fieldList;
+
+    /**
+     * The fields read from the xml file, moved to the field array
+     * after unmarshalling
+     */
+    private transient List<Field<?>> xmlFields;
 
     /**
      * The object id used to associate this group to a bean
@@ -122,6 +146,16 @@ public class Group implements Serializable, LogEnabled
      */
     private String oid;
 
+    /**
+     * Concatenation of gid and oid, computed when the oid is assigned
+     */
+    private transient String objectKey;
+
+    /**
+     * Concatenation of gid and NEW, shared by all instances of this group
+     */
+    private transient String newObjectKey;
+
     /**
      * The object containing the request data
      */
@@ -132,13 +166,130 @@ public class Group implements Serializable, LogEnabled
      */
     private boolean isDeclared;
 
+    /**
+     * A flag marking instances which have been created for a pool
+     */
+    private transient boolean pooled;
+
     /**
      * Default constructor
      */
     public Group()
     {
         super();
-        this.fields = new LinkedList<Field<?>>();
+        this.fields = new Field<?>[0];
+    }
+
+    /**
+     * Copy constructor. Creates a new instance of the given group with
+     * its own set of fields. All permanent data from the xml
+     * specification is shared with the prototype.
+     *
+     * @param prototype the group to copy
+     * @throws IntakeException if one of the fields could not be copied
+     */
+    private Group(Group prototype) throws IntakeException
+    {
+        super();
+        this.log = prototype.log;
+        this.gid = prototype.gid;
+        this.newObjectKey = prototype.getNewObjectKey();
+        this.name = prototype.name;
+        this.poolCapacity = prototype.poolCapacity;
+        this.defaultMapToObject = prototype.defaultMapToObject;
+        this.parent = prototype.parent;
+        this.fields = new Field<?>[prototype.fields.length];
+
+        for (int i = 0; i < fields.length; i++)
+        {
+            fields[i] = prototype.fields[i].newInstance(this);
+        }
+
+        // the mapping of the fields does not change between instances
+        this.fieldIndex = prototype.fieldIndex;
+        this.mapToObjectFields = prototype.mapToObjectFields;
+        this.bindingPlans = prototype.bindingPlans;
+    }
+
+    /**
+     * Flag to determine whether this instance has been created for
+     * and belongs to a pool.
+     *
+     * @return true if this instance must be returned to its pool
+     */
+    public boolean isPooled()
+    {
+        return pooled;
+    }
+
+    /**
+     * Takes over the property accessors of the fields from a previous
+     * version of this group if both are defined exactly the same way,
+     * including the base package of the definition file. This avoids
+     * the introspection of unchanged groups when definitions are reloaded.
+     *
+     * @param previous the previous version of this group
+     * @return <code>true</code> if the accessors have been taken over,
+     * <code>false</code> if the definition has changed
+     */
+    public boolean reuseAccessors(Group previous)
+    {
+        if (previous == null || previous.fields.length != fields.length)
+        {
+            return false;
+        }
+
+        try
+        {
+            if (!Arrays.equals(getFingerprint(), previous.getFingerprint()))
+            {
+                return false;
+            }
+        }
+        catch (IOException e)
+        {
+            // cannot compare, so treat the definition as changed
+            return false;
+        }
+
+        for (int i = 0; i < fields.length; i++)
+        {
+            FieldDefinition definition = previous.fields[i].getDefinition();
+            fields[i].getDefinition().setAccessors(definition.getGetter(), definition.getSetter());
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the complete definition data of this group in the format
+     * of a definition snapshot
+     *
+     * @return the definition data
+     * @throws IOException if a field definition is not available
+     */
+    private byte[] getFingerprint() throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DefinitionSnapshot.Output out = new DefinitionSnapshot.Output(new DataOutputStream(bytes));
+        out.writeString(parent == null ? null : parent.getBasePackage());
+        writeSnapshot(out);
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Creates a new instance of this group which can be handed out to
+     * a request. The new instance has its own fields and request state
+     * but shares all permanent data from the xml specification with
+     * this group.
+     *
+     * @return a new Group instance
+     * @throws IntakeException if one of the fields could not be copied
+     */
+    public Group newInstance() throws IntakeException
+    {
+        return new Group(this);
     }
 
     /**
@@ -173,15 +324,17 @@ public class Group implements Serializable, LogEnabled
      */
     public Group init(String key, ValueParser pp) throws IntakeException
     {
-        this.oid = key;
+        setOID(key);
         this.pp = pp;
-        for (ListIterator<Field<?>> i = fields.listIterator(fields.size()); i.hasPrevious();)
+        final Field<?>[] fields = this.fields;
+
+        for (int i = fields.length - 1; i >= 0; i--)
         {
-            i.previous().init(pp);
+            fields[i].init(pp);
         }
-        for (ListIterator<Field<?>> i = fields.listIterator(fields.size()); i.hasPrevious();)
+        for (int i = fields.length - 1; i >= 0; i--)
         {
-            Field<?> field = i.previous();
+            Field<?> field = fields[i];
             if (field.isSet() && !field.isValidated())
             {
                 field.validate();
@@ -198,36 +351,11 @@ public class Group implements Serializable, LogEnabled
      */
     public Group init(Retrievable obj)
     {
-        this.oid = obj.getQueryKey();
+        setOID(obj.getQueryKey());
 
-        Class<?> cls = obj.getClass();
-        while (cls != null)
+        for (int index : bindingPlans.get(obj.getClass()))
         {
-            Field<?>[] flds = mapToObjectFields.get(cls.getName());
-            if (flds != null)
-            {
-                for (int i = flds.length - 1; i >= 0; i--)
-                {
-                    flds[i].init(obj);
-                }
-            }
-
-            // Also check any interfaces
-            Class<?>[] interfaces = cls.getInterfaces();
-            for (int idx = 0; idx < interfaces.length; idx++)
-            {
-                Field<?>[] interfaceFields =
-                    mapToObjectFields.get(interfaces[idx].getName());
-                if (interfaceFields != null)
-                {
-                    for (int i = 0; i < interfaceFields.length; i++)
-                    {
-                        interfaceFields[i].init(obj);
-                    }
-                }
-            }
-
-            cls = cls.getSuperclass();
+            fields[index].init(obj);
         }
 
         return this;
@@ -240,13 +368,18 @@ public class Group implements Serializable, LogEnabled
      */
     public String[] getFieldNames()
     {
-        String nameList[] = new String[fields.size()];
-        int i = 0;
-        for (Field<?> f : fields)
-        {
-            nameList[i++] = f.getName();
-        }
-        return nameList;
+        return fieldIndex.getNames().clone();
+    }
+
+    /**
+     * Gets the names of the fields stored in this object without copying
+     * them. The list is shared by all instances of this group.
+     *
+     * @return an unmodifiable list of the names in field order
+     */
+    public List<String> getFieldNameList()
+    {
+        return fieldIndex.getNameList();
     }
 
     /**
@@ -299,7 +432,53 @@ public class Group implements Serializable, LogEnabled
      */
     public String getObjectKey()
     {
-        return gid + oid;
+        String key = objectKey;
+        return (key != null) ? key : gid + oid;
+    }
+
+    /**
+     * Get the object key of a new object, i.e. the concatenation
+     * of gid and NEW. The key is computed once per group definition.
+     *
+     * @return a <code>String</code> value
+     */
+    String getNewObjectKey()
+    {
+        if (newObjectKey == null)
+        {
+            newObjectKey = gid + NEW;
+        }
+
+        return newObjectKey;
+    }
+
+    /**
+     * Assign the object id and precompute the keys of the group and
+     * its fields for this request cycle.
+     *
+     * @param oid the object id, may be <code>null</code>
+     */
+    private void setOID(String oid)
+    {
+        this.oid = oid;
+
+        if (oid == null)
+        {
+            this.objectKey = null;
+        }
+        else if (NEW.equals(oid))
+        {
+            this.objectKey = getNewObjectKey();
+        }
+        else
+        {
+            this.objectKey = gid + oid;
+        }
+
+        for (int i = fields.length - 1; i >= 0; i--)
+        {
+            fields[i].setObjectKey(objectKey);
+        }
     }
 
     /**
@@ -344,24 +523,29 @@ public class Group implements Serializable, LogEnabled
     public Field<?> get(String fieldName)
             throws IntakeException
     {
-        if (fieldsByName.containsKey(fieldName))
-        {
-            return fieldsByName.get(fieldName);
-        }
-        else
+        int index = fieldIndex.indexOf(fieldName);
+
+        if (index < 0)
         {
             throw new IntakeException("Intake Field name: " + fieldName +
                     " not found in Group " + name);
         }
+
+        return fields[index];
     }
 
     /**
      * Get the list of Fields.
-     * @return list of Fields
+     * @return an unmodifiable list of Fields
      */
     public List<Field<?>> getFields()
     {
-        return fields;
+        if (fieldList == null)
+        {
+            fieldList = Collections.unmodifiableList(Arrays.asList(fields));
+        }
+
+        return fieldList;
     }
 
     /**
@@ -369,11 +553,36 @@ public class Group implements Serializable, LogEnabled
      *
      * @param inputFields the fields to set
      */
+    protected void setFields(List<Field<?>> inputFields)
+    {
+        fields = inputFields.toArray(new Field<?>[inputFields.size()]);
+        fieldList = null;
+    }
+
+    /**
+     * JAXB accessor of the list of fields read from the xml file
+     *
+     * @return the list of fields read so far
+     */
+    @SuppressWarnings("unused")
+    private List<Field<?>> getXmlFields()
+    {
+        return xmlFields;
+    }
+
+    /**
+     * JAXB accessor to set the list of fields read from the xml file.
+     * The list is filled by JAXB and moved to the field array by
+     * {@link #afterUnmarshal(Unmarshaller, Object)}.
+     *
+     * @param inputFields the fields to set
+     */
     @XmlElement(name="field")
     @XmlJavaTypeAdapter(FieldAdapter.class)
-    protected void setFields(List<Field<?>> inputFields)
+    @SuppressWarnings("unused")
+    private void setXmlFields(List<Field<?>> inputFields)
     {
-        fields = new LinkedList<Field<?>>(inputFields);
+        xmlFields = inputFields;
     }
 
     /**
@@ -384,9 +593,9 @@ public class Group implements Serializable, LogEnabled
     public boolean isAllValid()
     {
         boolean valid = true;
-        for (ListIterator<Field<?>> i = fields.listIterator(fields.size()); i.hasPrevious();)
+        for (int i = fields.length - 1; i >= 0; i--)
         {
-            Field<?> field = i.previous();
+            Field<?> field = fields[i];
             valid &= field.isValid();
             if (log.isDebugEnabled() && !field.isValid())
             {
@@ -407,40 +616,14 @@ public class Group implements Serializable, LogEnabled
      */
     public void setProperties(Object obj) throws IntakeException
     {
-        Class<?> cls = obj.getClass();
-
-        while (cls != null)
+        if (log.isDebugEnabled())
         {
-            if (log.isDebugEnabled())
-            {
-                log.debug("setProperties(" + cls.getName() + ")");
-            }
-
-            Field<?>[] flds = mapToObjectFields.get(cls.getName());
-            if (flds != null)
-            {
-                for (int i = flds.length - 1; i >= 0; i--)
-                {
-                    flds[i].setProperty(obj);
-                }
-            }
-
-            // Also check any interfaces
-            Class<?>[] interfaces = cls.getInterfaces();
-            for (int idx = 0; idx < interfaces.length; idx++)
-            {
-                Field<?>[] interfaceFields =
-                    mapToObjectFields.get(interfaces[idx].getName());
-                if (interfaceFields != null)
-                {
-                    for (int i = 0; i < interfaceFields.length; i++)
-                    {
-                        interfaceFields[i].setProperty(obj);
-                    }
-                }
-            }
+            log.debug("setProperties(" + obj.getClass().getName() + ")");
+        }
 
-            cls = cls.getSuperclass();
+        for (int index : bindingPlans.get(obj.getClass()))
+        {
+            fields[index].setProperty(obj);
         }
 
         log.debug("setProperties() finished");
@@ -457,48 +640,16 @@ public class Group implements Serializable, LogEnabled
      */
     public void setValidProperties(Object obj)
     {
-        Class<?> cls = obj.getClass();
-        while (cls != null)
+        for (int index : bindingPlans.get(obj.getClass()))
         {
-            Field<?>[] flds = mapToObjectFields.get(cls.getName());
-            if (flds != null)
+            try
             {
-                for (int i = flds.length - 1; i >= 0; i--)
-                {
-                    try
-                    {
-                        flds[i].setProperty(obj);
-                    }
-                    catch (IntakeException e)
-                    {
-                        // just move on to next field
-                    }
-                }
+                fields[index].setProperty(obj);
             }
-
-            // Also check any interfaces
-            Class<?>[] interfaces = cls.getInterfaces();
-            for (int idx = 0; idx < interfaces.length; idx++)
+            catch (IntakeException e)
             {
-                Field<?>[] interfaceFields =
-                    mapToObjectFields.get(interfaces[idx].getName());
-                if (interfaceFields != null)
-                {
-                    for (int i = 0; i < interfaceFields.length; i++)
-                    {
-                        try
-                        {
-                            interfaceFields[i].setProperty(obj);
-                        }
-                        catch(IntakeException e)
-                        {
-                            // just move on to next field
-                        }
-                    }
-                }
+                // just move on to next field
             }
-
-            cls = cls.getSuperclass();
         }
     }
 
@@ -514,38 +665,24 @@ public class Group implements Serializable, LogEnabled
      */
     public void getProperties(Object obj) throws IntakeException
     {
-        Class<?> cls = obj.getClass();
-
-        while (cls != null)
+        for (int index : bindingPlans.get(obj.getClass()))
         {
-            Field<?>[] flds = mapToObjectFields.get(cls.getName());
-            if (flds != null)
-            {
-                for (int i = flds.length - 1; i >= 0; i--)
-                {
-                    flds[i].getProperty(obj);
-                }
-            }
-
-            // Also check any interfaces
-            Class<?>[] interfaces = cls.getInterfaces();
-            for (int idx = 0; idx < interfaces.length; idx++)
-            {
-                Field<?>[] interfaceFields =
-                    mapToObjectFields.get(interfaces[idx].getName());
-                if (interfaceFields != null)
-                {
-                    for (int i = 0; i < interfaceFields.length; i++)
-                    {
-                        interfaceFields[i].getProperty(obj);
-                    }
-                }
-            }
-
-            cls = cls.getSuperclass();
+            fields[index].getProperty(obj);
         }
     }
 
+    /**
+     * Get the indexes of the fields which are bound to an object of the
+     * given class, in the order in which they are bound
+     *
+     * @param cls the class of the object
+     * @return the binding plan, shared by all instances of this group
+     */
+    int[] getBindingPlan(Class<?> cls)
+    {
+        return bindingPlans.get(cls);
+    }
+
     /**
      * Removes references to this group and its fields from the
      * query parameters
@@ -565,9 +702,9 @@ public class Group implements Serializable, LogEnabled
                         pp.add(gid, groups[i]);
                     }
                 }
-                for (ListIterator<Field<?>> i = fields.listIterator(fields.size()); i.hasPrevious();)
+                for (int i = fields.length - 1; i >= 0; i--)
                 {
-                    i.previous().removeFromRequest();
+                    fields[i].removeFromRequest();
                 }
             }
         }
@@ -660,40 +797,356 @@ public class Group implements Serializable, LogEnabled
     {
         this.parent = (AppData)parent;
 
-        // Build map
-        fieldsByName = new HashMap<String, Field<?>>((int) (1.25 * fields.size() + 1));
-
-        for (Field<?> field : fields)
+        if (xmlFields != null)
         {
-            fieldsByName.put(field.getName(), field);
+            setFields(xmlFields);
+            xmlFields = null;
         }
 
-        Map<String, List<Field<?>>> mapToObjectFieldLists =
-                new HashMap<String, List<Field<?>>>((int) (1.25 * fields.size() + 1));
-
         // Fix fields
         for (Field<?> field : fields)
         {
-            if (StringUtils.isNotEmpty(field.mapToObject))
+            FieldDefinition definition = field.getDefinition();
+            if (StringUtils.isNotEmpty(definition.getMapToObject()))
             {
-                field.mapToObject = this.parent.getBasePackage() + field.mapToObject;
+                definition.setMapToObject(this.parent.getBasePackage()
+                        + definition.getMapToObject());
             }
+        }
+
+        fieldIndex = new FieldIndex(fields);
+        buildBindingPlans();
+    }
+
+    /**
+     * Build the map of field indexes by mapToObject and the binding plans
+     */
+    private void buildBindingPlans()
+    {
+        Map<String, List<Integer>> mapToObjectFieldLists =
+                new HashMap<String, List<Integer>>((int) (1.25 * fields.length + 1));
 
+        for (int i = 0; i < fields.length; i++)
+        {
             // map fields by their mapToObject
-            List<Field<?>> tmpFields = mapToObjectFieldLists.computeIfAbsent(
-                    field.getMapToObject(),
-                    k -> new ArrayList<Field<?>>(fields.size()));
+            List<Integer> tmpFields = mapToObjectFieldLists.computeIfAbsent(
+                    fields[i].getMapToObject(),
+                    k -> new ArrayList<Integer>(fields.length));
 
-            tmpFields.add(field);
+            tmpFields.add(Integer.valueOf(i));
         }
 
-        // Change the mapToObjectFields values to Field[]
-        mapToObjectFields = new HashMap<String, Field<?>[]>((int) (1.25 * fields.size() + 1));
+        // Change the mapToObjectFields values to int[]
+        mapToObjectFields = new HashMap<String, int[]>((int) (1.25 * fields.length + 1));
 
-        for (Map.Entry<String, List<Field<?>>> entry : mapToObjectFieldLists.entrySet())
+        for (Map.Entry<String, List<Integer>> entry : mapToObjectFieldLists.entrySet())
         {
             mapToObjectFields.put(entry.getKey(),
-                entry.getValue().toArray(new Field[entry.getValue().size()]));
+                entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        bindingPlans = new BindingPlans(mapToObjectFields);
+    }
+
+    /**
+     * Read a group from a definition file
+     *
+     * @param in the xml input positioned on the group element
+     * @param parent the AppData the group belongs to
+     * @return the group
+     * @throws XMLStreamException if the xml is not well-formed
+     * @throws IntakeException if the group is invalid
+     */
+    static Group readXml(StaxDefinitionLoader.Input in, AppData parent)
+            throws XMLStreamException, IntakeException
+    {
+        Group group = new Group();
+        group.enableLogging(in.getLogger());
+
+        for (int i = 0; i < in.getAttributeCount(); i++)
+        {
+            String attribute = in.getAttributeName(i);
+
+            if ("key".equals(attribute))
+            {
+                group.gid = in.getAttributeValue(i);
+            }
+            else if ("name".equals(attribute))
+            {
+                group.name = in.getAttributeValue(i);
+            }
+            else if ("mapToObject".equals(attribute))
+            {
+                group.defaultMapToObject = in.getAttributeValue(i);
+            }
+            else if (!"pool-capacity".equals(attribute))
+            {
+                // pool-capacity is allowed by the schema but not mapped
+                // by JAXB, so it has no effect here either
+                in.skipAttribute(i);
+            }
+        }
+
+        in.require(group.gid, "key");
+        in.require(group.name, "name");
+
+        List<Field<?>> fields = new ArrayList<Field<?>>();
+
+        while (in.nextElement("field"))
+        {
+            XmlField xmlField = XmlField.readXml(in, group);
+            fields.add(xmlField.getType().getInstance(xmlField, group));
+        }
+
+        if (fields.isEmpty())
+        {
+            throw in.error("Group " + group.name + " has no fields");
+        }
+
+        group.setFields(fields);
+        group.afterUnmarshal(null, parent);
+        return group;
+    }
+
+    /**
+     * Write the group to a definition snapshot
+     *
+     * @param out the snapshot output
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DefinitionSnapshot.Output out) throws IOException
+    {
+        out.writeString(gid);
+        out.writeString(name);
+        out.writeInt(poolCapacity);
+        out.writeString(defaultMapToObject);
+        out.writeInt(fields.length);
+
+        for (Field<?> field : fields)
+        {
+            XmlField xmlField = field.getDefinition().getXmlField();
+
+            if (xmlField == null)
+            {
+                throw new IOException("The specification of field " + field.getName()
+                        + " in group " + name + " is not available");
+            }
+
+            xmlField.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Read a group from a definition snapshot
+     *
+     * @param in the snapshot input
+     * @param parent the AppData the group belongs to
+     * @return the group
+     * @throws IOException if the data is invalid
+     */
+    static Group readSnapshot(DefinitionSnapshot.Input in, AppData parent) throws IOException
+    {
+        Group group = new Group();
+        group.enableLogging(in.getLogger());
+        group.gid = in.readString();
+        group.name = in.readString();
+        group.poolCapacity = in.readInt();
+        group.defaultMapToObject = in.readString();
+
+        int count = in.readCount();
+        List<Field<?>> fields = new ArrayList<Field<?>>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            XmlField xmlField = XmlField.readSnapshot(in, group);
+
+            try
+            {
+                fields.add(xmlField.getType().getInstance(xmlField, group));
+            }
+            catch (IntakeException e)
+            {
+                throw new IOException("Could not create field " + xmlField.getName()
+                        + " in group " + group.name, e);
+            }
+        }
+
+        group.setFields(fields);
+        group.afterUnmarshal(null, parent);
+        return group;
+    }
+
+    /**
+     * Restore the binding plans after deserialization
+     *
+     * @param in the object input stream
+     * @throws IOException if reading the stream fails
+     * @throws ClassNotFoundException if a class of the stream cannot be found
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        bindingPlans = new BindingPlans(mapToObjectFields);
+    }
+
+    /**
+     * Caches the indexes of the fields mapped to a class in the order in
+     * which they are bound to an object of this class. The fields mapped
+     * to the class itself come first, in reverse order, followed by the
+     * fields mapped to the interfaces the class implements. Then the
+     * superclass is examined in the same way.
+     */
+    private static class BindingPlans extends ClassValue<int[]>
+    {
+        /** Map of the field indexes by mapToObject */
+        private final Map<String, int[]> mapToObjectFields;
+
+        /**
+         * Constructor
+         *
+         * @param mapToObjectFields the field indexes by mapToObject
+         */
+        BindingPlans(Map<String, int[]> mapToObjectFields)
+        {
+            this.mapToObjectFields = mapToObjectFields;
+        }
+
+        /**
+         * @see java.lang.ClassValue#computeValue(java.lang.Class)
+         */
+        @Override
+        protected int[] computeValue(Class<?> type)
+        {
+            List<Integer> plan = new ArrayList<Integer>();
+
+            for (Class<?> cls = type; cls != null; cls = cls.getSuperclass())
+            {
+                int[] flds = mapToObjectFields.get(cls.getName());
+                if (flds != null)
+                {
+                    for (int i = flds.length - 1; i >= 0; i--)
+                    {
+                        plan.add(Integer.valueOf(flds[i]));
+                    }
+                }
+
+                // Also check any interfaces
+                for (Class<?> ifc : cls.getInterfaces())
+                {
+                    int[] interfaceFields = mapToObjectFields.get(ifc.getName());
+                    if (interfaceFields != null)
+                    {
+                        for (int i = 0; i < interfaceFields.length; i++)
+                        {
+                            plan.add(Integer.valueOf(interfaceFields[i]));
+                        }
+                    }
+                }
+            }
+
+            return plan.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Maps the names of the fields of a group to their indexes. The names
+     * are kept in an open addressing hash table which is compiled once per
+     * group definition and shared by all instances of the group.
+     */
+    private static final class FieldIndex implements Serializable
+    {
+        /** Serial version */
+        private static final long serialVersionUID = -6131842478410250231L;
+
+        /** The field names in field order */
+        private final String[] names;
+
+        /** Unmodifiable view of the field names */
+        private final List<String> nameList;
+
+        /** The hash table of field names, the length is a power of two */
+        private final String[] table;
+
+        /** The field indexes corresponding to the table slots */
+        private final int[] indexes;
+
+        /**
+         * Constructor
+         *
+         * @param fields the fields of the group
+         */
+        FieldIndex(Field<?>[] fields)
+        {
+            int size = Integer.highestOneBit(Math.max(fields.length, 1) * 2 - 1) << 1;
+
+            this.names = new String[fields.length];
+            this.nameList = Collections.unmodifiableList(Arrays.asList(names));
+            this.table = new String[size];
+            this.indexes = new int[size];
+
+            for (int i = 0; i < fields.length; i++)
+            {
+                String fieldName = fields[i].getName();
+                names[i] = fieldName;
+
+                int slot = fieldName.hashCode() & (size - 1);
+                while (table[slot] != null && !table[slot].equals(fieldName))
+                {
+                    slot = (slot + 1) & (size - 1);
+                }
+
+                // the last field of a name wins, like in a map
+                table[slot] = fieldName;
+                indexes[slot] = i;
+            }
+        }
+
+        /**
+         * Get the index of a field
+         *
+         * @param fieldName the name of the field
+         * @return the index of the field or -1 if there is no such field
+         */
+        int indexOf(String fieldName)
+        {
+            if (fieldName == null)
+            {
+                return -1;
+            }
+
+            final String[] table = this.table;
+            int mask = table.length - 1;
+
+            for (int slot = fieldName.hashCode() & mask; table[slot] != null; slot = (slot + 1) & mask)
+            {
+                if (table[slot].equals(fieldName))
+                {
+                    return indexes[slot];
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Get the field names
+         *
+         * @return the field names in field order
+         */
+        String[] getNames()
+        {
+            return names;
+        }
+
+        /**
+         * Get an unmodifiable view of the field names
+         *
+         * @return the field names in field order
+         */
+        List<String> getNameList()
+        {
+            return nameList;
         }
     }
 
@@ -711,6 +1164,9 @@ public class Group implements Serializable, LogEnabled
 
         /**
          * Creates an instance that can be returned by the pool.
+         * Each instance is a copy of the group definition so that
+         * the pooled instances can be used independently.
+         *
          * @param key the name of the group
          * @return an instance that can be returned by the pool.
          * @throws IntakeException indicates that the group could not be retrieved
@@ -718,7 +1174,16 @@ public class Group implements Serializable, LogEnabled
         @Override
         public Group create(String key) throws IntakeException
         {
-            return appData.getGroup(key);
+            Group prototype = appData.getGroup(key);
+
+            if (prototype == null)
+            {
+                throw new IntakeException("No XML definition for Group " + key + " found");
+            }
+
+            Group group = prototype.newInstance();
+            group.pooled = true;
+            return group;
         }
 
         /**
@@ -739,12 +1204,11 @@ public class Group implements Serializable, LogEnabled
         public void passivateObject(String key, PooledObject<Group> pooledGroup)
         {
             Group group = pooledGroup.getObject();
-            group.oid = null;
+            group.setOID(null);
             group.pp = null;
-            for (ListIterator<Field<?>> i = group.fields.listIterator(group.fields.size());
-                    i.hasPrevious();)
+            for (int i = group.fields.length - 1; i >= 0; i--)
             {
-                i.previous().dispose();
+                group.fields[i].dispose();
             }
             group.isDeclared = false;
         }
@@ -128,18 +128,25 @@ public class IntegerField
     {
         if (isMultiValued())
         {
-            Integer[] inputs = parser.getIntObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getIntObjects(getKey());
             int[] values = new int[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().intValue()
-                        : inputs[i].intValue();
+                        : ((Number) inputs[i]).intValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Integer value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getIntObject(getKey(), getEmptyValue()));
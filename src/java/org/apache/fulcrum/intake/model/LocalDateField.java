@@ -0,0 +1,80 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.LocalDate;
+
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.validator.LocalDateValidator;
+
+/**
+ * Field for dates without time of day. The value is a <code>LocalDate</code>, which is set
+ * on the mapped object without conversion.
+ *
+ * @version $Id$
+ */
+public class LocalDateField
+        extends AbstractTemporalField<LocalDate>
+{
+    /** Serial version */
+    private static final long serialVersionUID = 3069731433597967692L;
+
+    /**
+     * Constructor.
+     *
+     * @param field xml field definition object
+     * @param group xml group definition object
+     * @throws IntakeException thrown by superclass
+     */
+    public LocalDateField(XmlField field, Group group)
+            throws IntakeException
+    {
+        super(field, group);
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.model.AbstractTemporalField#parseIsoValue(java.lang.String)
+     */
+    @Override
+    protected LocalDate parseIsoValue(String value)
+    {
+        return LocalDate.parse(value);
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.model.AbstractTemporalField#newArray(int)
+     */
+    @Override
+    protected LocalDate[] newArray(int size)
+    {
+        return new LocalDate[size];
+    }
+
+    /**
+     * A suitable validator.
+     *
+     * @return "LocalDateValidator"
+     */
+    @Override
+    protected String getDefaultValidator()
+    {
+        return LocalDateValidator.class.getName();
+    }
+}
@@ -0,0 +1,80 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.LocalDateTime;
+
+import org.apache.fulcrum.intake.IntakeException;
+import org.apache.fulcrum.intake.validator.LocalDateTimeValidator;
+
+/**
+ * Field for dates with time of day. The value is a <code>LocalDateTime</code>, which is set
+ * on the mapped object without conversion.
+ *
+ * @version $Id$
+ */
+public class LocalDateTimeField
+        extends AbstractTemporalField<LocalDateTime>
+{
+    /** Serial version */
+    private static final long serialVersionUID = -2183337626352651035L;
+
+    /**
+     * Constructor.
+     *
+     * @param field xml field definition object
+     * @param group xml group definition object
+     * @throws IntakeException thrown by superclass
+     */
+    public LocalDateTimeField(XmlField field, Group group)
+            throws IntakeException
+    {
+        super(field, group);
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.model.AbstractTemporalField#parseIsoValue(java.lang.String)
+     */
+    @Override
+    protected LocalDateTime parseIsoValue(String value)
+    {
+        return LocalDateTime.parse(value);
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.model.AbstractTemporalField#newArray(int)
+     */
+    @Override
+    protected LocalDateTime[] newArray(int size)
+    {
+        return new LocalDateTime[size];
+    }
+
+    /**
+     * A suitable validator.
+     *
+     * @return "LocalDateTimeValidator"
+     */
+    @Override
+    protected String getDefaultValidator()
+    {
+        return LocalDateTimeValidator.class.getName();
+    }
+}
@@ -127,18 +127,25 @@ public class LongField
     {
         if (isMultiValued())
         {
-            Long[] inputs = parser.getLongObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getLongObjects(getKey());
             long[] values = new long[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().longValue()
-                        : inputs[i].longValue();
+                        : ((Number) inputs[i]).longValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Long value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             setTestValue(parser.getLongObject(getKey(), getEmptyValue()));
@@ -19,8 +19,12 @@ package org.apache.fulcrum.intake.model;
  * under the License.
  */
 
+import java.io.IOException;
 import java.io.Serializable;
 
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.fulcrum.intake.IntakeException;
 import org.apache.fulcrum.intake.validator.Constraint;
 
 import jakarta.xml.bind.annotation.XmlAccessType;
@@ -81,6 +85,72 @@ public class Rule implements Constraint, Serializable
         return message;
     }
 
+    /**
+     * Write the rule to a definition snapshot
+     *
+     * @param out the snapshot output
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DefinitionSnapshot.Output out) throws IOException
+    {
+        out.writeString(name);
+        out.writeString(value);
+        out.writeString(message);
+    }
+
+    /**
+     * Read a rule from a definition snapshot
+     *
+     * @param in the snapshot input
+     * @return the rule
+     * @throws IOException if the data is invalid
+     */
+    static Rule readSnapshot(DefinitionSnapshot.Input in) throws IOException
+    {
+        Rule rule = new Rule();
+        rule.name = in.readString();
+        rule.value = in.readString();
+        rule.message = in.readString();
+        return rule;
+    }
+
+    /**
+     * Read a rule from a definition file
+     *
+     * @param in the xml input positioned on the rule element
+     * @return the rule
+     * @throws XMLStreamException if the xml is not well-formed
+     * @throws IntakeException if the rule is invalid
+     */
+    static Rule readXml(StaxDefinitionLoader.Input in)
+            throws XMLStreamException, IntakeException
+    {
+        Rule rule = new Rule();
+
+        for (int i = 0; i < in.getAttributeCount(); i++)
+        {
+            String attribute = in.getAttributeName(i);
+
+            if ("name".equals(attribute))
+            {
+                rule.name = in.getAttributeValue(i);
+            }
+            else if ("value".equals(attribute))
+            {
+                rule.value = in.getAttributeValue(i);
+            }
+            else
+            {
+                in.skipAttribute(i);
+            }
+        }
+
+        in.require(rule.name, "name");
+        in.require(rule.value, "value");
+        rule.message = in.getElementText();
+        return rule;
+    }
+
     /**
      * String representation of the column. This
      * is an xml representation.
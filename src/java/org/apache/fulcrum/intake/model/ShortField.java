@@ -128,18 +128,25 @@ public class ShortField
     {
         if (isMultiValued())
         {
-            Integer[] inputs = parser.getIntObjects(getKey());
+            // use the values parsed by the validator if available
+            Object[] inputs = isParsed()
+                    ? getParsedValue() : parser.getIntObjects(getKey());
             short[] values = new short[inputs.length];
 
             for (int i = 0; i < inputs.length; i++)
             {
                 values[i] = inputs[i] == null
                         ? getEmptyValue().shortValue()
-                        : inputs[i].shortValue();
+                        : ((Number) inputs[i]).shortValue();
             }
 
             setTestValue(values);
         }
+        else if (isParsed())
+        {
+            Short value = getParsedValue();
+            setTestValue(value == null ? getEmptyValue() : value);
+        }
         else
         {
             Integer value = parser.getIntObject(getKey());
@@ -0,0 +1,356 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.InputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.avalon.framework.logger.Logger;
+import org.apache.fulcrum.intake.IntakeException;
+
+/**
+ * Reads a definition file with a StAX stream reader and builds the
+ * definition objects in a single pass. This avoids the creation of the
+ * JAXB context and the schema at startup. The result is the same as
+ * that of the JAXB unmarshaller and the same callbacks are run on the
+ * definition objects.
+ *
+ * The loader checks the structure of the file like the schema does:
+ * unknown elements and attributes, missing required attributes, empty
+ * groups and invalid field types are reported as errors.
+ *
+ * @version $Id$
+ */
+public final class StaxDefinitionLoader
+{
+    /** The namespace of the definition elements */
+    public static final String NAMESPACE = "http://turbine.apache.org/schema/intake/4.0";
+
+    /** The shared factory, only used to create readers */
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private StaxDefinitionLoader()
+    {
+        // empty
+    }
+
+    /**
+     * Create the factory for the stream readers. DTDs and external
+     * entities are not supported.
+     *
+     * @return the factory
+     */
+    private static XMLInputFactory createFactory()
+    {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Read the definitions from a stream
+     *
+     * @param stream the stream holding the xml definition file
+     * @param logger the logger for the definition objects
+     * @return the definitions
+     * @throws IntakeException if the file could not be read or is invalid
+     */
+    public static AppData load(InputStream stream, Logger logger) throws IntakeException
+    {
+        XMLStreamReader reader = null;
+
+        try
+        {
+            reader = FACTORY.createXMLStreamReader(stream);
+            Input in = new Input(reader, logger);
+
+            if (!in.nextElement("input-data"))
+            {
+                throw in.error("Missing element input-data");
+            }
+
+            AppData appData = AppData.readXml(in);
+            in.endDocument();
+
+            return appData;
+        }
+        catch (XMLStreamException e)
+        {
+            throw new IntakeException("Could not parse definition file", e);
+        }
+        finally
+        {
+            if (reader != null)
+            {
+                try
+                {
+                    reader.close();
+                }
+                catch (XMLStreamException e)
+                {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * The reader for the definition objects
+     */
+    static final class Input
+    {
+        /** The stream reader */
+        private final XMLStreamReader reader;
+
+        /** The logger for the definition objects */
+        private final Logger logger;
+
+        /**
+         * Constructor
+         *
+         * @param reader the stream reader
+         * @param logger the logger for the definition objects
+         */
+        Input(XMLStreamReader reader, Logger logger)
+        {
+            this.reader = reader;
+            this.logger = logger;
+        }
+
+        /**
+         * Get the logger for the definition objects
+         *
+         * @return the logger
+         */
+        Logger getLogger()
+        {
+            return logger;
+        }
+
+        /**
+         * Move to the next start or end tag. Whitespace, comments and
+         * processing instructions are skipped.
+         *
+         * @param name the local name of the expected child element
+         * @return <code>true</code> if the reader is positioned on the start
+         * tag of the expected element, <code>false</code> if it is positioned
+         * on the end tag of the current element
+         * @throws XMLStreamException if the xml is not well-formed
+         * @throws IntakeException if any other content is found
+         */
+        boolean nextElement(String name) throws XMLStreamException, IntakeException
+        {
+            while (reader.hasNext())
+            {
+                switch (reader.next())
+                {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (!NAMESPACE.equals(reader.getNamespaceURI())
+                                || !name.equals(reader.getLocalName()))
+                        {
+                            throw error("Unexpected element " + reader.getName()
+                                    + ", expected " + name);
+                        }
+                        return true;
+
+                    case XMLStreamConstants.END_ELEMENT:
+                        return false;
+
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                        if (!reader.isWhiteSpace())
+                        {
+                            throw error("Unexpected text content");
+                        }
+                        break;
+
+                    case XMLStreamConstants.COMMENT:
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        break;
+
+                    default:
+                        throw error("Unexpected xml content");
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * Move to the end of the document after the root element
+         *
+         * @throws XMLStreamException if the xml is not well-formed
+         * @throws IntakeException if any other content is found
+         */
+        void endDocument() throws XMLStreamException, IntakeException
+        {
+            while (reader.hasNext())
+            {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT
+                        || event == XMLStreamConstants.CHARACTERS && !reader.isWhiteSpace())
+                {
+                    throw error("Unexpected content after the root element");
+                }
+            }
+        }
+
+        /**
+         * Get the number of attributes of the current element
+         *
+         * @return the number of attributes
+         */
+        int getAttributeCount()
+        {
+            return reader.getAttributeCount();
+        }
+
+        /**
+         * Get the name of an attribute of the current element. Attributes
+         * of the definition elements are unqualified.
+         *
+         * @param index the index of the attribute
+         * @return the local name of the attribute or <code>null</code> if
+         * the attribute belongs to a namespace
+         */
+        String getAttributeName(int index)
+        {
+            String namespace = reader.getAttributeNamespace(index);
+
+            if (namespace != null && !namespace.equals(XMLConstants.NULL_NS_URI))
+            {
+                return null;
+            }
+
+            return reader.getAttributeLocalName(index);
+        }
+
+        /**
+         * Get the value of an attribute of the current element
+         *
+         * @param index the index of the attribute
+         * @return the value
+         */
+        String getAttributeValue(int index)
+        {
+            return reader.getAttributeValue(index);
+        }
+
+        /**
+         * Read the text content of the current element
+         *
+         * @return the text
+         * @throws XMLStreamException if the element contains child elements
+         */
+        String getElementText() throws XMLStreamException
+        {
+            return reader.getElementText();
+        }
+
+        /**
+         * Parse a value of the schema type boolean
+         *
+         * @param value the attribute value
+         * @return the boolean value
+         * @throws IntakeException if the value is not a valid boolean
+         */
+        boolean parseBoolean(String value) throws IntakeException
+        {
+            switch (value.trim())
+            {
+                case "true":
+                case "1":
+                    return true;
+
+                case "false":
+                case "0":
+                    return false;
+
+                default:
+                    throw error("Invalid boolean value " + value);
+            }
+        }
+
+        /**
+         * Skip an attribute of the current element which is not part of
+         * the definition. Only attributes of the schema instance namespace
+         * like <code>xsi:schemaLocation</code> are allowed.
+         *
+         * @param index the index of the attribute
+         * @throws IntakeException if the attribute is not allowed
+         */
+        void skipAttribute(int index) throws IntakeException
+        {
+            if (!XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(reader.getAttributeNamespace(index)))
+            {
+                throw error("Unexpected attribute " + reader.getAttributeName(index)
+                        + " of element " + reader.getLocalName());
+            }
+        }
+
+        /**
+         * Check that a required attribute of the current element is present
+         *
+         * @param value the value of the attribute
+         * @param name the name of the attribute
+         * @throws IntakeException if the value is <code>null</code>
+         */
+        void require(Object value, String name) throws IntakeException
+        {
+            if (value == null)
+            {
+                throw error("Missing attribute " + name
+                        + " of element " + reader.getLocalName());
+            }
+        }
+
+        /**
+         * Create an exception for invalid content at the current position
+         *
+         * @param message the description of the problem
+         * @return the exception
+         */
+        IntakeException error(String message)
+        {
+            Location location = reader.getLocation();
+
+            if (location == null)
+            {
+                return new IntakeException(message);
+            }
+
+            return new IntakeException(message + " at line " + location.getLineNumber()
+                    + ", column " + location.getColumnNumber());
+        }
+    }
+}
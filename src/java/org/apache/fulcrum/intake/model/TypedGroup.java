@@ -0,0 +1,111 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+
+import org.apache.fulcrum.intake.IntakeException;
+
+/**
+ * Base class of the typed group classes created by the
+ * {@link org.apache.fulcrum.intake.generator.GroupClassGenerator}.
+ * A typed group wraps a group instance handed out by the service and
+ * resolves its fields once, so that the generated accessors return the
+ * field classes directly.
+ *
+ * @version $Id$
+ */
+public abstract class TypedGroup
+{
+    /** The wrapped group */
+    private final Group group;
+
+    /**
+     * Constructor
+     *
+     * @param group the group instance to wrap
+     * @param groupName the name of the group the class was generated for
+     * @throws IntakeException if the group has another name
+     */
+    protected TypedGroup(Group group, String groupName) throws IntakeException
+    {
+        if (!groupName.equals(group.getIntakeGroupName()))
+        {
+            throw new IntakeException("Group " + group.getIntakeGroupName()
+                    + " cannot be used as " + groupName);
+        }
+
+        this.group = group;
+    }
+
+    /**
+     * Get the wrapped group, e.g. to release it to the service
+     *
+     * @return the group instance
+     */
+    public Group getGroup()
+    {
+        return group;
+    }
+
+    /**
+     * Resolve a field of the wrapped group. The position of the field at
+     * generation time is tried first, the name is used if the definition
+     * has changed since.
+     *
+     * @param <F> the field class
+     * @param index the position of the field in the definition
+     * @param fieldName the name of the field
+     * @param fieldClass the expected field class
+     * @return the field
+     * @throws IntakeException if the field does not exist or has another class
+     */
+    protected <F extends Field<?>> F field(int index, String fieldName, Class<F> fieldClass)
+            throws IntakeException
+    {
+        List<Field<?>> fields = group.getFields();
+        Field<?> field = (index < fields.size()) ? fields.get(index) : null;
+
+        if (field == null || !fieldName.equals(field.getName()))
+        {
+            field = group.get(fieldName);
+        }
+
+        if (!fieldClass.isInstance(field))
+        {
+            throw new IntakeException("Field " + fieldName + " in group "
+                    + group.getIntakeGroupName() + " is a " + field.getClass().getName()
+                    + ", not a " + fieldClass.getName());
+        }
+
+        return fieldClass.cast(field);
+    }
+
+    /**
+     * Returns the string representation of the wrapped group
+     *
+     * @return the string representation
+     */
+    @Override
+    public String toString()
+    {
+        return group.toString();
+    }
+}
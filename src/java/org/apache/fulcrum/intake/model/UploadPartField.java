@@ -23,7 +23,8 @@ package org.apache.fulcrum.intake.model;
 import org.apache.fulcrum.intake.IntakeException;
 import org.apache.fulcrum.intake.IntakeRuntimeException;
 import org.apache.fulcrum.intake.validator.FileValidator;
-import org.apache.fulcrum.intake.validator.ValidationException;
+import org.apache.fulcrum.intake.validator.PartInspection;
+import org.apache.fulcrum.intake.validator.ValidationResult;
 import org.apache.fulcrum.parser.ParameterParser;
 import org.apache.fulcrum.parser.ValueParser;
 
@@ -41,6 +42,9 @@ public class UploadPartField
     /** Serial version */
 	private static final long serialVersionUID = -963692413506822188L;
 
+    /** The results of the inspection of the parts during validation */
+    private transient PartInspection[] inspections;
+
 	/**
      * Constructor.
      *
@@ -54,6 +58,17 @@ public class UploadPartField
         super(field, group);
     }
 
+    /**
+     * @see org.apache.fulcrum.intake.model.Field#newInstance(org.apache.fulcrum.intake.model.Group)
+     */
+    @Override
+    protected Field<Part> newInstance(Group group) throws IntakeException
+    {
+        UploadPartField field = (UploadPartField) super.newInstance(group);
+        field.inspections = null;
+        return field;
+    }
+
     /**
      * It is not possible to set the default value for this field type.
      * Calling this method with a non-null parameter will result in a
@@ -159,16 +174,20 @@ public class UploadPartField
 
             if (getValidator() != null)
             {
+                FileValidator v = (FileValidator) getValidator();
+                ValidationResult result = new ValidationResult();
+                inspections = new PartInspection[ss.length];
+
                 for (int i = 0; i < ss.length; i++)
                 {
-                    try
-                    {
-                        ((FileValidator) getValidator()).assertValidity(ss[i]);
-                    }
-                    catch (ValidationException ve)
+                    inspections[i] = new PartInspection();
+
+                    if (!v.validate(ss[i], result, inspections[i]))
                     {
-                        setMessage(ve.getMessage());
+                        setMessage(result.getMessage());
                     }
+
+                    result.reset();
                 }
             }
 
@@ -187,18 +206,19 @@ public class UploadPartField
 
             if (getValidator() != null)
             {
-                try
-                {
-                    ((FileValidator) getValidator()).assertValidity(s);
+                ValidationResult result = new ValidationResult();
+                inspections = new PartInspection[] { new PartInspection() };
 
+                if (((FileValidator) getValidator()).validate(s, result, inspections[0]))
+                {
                     if (isSet())
                     {
                         doSetValue();
                     }
                 }
-                catch (ValidationException ve)
+                else
                 {
-                    setMessage(ve.getMessage());
+                    setMessage(result.getMessage());
                 }
             }
             else if (isSet())
@@ -210,6 +230,43 @@ public class UploadPartField
         return isValid();
     }
 
+    /**
+     * Get the result of the inspection of the uploaded part during
+     * validation. It holds the digest and the detected content type
+     * if the respective rules are defined, so that the part need not
+     * be read again.
+     *
+     * @return the inspection of the (first) part or <code>null</code> if
+     * the field has not been validated
+     */
+    public PartInspection getInspection()
+    {
+        return (inspections == null || inspections.length == 0) ? null : inspections[0];
+    }
+
+    /**
+     * Get the results of the inspection of the uploaded parts during
+     * validation in the order of the parts.
+     *
+     * @return the inspections or <code>null</code> if the field has not
+     * been validated
+     */
+    public PartInspection[] getInspections()
+    {
+        return (inspections == null) ? null : inspections.clone();
+    }
+
+    /**
+     * Disposes the object after use. The method is called
+     * when the Group is returned to its pool.
+     */
+    @Override
+    public void dispose()
+    {
+        inspections = null;
+        super.dispose();
+    }
+
     /**
      * Sets the value of the field from data in the parser.
      */
@@ -28,9 +28,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.avalon.framework.logger.LogEnabled;
 import org.apache.avalon.framework.logger.Logger;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.IntakeException;
 
 import jakarta.xml.bind.Unmarshaller;
 import jakarta.xml.bind.annotation.XmlAccessType;
@@ -336,6 +339,175 @@ public class XmlField
         }
     }
 
+    /**
+     * Read a field from a definition file
+     *
+     * @param in the xml input positioned on the field element
+     * @param parent the group the field belongs to
+     * @return the field
+     * @throws XMLStreamException if the xml is not well-formed
+     * @throws IntakeException if the field is invalid
+     */
+    static XmlField readXml(StaxDefinitionLoader.Input in, Group parent)
+            throws XMLStreamException, IntakeException
+    {
+        XmlField field = new XmlField();
+        field.enableLogging(in.getLogger());
+
+        for (int i = 0; i < in.getAttributeCount(); i++)
+        {
+            String attribute = in.getAttributeName(i);
+            String value = in.getAttributeValue(i);
+
+            if (attribute == null)
+            {
+                in.skipAttribute(i);
+                continue;
+            }
+
+            switch (attribute)
+            {
+                case "key":
+                    field.key = value;
+                    break;
+                case "name":
+                    field.name = value;
+                    break;
+                case "displayName":
+                    field.displayName = value;
+                    break;
+                case "displaySize":
+                    field.displaySize = value;
+                    break;
+                case "type":
+                    field.type = parseType(in, value);
+                    break;
+                case "multiValued":
+                    field.multiValued = in.parseBoolean(value);
+                    break;
+                case "fieldClass":
+                    field.fieldClass = value;
+                    break;
+                case "mapToObject":
+                    field.mapToObject = value;
+                    break;
+                case "mapToProperty":
+                    field.mapToProperty = value;
+                    break;
+                case "validator":
+                    field.validator = value;
+                    break;
+                case "defaultValue":
+                    field.defaultValue = value;
+                    break;
+                case "emptyValue":
+                    field.emptyValue = value;
+                    break;
+                default:
+                    in.skipAttribute(i);
+                    break;
+            }
+        }
+
+        in.require(field.key, "key");
+        in.require(field.name, "name");
+
+        while (in.nextElement("rule"))
+        {
+            field.rules.add(Rule.readXml(in));
+        }
+
+        field.afterUnmarshal(null, parent);
+        return field;
+    }
+
+    /**
+     * Find the field type for a value of the type attribute
+     *
+     * @param in the xml input
+     * @param value the attribute value
+     * @return the field type
+     * @throws IntakeException if the type is unknown
+     */
+    private static FieldType parseType(StaxDefinitionLoader.Input in, String value)
+            throws IntakeException
+    {
+        String typeName = value.trim();
+
+        for (FieldType fieldType : FieldType.values())
+        {
+            if (fieldType.value().equals(typeName))
+            {
+                return fieldType;
+            }
+        }
+
+        throw in.error("Invalid field type " + value);
+    }
+
+    /**
+     * Write the field to a definition snapshot
+     *
+     * @param out the snapshot output
+     * @throws IOException if writing fails
+     */
+    void writeSnapshot(DefinitionSnapshot.Output out) throws IOException
+    {
+        out.writeString(key);
+        out.writeString(name);
+        out.writeString(displayName);
+        out.writeString(displaySize);
+        out.writeString(type.name());
+        out.writeBoolean(multiValued);
+        out.writeString(fieldClass);
+        out.writeString(mapToObject);
+        out.writeString(mapToProperty);
+        out.writeString(validator);
+        out.writeString(defaultValue);
+        out.writeString(emptyValue);
+        out.writeInt(rules.size());
+
+        for (Rule rule : rules)
+        {
+            rule.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Read a field from a definition snapshot
+     *
+     * @param in the snapshot input
+     * @param parent the group the field belongs to
+     * @return the field
+     * @throws IOException if the data is invalid
+     */
+    static XmlField readSnapshot(DefinitionSnapshot.Input in, Group parent) throws IOException
+    {
+        XmlField field = new XmlField();
+        field.enableLogging(in.getLogger());
+        field.key = in.readString();
+        field.name = in.readString();
+        field.displayName = in.readString();
+        field.displaySize = in.readString();
+        field.type = FieldType.valueOf(in.readString());
+        field.multiValued = in.readBoolean();
+        field.fieldClass = in.readString();
+        field.mapToObject = in.readString();
+        field.mapToProperty = in.readString();
+        field.validator = in.readString();
+        field.defaultValue = in.readString();
+        field.emptyValue = in.readString();
+
+        int count = in.readCount();
+        for (int i = 0; i < count; i++)
+        {
+            field.rules.add(Rule.readSnapshot(in));
+        }
+
+        field.afterUnmarshal(null, parent);
+        return field;
+    }
+
     /**
      * String representation of the column. This
      * is an xml representation.
@@ -63,6 +63,17 @@ public class BigDecimalValidator
     protected BigDecimal parseNumber(String stringValue, Locale locale) throws NumberFormatException
     {
         Number number = parseIntoNumber(stringValue, locale);
-        return new BigDecimal(number.doubleValue());
+        // use the decimal representation, not the binary approximation
+        return new BigDecimal(number.toString());
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected BigDecimal parseNumberOrNull(String stringValue, Locale locale)
+    {
+        Number number = parseIntoNumberOrNull(stringValue, locale);
+        return (number == null) ? null : new BigDecimal(number.toString());
     }
 }
@@ -22,6 +22,7 @@ package org.apache.fulcrum.intake.validator;
 import java.text.ParseException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.model.Field;
 
 /**
  * Validator for boolean field types.<br><br>
@@ -73,29 +74,89 @@ public class BooleanValidator
 
     /**
      * Determine whether a testValue meets the criteria specified
-     * in the constraints defined for this validator
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
      *
      * @param testValue a <code>String</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(String testValue)
-            throws ValidationException
+    public boolean validate(String testValue, ValidationResult result)
     {
-        super.assertValidity(testValue);
+        parseValidBoolean(testValue, result);
+        return result.isValid();
+    }
 
-        if (required || StringUtils.isNotEmpty(testValue))
+    /**
+     * Determine whether a field meets the criteria specified
+     * in the constraints defined for this validator. The parsed
+     * values are handed to the field.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    protected boolean doValidate(Field<Boolean> field, ValidationResult result)
+    {
+        if (field.isMultiValued())
         {
-            try
+            String[] stringValues = (String[])field.getTestValue();
+            Object[] values = new Object[stringValues.length];
+
+            for (int i = 0; i < stringValues.length; i++)
             {
-                parse(testValue);
+                values[i] = parseValidBoolean(stringValues[i], result);
+
+                if (!result.isValid())
+                {
+                    return false;
+                }
             }
-            catch (ParseException e)
+
+            field.setParsedValue(values);
+        }
+        else
+        {
+            Boolean value = parseValidBoolean((String)field.getTestValue(), result);
+
+            if (!result.isValid())
             {
-                throw new ValidationException(e.getMessage());
+                return false;
             }
+
+            field.setParsedValue(value);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator and return the
+     * parsed value. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return the value or <code>null</code> if the testValue is empty
+     * or invalid
+     */
+    protected Boolean parseValidBoolean(String testValue, ValidationResult result)
+    {
+        if (!super.validate(testValue, result) || StringUtils.isEmpty(testValue))
+        {
+            return null;
         }
+
+        Boolean value = parseBoolean(testValue);
+
+        if (value == null)
+        {
+            fail(result, testValue + " could not be converted to a Boolean");
+        }
+
+        return value;
     }
 
     /**
@@ -107,6 +168,26 @@ public class BooleanValidator
      */
     public Boolean parse(String stringValue)
             throws ParseException
+    {
+        Boolean result = parseBoolean(stringValue);
+
+        if (result == null)
+        {
+            throw new ParseException(stringValue +
+                    " could not be converted to a Boolean", 0);
+        }
+        return result;
+    }
+
+    /**
+     * Parses a string value into a Boolean object, but signals
+     * a failure by returning <code>null</code> instead of throwing
+     * an exception.
+     *
+     * @param stringValue the value to parse
+     * @return a <code>Boolean</code> object or <code>null</code>
+     */
+    protected Boolean parseBoolean(String stringValue)
     {
         Boolean result = null;
 
@@ -129,11 +210,6 @@ public class BooleanValidator
             }
         }
 
-        if (result == null)
-        {
-            throw new ParseException(stringValue +
-                    " could not be converted to a Boolean", 0);
-        }
         return result;
     }
 }
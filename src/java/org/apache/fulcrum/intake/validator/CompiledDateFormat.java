@@ -0,0 +1,888 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalField;
+import java.time.temporal.TemporalQueries;
+import java.time.temporal.TemporalUnit;
+import java.time.temporal.UnsupportedTemporalTypeException;
+import java.time.temporal.ValueRange;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A date format given as a <code>SimpleDateFormat</code> pattern and
+ * compiled once into immutable <code>DateTimeFormatter</code>s. It parses
+ * and formats dates like a <code>SimpleDateFormat</code> with the same
+ * pattern and leniency in the default locale and time zone, but can be
+ * shared between threads and does not allocate a formatter per call.
+ *
+ * The pattern letters <code>G y M L d D E u a H k K h m s S</code> are
+ * supported. Numeric fields followed directly by another numeric field
+ * are parsed with exactly the number of digits given in the pattern,
+ * all others accept any number of digits. Two-digit years are put into
+ * the century starting 80 years before the format was compiled. Fields missing from the pattern
+ * default to January 1, 1970, 00:00:00.000. Patterns using other
+ * letters (week or time zone fields) are still handled by a new
+ * <code>SimpleDateFormat</code> on every call, as are lenient patterns
+ * with a day of the week, which <code>SimpleDateFormat</code> ignores.
+ * Strings the compiled formatters reject are parsed again with a
+ * <code>SimpleDateFormat</code> if they contain blanks or minus signs,
+ * because it skips blanks before every field and accepts negative
+ * numbers.
+ *
+ * @version $Id$
+ */
+public final class CompiledDateFormat
+{
+    /** The default formats by locale */
+    private static final ConcurrentMap<Locale, CompiledDateFormat> DEFAULT_FORMATS =
+            new ConcurrentHashMap<Locale, CompiledDateFormat>();
+
+    /** The supported pattern letters */
+    private static final String SUPPORTED_LETTERS = "GyMLdDEuaHkKhmsS";
+
+    /** Maximum number of digits of a numeric field */
+    private static final int MAX_WIDTH = 19;
+
+    /** The first day of the Gregorian calendar in <code>GregorianCalendar</code> */
+    private static final LocalDate GREGORIAN_CUTOVER = LocalDate.of(1582, 10, 15);
+
+    /** The start of the Gregorian calendar in milliseconds */
+    private static final long GREGORIAN_CUTOVER_MILLIS =
+            new GregorianCalendar().getGregorianChange().getTime();
+
+    /** The pattern */
+    private final String pattern;
+
+    /** Is the parsing lenient? */
+    private final boolean lenient;
+
+    /** The formatter used for parsing or <code>null</code> if not compiled */
+    private final DateTimeFormatter parser;
+
+    /** The parser as a <code>Format</code> which does not throw on errors */
+    private final Format parseFormat;
+
+    /** The formatter used for formatting or <code>null</code> if not compiled */
+    private final DateTimeFormatter printer;
+
+    /** Skip blanks before the first field? */
+    private final boolean skipLeadingBlanks;
+
+    /** The start of the century for two-digit years */
+    private final LocalDateTime centuryStart;
+
+    /**
+     * Constructor
+     *
+     * @param pattern the <code>SimpleDateFormat</code> pattern
+     * @param lenient is the parsing lenient?
+     * @param locale the locale of the format
+     */
+    private CompiledDateFormat(String pattern, boolean lenient, Locale locale)
+    {
+        this.pattern = pattern;
+        this.lenient = lenient;
+
+        List<Object> tokens = tokenize(pattern);
+
+        if (isSupported(tokens, lenient))
+        {
+            this.centuryStart = LocalDateTime.now().minusYears(80);
+            this.parser = buildParser(tokens, centuryStart.getYear(), lenient, locale);
+            this.parseFormat = parser.toFormat();
+            this.printer = buildPrinter(tokens, centuryStart.toLocalDate(), locale);
+            this.skipLeadingBlanks = !tokens.isEmpty() && tokens.get(0) instanceof Letter;
+        }
+        else
+        {
+            this.parser = null;
+            this.parseFormat = null;
+            this.printer = null;
+            this.skipLeadingBlanks = false;
+            this.centuryStart = null;
+        }
+    }
+
+    /**
+     * Compile a <code>SimpleDateFormat</code> pattern for the default locale
+     *
+     * @param pattern the pattern
+     * @param lenient is the parsing lenient?
+     * @return the compiled format
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static CompiledDateFormat compile(String pattern, boolean lenient)
+    {
+        // let SimpleDateFormat check the syntax
+        new SimpleDateFormat(pattern);
+
+        return new CompiledDateFormat(pattern, lenient,
+                Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Get the equivalent of the lenient <code>DateFormat.getInstance()</code>,
+     * i.e. short date and time in the default locale.
+     *
+     * @return the shared default format
+     */
+    public static CompiledDateFormat getInstance()
+    {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        CompiledDateFormat format = DEFAULT_FORMATS.get(locale);
+
+        if (format == null)
+        {
+            format = DEFAULT_FORMATS.computeIfAbsent(locale, l ->
+            {
+                DateFormat df = DateFormat.getDateTimeInstance(DateFormat.SHORT,
+                        DateFormat.SHORT, l);
+                String defaultPattern = (df instanceof SimpleDateFormat sdf)
+                        ? sdf.toPattern() : "M/d/yy h:mm a";
+
+                return new CompiledDateFormat(defaultPattern, true, l);
+            });
+        }
+
+        return format;
+    }
+
+    /**
+     * Get the pattern of this format
+     *
+     * @return the <code>SimpleDateFormat</code> pattern
+     */
+    public String getPattern()
+    {
+        return pattern;
+    }
+
+    /**
+     * Is the parsing lenient?
+     *
+     * @return true if out of range values are accepted and rolled over
+     */
+    public boolean isLenient()
+    {
+        return lenient;
+    }
+
+    /**
+     * Was the pattern compiled into <code>DateTimeFormatter</code>s?
+     *
+     * @return false if the format falls back to <code>SimpleDateFormat</code>
+     */
+    public boolean isCompiled()
+    {
+        return parser != null;
+    }
+
+    /**
+     * Parse a date from the beginning of the given string. Like
+     * <code>DateFormat.parse(String)</code>, trailing text is ignored.
+     *
+     * @param s the string
+     * @return the date or <code>null</code> if the string could not be parsed
+     */
+    public Date parse(String s)
+    {
+        if (s == null)
+        {
+            return null;
+        }
+
+        if (parser == null)
+        {
+            return parseWithSimpleDateFormat(s);
+        }
+
+        int start = 0;
+
+        if (skipLeadingBlanks)
+        {
+            while (start < s.length() && (s.charAt(start) == ' ' || s.charAt(start) == '\t'))
+            {
+                start++;
+            }
+        }
+
+        TemporalAccessor parsed = (TemporalAccessor) parseFormat.parseObject(s,
+                new ParsePosition(start));
+
+        if (parsed == null)
+        {
+            // SimpleDateFormat also accepts blanks before and signs in numeric fields
+            return hasBlankOrSign(s) ? parseWithSimpleDateFormat(s) : null;
+        }
+
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+
+        if (date == null || time == null)
+        {
+            return null;
+        }
+
+        LocalDateTime dateTime = LocalDateTime.of(date, time)
+                .plus(parsed.query(DateTimeFormatter.parsedExcessDays()));
+
+        // a two-digit year in the first year of the century may belong to the next
+        if (parsed.isSupported(TwoDigitYear.AMBIGUOUS) && dateTime.isBefore(centuryStart))
+        {
+            dateTime = dateTime.plusYears(100);
+        }
+
+        if (dateTime.toLocalDate().isBefore(GREGORIAN_CUTOVER))
+        {
+            // SimpleDateFormat uses the Julian calendar here
+            return parseWithSimpleDateFormat(s);
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+
+        if (!lenient && zone.getRules().getValidOffsets(dateTime).isEmpty())
+        {
+            // the local time does not exist because of a daylight saving gap
+            return null;
+        }
+
+        return Date.from(dateTime.atZone(zone).withLaterOffsetAtOverlap().toInstant());
+    }
+
+    /**
+     * Does the string contain a blank or a minus sign which
+     * <code>SimpleDateFormat</code> may accept within a numeric field?
+     *
+     * @param s the string
+     * @return true if the string contains a space, tab or minus sign
+     */
+    private static boolean hasBlankOrSign(String s)
+    {
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+
+            if (c == ' ' || c == '\t' || c == '-')
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Parse a date with a new <code>SimpleDateFormat</code>
+     *
+     * @param s the string
+     * @return the date or <code>null</code> if the string could not be parsed
+     */
+    private Date parseWithSimpleDateFormat(String s)
+    {
+        SimpleDateFormat sdf = new SimpleDateFormat(pattern);
+        sdf.setLenient(lenient);
+        return sdf.parse(s, new ParsePosition(0));
+    }
+
+    /**
+     * Format a date
+     *
+     * @param date the date
+     * @return the formatted date
+     */
+    public String format(Date date)
+    {
+        if (printer == null || date.getTime() < GREGORIAN_CUTOVER_MILLIS)
+        {
+            return new SimpleDateFormat(pattern).format(date);
+        }
+
+        return printer.format(date.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    /**
+     * A two-digit year, which resolves to the year of era in the century
+     * starting with the base year. A year equal to the base year is
+     * marked as ambiguous, because it belongs to the next century if
+     * the date is before the start of the century.
+     */
+    private static final class TwoDigitYear implements TemporalField
+    {
+        /** Marker for an ambiguous year, resolves to nothing */
+        static final TemporalField AMBIGUOUS = new TwoDigitYear(-1);
+
+        /** The first year of the century */
+        private final int baseYear;
+
+        /**
+         * Constructor
+         *
+         * @param baseYear the first year of the century
+         */
+        TwoDigitYear(int baseYear)
+        {
+            this.baseYear = baseYear;
+        }
+
+        @Override
+        public TemporalAccessor resolve(Map<TemporalField, Long> fieldValues,
+                TemporalAccessor partialTemporal, ResolverStyle resolverStyle)
+        {
+            if (this != AMBIGUOUS)
+            {
+                long value = fieldValues.remove(this).longValue();
+                long year = baseYear - baseYear % 100 + value;
+
+                if (year < baseYear)
+                {
+                    year += 100;
+                }
+                else if (year == baseYear)
+                {
+                    fieldValues.put(AMBIGUOUS, Long.valueOf(value));
+                }
+
+                fieldValues.put(ChronoField.YEAR_OF_ERA, Long.valueOf(year));
+            }
+
+            return null;
+        }
+
+        @Override
+        public TemporalUnit getBaseUnit()
+        {
+            return ChronoUnit.YEARS;
+        }
+
+        @Override
+        public TemporalUnit getRangeUnit()
+        {
+            return ChronoUnit.CENTURIES;
+        }
+
+        @Override
+        public ValueRange range()
+        {
+            return ValueRange.of(0, 99);
+        }
+
+        @Override
+        public boolean isDateBased()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isTimeBased()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isSupportedBy(TemporalAccessor temporal)
+        {
+            return false;
+        }
+
+        @Override
+        public ValueRange rangeRefinedBy(TemporalAccessor temporal)
+        {
+            return range();
+        }
+
+        @Override
+        public long getFrom(TemporalAccessor temporal)
+        {
+            throw new UnsupportedTemporalTypeException("Unsupported field: " + this);
+        }
+
+        @Override
+        public <R extends Temporal> R adjustInto(R temporal, long newValue)
+        {
+            throw new UnsupportedTemporalTypeException("Unsupported field: " + this);
+        }
+
+        @Override
+        public String toString()
+        {
+            return this == AMBIGUOUS ? "AmbiguousYear" : "TwoDigitYear";
+        }
+    }
+
+    /**
+     * A run of pattern letters
+     */
+    private static final class Letter
+    {
+        /** The pattern letter */
+        final char letter;
+
+        /** The number of letters */
+        final int count;
+
+        /**
+         * Constructor
+         *
+         * @param letter the pattern letter
+         * @param count the number of letters
+         */
+        Letter(char letter, int count)
+        {
+            this.letter = letter;
+            this.count = count;
+        }
+
+        /**
+         * Is this a numeric field in <code>SimpleDateFormat</code>?
+         *
+         * @return true if the field is parsed as a number
+         */
+        boolean isNumeric()
+        {
+            switch (letter)
+            {
+                case 'M':
+                case 'L':
+                    return count <= 2;
+                case 'G':
+                case 'E':
+                case 'a':
+                    return false;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Split a <code>SimpleDateFormat</code> pattern into letter runs
+     * and literal strings
+     *
+     * @param pattern the pattern
+     * @return a list of <code>Letter</code> and <code>String</code> objects
+     */
+    private static List<Object> tokenize(String pattern)
+    {
+        List<Object> tokens = new ArrayList<Object>();
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        int i = 0;
+
+        while (i < length)
+        {
+            char c = pattern.charAt(i);
+
+            if (c == '\'')
+            {
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'')
+                {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+
+                // quoted text, '' is a quote
+                i++;
+                while (i < length)
+                {
+                    c = pattern.charAt(i);
+                    if (c == '\'')
+                    {
+                        if (i + 1 < length && pattern.charAt(i + 1) == '\'')
+                        {
+                            literal.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(c);
+                    i++;
+                }
+                i++;
+            }
+            else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))
+            {
+                if (literal.length() > 0)
+                {
+                    tokens.add(literal.toString());
+                    literal.setLength(0);
+                }
+
+                int count = 1;
+                while (i + count < length && pattern.charAt(i + count) == c)
+                {
+                    count++;
+                }
+
+                tokens.add(new Letter(c, count));
+                i += count;
+            }
+            else
+            {
+                literal.append(c);
+                i++;
+            }
+        }
+
+        if (literal.length() > 0)
+        {
+            tokens.add(literal.toString());
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Check whether the pattern can be compiled with the same semantics
+     * as <code>SimpleDateFormat</code>
+     *
+     * @param tokens the tokens of the pattern
+     * @param lenient is the parsing lenient?
+     * @return true if the pattern can be compiled
+     */
+    private static boolean isSupported(List<Object> tokens, boolean lenient)
+    {
+        StringBuilder letters = new StringBuilder();
+
+        for (int i = 0; i < tokens.size(); i++)
+        {
+            if (tokens.get(i) instanceof Letter token)
+            {
+                if (SUPPORTED_LETTERS.indexOf(token.letter) < 0
+                        || letters.indexOf(String.valueOf(token.letter)) >= 0)
+                {
+                    // unsupported or repeated field
+                    return false;
+                }
+
+                // a one-letter year followed by a number is parsed as one digit
+                if (token.letter == 'y' && token.count == 1 && isFollowedByNumber(tokens, i))
+                {
+                    return false;
+                }
+
+                letters.append(token.letter);
+            }
+        }
+
+        String l = letters.toString();
+        int hourFields = count(l, "HkKh");
+
+        // combinations which SimpleDateFormat resolves through the calendar
+        return hourFields <= 1
+                && count(l, "ML") <= 1
+                && !(l.indexOf('D') >= 0 && count(l, "MLd") > 0)
+                && !(count(l, "Eu") > 0 && (lenient || l.indexOf('d') < 0))
+                && !(l.indexOf('a') >= 0 && count(l, "Kh") == 0);
+    }
+
+    /**
+     * Count the letters of a string contained in another string
+     *
+     * @param letters the letters used in the pattern
+     * @param candidates the letters to look for
+     * @return the number of candidates found
+     */
+    private static int count(String letters, String candidates)
+    {
+        int count = 0;
+
+        for (int i = 0; i < candidates.length(); i++)
+        {
+            if (letters.indexOf(candidates.charAt(i)) >= 0)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Is the token at the given index directly followed by a numeric field?
+     *
+     * @param tokens the tokens of the pattern
+     * @param index the index of the token
+     * @return true if the next token is a numeric field
+     */
+    private static boolean isFollowedByNumber(List<Object> tokens, int index)
+    {
+        return index + 1 < tokens.size()
+                && tokens.get(index + 1) instanceof Letter next
+                && next.isNumeric();
+    }
+
+    /**
+     * Build the formatter used for parsing
+     *
+     * @param tokens the tokens of the pattern
+     * @param baseYear the first year of the century for two-digit years
+     * @param lenient is the parsing lenient?
+     * @param locale the locale
+     * @return the formatter
+     */
+    private static DateTimeFormatter buildParser(List<Object> tokens, int baseYear,
+            boolean lenient, Locale locale)
+    {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder().parseCaseInsensitive();
+        StringBuilder letters = new StringBuilder();
+        TemporalField twoDigitYear = new TwoDigitYear(baseYear);
+
+        for (int i = 0; i < tokens.size(); i++)
+        {
+            Object token = tokens.get(i);
+
+            if (token instanceof Letter field)
+            {
+                letters.append(field.letter);
+                boolean obeyCount = field.isNumeric() && isFollowedByNumber(tokens, i);
+
+                if (field.letter == 'y' && field.count <= 2)
+                {
+                    if (obeyCount)
+                    {
+                        builder.appendValue(twoDigitYear, 2);
+                    }
+                    else
+                    {
+                        // exactly two digits are reduced, all others are literal;
+                        // a missing year leaves the date unresolved
+                        builder.optionalStart()
+                            .appendValue(ChronoField.YEAR_OF_ERA, 3, MAX_WIDTH, SignStyle.NORMAL)
+                            .optionalEnd()
+                            .optionalStart()
+                            .appendValue(twoDigitYear, 2)
+                            .optionalEnd()
+                            .optionalStart()
+                            .appendValue(ChronoField.YEAR_OF_ERA, 1, MAX_WIDTH, SignStyle.NORMAL)
+                            .optionalEnd();
+                    }
+                }
+                else if (field.isNumeric())
+                {
+                    if (obeyCount)
+                    {
+                        builder.appendValue(getField(field.letter), field.count);
+                    }
+                    else
+                    {
+                        builder.appendValue(getField(field.letter), 1, MAX_WIDTH, SignStyle.NORMAL);
+                    }
+                }
+                else
+                {
+                    // text is matched in all styles
+                    builder.parseLenient()
+                        .appendText(getField(field.letter), getTextStyle(field))
+                        .parseStrict();
+                }
+            }
+            else
+            {
+                builder.appendLiteral((String) token);
+            }
+        }
+
+        String l = letters.toString();
+
+        if (l.indexOf('G') < 0)
+        {
+            builder.parseDefaulting(ChronoField.ERA, 1);
+        }
+        if (l.indexOf('y') < 0)
+        {
+            builder.parseDefaulting(ChronoField.YEAR_OF_ERA, 1970);
+        }
+        if (l.indexOf('D') < 0)
+        {
+            if (count(l, "ML") == 0)
+            {
+                builder.parseDefaulting(ChronoField.MONTH_OF_YEAR, 1);
+            }
+            if (l.indexOf('d') < 0)
+            {
+                builder.parseDefaulting(ChronoField.DAY_OF_MONTH, 1);
+            }
+        }
+        if (count(l, "HkKh") == 0)
+        {
+            builder.parseDefaulting(ChronoField.HOUR_OF_DAY, 0);
+        }
+        else if (count(l, "Kh") > 0 && l.indexOf('a') < 0)
+        {
+            builder.parseDefaulting(ChronoField.AMPM_OF_DAY, 0);
+        }
+        if (l.indexOf('m') < 0)
+        {
+            builder.parseDefaulting(ChronoField.MINUTE_OF_HOUR, 0);
+        }
+        if (l.indexOf('s') < 0)
+        {
+            builder.parseDefaulting(ChronoField.SECOND_OF_MINUTE, 0);
+        }
+        if (l.indexOf('S') < 0)
+        {
+            builder.parseDefaulting(ChronoField.MILLI_OF_SECOND, 0);
+        }
+
+        return builder.toFormatter(locale)
+                .withResolverStyle(lenient ? ResolverStyle.LENIENT : ResolverStyle.STRICT);
+    }
+
+    /**
+     * Build the formatter used for formatting
+     *
+     * @param tokens the tokens of the pattern
+     * @param baseDate the start of the century for two-digit years
+     * @param locale the locale
+     * @return the formatter
+     */
+    private static DateTimeFormatter buildPrinter(List<Object> tokens, LocalDate baseDate,
+            Locale locale)
+    {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+
+        for (Object token : tokens)
+        {
+            if (token instanceof Letter field)
+            {
+                if (field.letter == 'y' && field.count == 2)
+                {
+                    builder.appendValueReduced(ChronoField.YEAR_OF_ERA, 2, 2, baseDate);
+                }
+                else if (field.isNumeric())
+                {
+                    if (field.count == 1)
+                    {
+                        builder.appendValue(getField(field.letter));
+                    }
+                    else
+                    {
+                        builder.appendValue(getField(field.letter), field.count,
+                                MAX_WIDTH, SignStyle.NORMAL);
+                    }
+                }
+                else
+                {
+                    builder.appendText(getField(field.letter), getTextStyle(field));
+                }
+            }
+            else
+            {
+                builder.appendLiteral((String) token);
+            }
+        }
+
+        return builder.toFormatter(locale);
+    }
+
+    /**
+     * Map a pattern letter to its field
+     *
+     * @param letter the pattern letter
+     * @return the field
+     */
+    private static ChronoField getField(char letter)
+    {
+        switch (letter)
+        {
+            case 'G':
+                return ChronoField.ERA;
+            case 'y':
+                return ChronoField.YEAR_OF_ERA;
+            case 'M':
+            case 'L':
+                return ChronoField.MONTH_OF_YEAR;
+            case 'd':
+                return ChronoField.DAY_OF_MONTH;
+            case 'D':
+                return ChronoField.DAY_OF_YEAR;
+            case 'E':
+            case 'u':
+                return ChronoField.DAY_OF_WEEK;
+            case 'a':
+                return ChronoField.AMPM_OF_DAY;
+            case 'H':
+                return ChronoField.HOUR_OF_DAY;
+            case 'k':
+                return ChronoField.CLOCK_HOUR_OF_DAY;
+            case 'K':
+                return ChronoField.HOUR_OF_AMPM;
+            case 'h':
+                return ChronoField.CLOCK_HOUR_OF_AMPM;
+            case 'm':
+                return ChronoField.MINUTE_OF_HOUR;
+            case 's':
+                return ChronoField.SECOND_OF_MINUTE;
+            case 'S':
+                return ChronoField.MILLI_OF_SECOND;
+            default:
+                throw new IllegalArgumentException("Unsupported pattern letter " + letter);
+        }
+    }
+
+    /**
+     * Get the text style of a text field
+     *
+     * @param field the pattern letters
+     * @return the text style
+     */
+    private static TextStyle getTextStyle(Letter field)
+    {
+        switch (field.letter)
+        {
+            case 'M':
+                return field.count >= 4 ? TextStyle.FULL : TextStyle.SHORT;
+            case 'L':
+                return field.count >= 4 ? TextStyle.FULL_STANDALONE : TextStyle.SHORT_STANDALONE;
+            case 'E':
+                return field.count >= 4 ? TextStyle.FULL : TextStyle.SHORT;
+            default:
+                return TextStyle.SHORT;
+        }
+    }
+}
@@ -19,7 +19,6 @@ package org.apache.fulcrum.intake.validator;
  * under the License.
  */
 
-import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -159,36 +158,70 @@ public class DateRangeValidator
     }
 
     /**
-     * Determine whether a testValue meets the criteria specified
+     * Determine whether a field meets the criteria specified
      * in the constraints defined for this validator
      *
      * @param testField a <code>Field</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(Field<Date> testField)
-        throws ValidationException
+    protected boolean doValidate(Field<Date> testField, ValidationResult result)
     {
-        super.assertValidity(testField);
+        if (!super.doValidate(testField, result))
+        {
+            return false;
+        }
 
         Group thisGroup = testField.getGroup();
 
+        // the values have already been parsed by the super class
         if (testField.isMultiValued())
         {
-            String[] stringValues = (String[])testField.getTestValue();
+            Object[] values = testField.getParsedValue();
 
-            for (int i = 0; i < stringValues.length; i++)
+            for (int i = 0; i < values.length; i++)
             {
-                assertValidity(stringValues[i], thisGroup);
+                if (!checkReferences((Date) values[i], thisGroup, result))
+                {
+                    return false;
+                }
             }
+
+            return true;
         }
-        else
+
+        Date value = testField.getParsedValue();
+
+        return checkReferences(value, thisGroup, result);
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param group the group this field belongs to
+     * @param result the sink for the validation outcome
+     *
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(final String testValue, final Group group, ValidationResult result)
+    {
+        if (required || StringUtils.isNotEmpty(testValue))
         {
-            String testValue = (String)testField.getTestValue();
+            Date testDate = parseDate(testValue);
 
-            assertValidity(testValue, thisGroup);
+            if (testDate == null)
+            {
+                return fail(result, getDateFormatMessage());
+            }
+
+            return checkReferences(testDate, group, result);
         }
+
+        return true;
     }
 
     /**
@@ -204,32 +237,25 @@ public class DateRangeValidator
     public void assertValidity(final String testValue, final Group group)
         throws ValidationException
     {
-        if (required || StringUtils.isNotEmpty(testValue))
-        {
-            Date testDate = null;
-
-            try
-            {
-                testDate = parse(testValue);
-            }
-            catch (ParseException e)
-            {
-                // This should not happen because we succeeded with this before,
-                // but we need to catch the exception anyway
-                errorMessage = getDateFormatMessage();
-                throw new ValidationException(errorMessage);
-            }
+        ValidationResult result = new ValidationResult();
+        validate(testValue, group, result);
+        result.assertValid();
+    }
 
-            try
-            {
-                FieldReference.checkReferences(fieldReferences, compareCallback,
-                        testDate, group);
-            }
-            catch (ValidationException e)
-            {
-                errorMessage = e.getMessage();
-                throw e;
-            }
-        }
+    /**
+     * Compare a parsed date with the referenced fields
+     *
+     * @param testDate the date to compare or <code>null</code> if empty
+     * @param group the group this field belongs to
+     * @param result the sink for the validation outcome
+     *
+     * @return true if the date passed the comparison
+     */
+    private boolean checkReferences(final Date testDate, final Group group,
+            ValidationResult result)
+    {
+        return testDate == null
+                || FieldReference.checkReferences(fieldReferences, compareCallback,
+                        testDate, group, result);
     }
 }
@@ -20,13 +20,14 @@ package org.apache.fulcrum.intake.validator;
  */
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.model.Field;
 
 /**
  * Validates numbers with the following constraints in addition to those
@@ -68,6 +69,12 @@ public class DateStringValidator
     /** A flag that is passed to the DateFormat lenient feature */
     private boolean flexible = false;
 
+    /** The compiled date formats in the order they are tried */
+    private List<CompiledDateFormat> compiledFormats = null;
+
+    /** The date formats the compiled formats were created from */
+    private List<String> compiledPatterns = null;
+
     /**
      * Default Constructor
      */
@@ -121,34 +128,144 @@ public class DateStringValidator
         {
             flexible = Boolean.valueOf(constraint.getValue()).booleanValue();
         }
+
+        try
+        {
+            compileFormats();
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new InvalidMaskException("Could not compile date formats " + dateFormats, e);
+        }
     }
 
     /**
-     * Determine whether a testValue meets the criteria specified
-     * in the constraints defined for this validator
+     * Compile the date formats once, so that parsing does not need to
+     * create a <code>SimpleDateFormat</code> for every value. The formats
+     * provided by the "formatx" rules come first, then the "format" rule.
+     */
+    private void compileFormats()
+    {
+        List<String> patterns = new ArrayList<String>(dateFormats);
+        List<CompiledDateFormat> formats = new ArrayList<CompiledDateFormat>(patterns.size());
+
+        for (int i = 1; i < patterns.size(); i++)
+        {
+            formats.add(CompiledDateFormat.compile(patterns.get(i), flexible));
+        }
+
+        if (!patterns.isEmpty())
+        {
+            formats.add(CompiledDateFormat.compile(patterns.get(0), flexible));
+        }
+
+        compiledFormats = formats;
+        compiledPatterns = patterns;
+    }
+
+    /**
+     * Get the compiled date formats. As the list of formats of an unshared
+     * validator may be modified through {@link #getDateFormats()}, it is
+     * compiled again if it has changed.
      *
-     * @param testValue a <code>String</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @return the compiled date formats in the order they are tried
      */
-    @Override
-	public void assertValidity(String testValue)
-            throws ValidationException
+    private List<CompiledDateFormat> getCompiledFormats()
     {
-        super.assertValidity(testValue);
+        if (compiledFormats == null
+                || (!isShared() && !dateFormats.equals(compiledPatterns)))
+        {
+            compileFormats();
+        }
+
+        return compiledFormats;
+    }
 
-        if (required || StringUtils.isNotEmpty(testValue))
+    /**
+     * Determine whether a field meets the criteria specified
+     * in the constraints defined for this validator. The parsed
+     * dates are handed to the field.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    protected boolean doValidate(Field<Date> field, ValidationResult result)
+    {
+        if (field.isMultiValued())
         {
-            try
+            String[] stringValues = (String[])field.getTestValue();
+            Object[] values = new Object[stringValues.length];
+
+            for (int i = 0; i < stringValues.length; i++)
             {
-                parse(testValue);
+                values[i] = parseValidDate(stringValues[i], result);
+
+                if (!result.isValid())
+                {
+                    return false;
+                }
             }
-            catch (ParseException e)
+
+            field.setParsedValue(values);
+        }
+        else
+        {
+            Date value = parseValidDate((String)field.getTestValue(), result);
+
+            if (!result.isValid())
             {
-                errorMessage = dateFormatMessage;
-                throw new ValidationException(dateFormatMessage);
+                return false;
             }
+
+            field.setParsedValue(value);
         }
+
+        return true;
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    public boolean validate(String testValue, ValidationResult result)
+    {
+        parseValidDate(testValue, result);
+        return result.isValid();
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator and return the
+     * parsed date. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return the date or <code>null</code> if the testValue is empty
+     * or invalid
+     */
+    protected Date parseValidDate(String testValue, ValidationResult result)
+    {
+        if (!super.validate(testValue, result) || StringUtils.isEmpty(testValue))
+        {
+            return null;
+        }
+
+        Date date = parseDate(testValue);
+
+        if (date == null)
+        {
+            fail(result, dateFormatMessage);
+        }
+
+        return date;
     }
 
     /**
@@ -166,56 +283,53 @@ public class DateStringValidator
     public Date parse(String s)
             throws ParseException
     {
-        Date date = null;
-
         if (s == null)
         {
             throw new ParseException("Input string was null", -1);
         }
 
-        SimpleDateFormat sdf = new SimpleDateFormat();
-        sdf.setLenient(flexible);
+        Date date = parseDate(s);
 
-        for (int i = 1; i < dateFormats.size() && date == null; i++)
+        // if the date still has not been parsed at this point, throw
+        // a ParseException.
+        if (date == null)
         {
-            sdf.applyPattern(dateFormats.get(i));
+            throw new ParseException("Could not parse the date", 0);
+        }
 
-            try
-            {
-                date = sdf.parse(s);
-            }
-            catch (ParseException e)
-            {
-                // ignore
-            }
+        return date;
+    }
+
+    /**
+     * Parses the String s like {@link #parse(String)}, but signals
+     * a failure by returning <code>null</code> instead of throwing
+     * an exception.
+     *
+     * @param s possibly a date string
+     * @return the date parsed or <code>null</code> if the string could not
+     * be parsed into a date.
+     */
+    protected Date parseDate(String s)
+    {
+        if (s == null)
+        {
+            return null;
         }
 
-        if (date == null)
+        Date date = null;
+
+        for (CompiledDateFormat format : getCompiledFormats())
         {
-            sdf.applyPattern(dateFormats.get(0));
+            date = format.parse(s);
 
-            try
+            if (date != null)
             {
-                date = sdf.parse(s);
+                return date;
             }
-            catch (ParseException e)
-            {
-                // ignore
-            }
-        }
-
-        if (date == null)
-        {
-            // Try default
-            date = SimpleDateFormat.getInstance().parse(s);
         }
 
-        // if the date still has not been parsed at this point, throw
-        // a ParseException.
-        if (date == null)
-        {
-            throw new ParseException("Could not parse the date", 0);
-        }
+        // Try default
+        date = CompiledDateFormat.getInstance().parse(s);
 
         return date;
     }
@@ -233,8 +347,8 @@ public class DateStringValidator
 
         if (date != null && !dateFormats.isEmpty())
         {
-            SimpleDateFormat sdf = new SimpleDateFormat(dateFormats.get(0));
-            s = sdf.format(date);
+            List<CompiledDateFormat> formats = getCompiledFormats();
+            s = formats.get(formats.size() - 1).format(date);
         }
 
         return s;
@@ -264,6 +378,7 @@ public class DateStringValidator
      */
     public void setDateFormatMessage(String message)
     {
+        checkMutable();
         if (StringUtils.isNotEmpty(message))
         {
             dateFormatMessage = message;
@@ -273,11 +388,11 @@ public class DateStringValidator
     /**
      * Get the value of dateFormats.
      *
-     * @return value of dateFormats.
+     * @return value of dateFormats, unmodifiable if the validator is shared.
      */
     public List<String> getDateFormats()
     {
-        return dateFormats;
+        return isShared() ? Collections.unmodifiableList(dateFormats) : dateFormats;
     }
 
     /**
@@ -287,7 +402,9 @@ public class DateStringValidator
      */
     public void setDateFormats(List<String> formats)
     {
+        checkMutable();
         this.dateFormats = formats;
+        this.compiledFormats = null;
     }
 
     /**
@@ -307,6 +424,8 @@ public class DateStringValidator
      */
     public void setFlexible(boolean flexible)
     {
+        checkMutable();
         this.flexible = flexible;
+        this.compiledFormats = null;
     }
 }
@@ -19,6 +19,7 @@ package org.apache.fulcrum.intake.validator;
  * under the License.
  */
 
+import java.lang.reflect.Method;
 import java.util.Map;
 
 import org.apache.avalon.framework.logger.LogEnabled;
@@ -68,12 +69,29 @@ abstract public class DefaultValidator<T>
     /** The message to show if field fails max-length test */
     protected String maxLengthMessage = null;
 
-    /** Error message pertaining to Rule that was broken */
+    /**
+     * Error message pertaining to Rule that was broken
+     *
+     * @deprecated the built-in validators do not keep the result of a
+     * validation, see {@link ValidationResult}
+     */
+    @Deprecated
     protected String errorMessage = null;
 
+    /** Is this validator shared between fields? */
+    private boolean shared = false;
+
     /** Logging */
     protected Logger log;
 
+    /** Validator classes overriding the throwing method for fields */
+    private static final ClassValue<Boolean> OVERRIDES_ASSERT_FIELD =
+            new OverrideCheck(Field.class);
+
+    /** Validator classes overriding the throwing method for strings */
+    private static final ClassValue<Boolean> OVERRIDES_ASSERT_STRING =
+            new OverrideCheck(String.class);
+
     /**
      * Default constructor
      */
@@ -98,11 +116,14 @@ abstract public class DefaultValidator<T>
      * @param paramMap a <code>Map</code> of <code>Rule</code>'s
      * containing constraints on the input.
      * @throws InvalidMaskException An invalid mask was specified for one of the rules
+     * @throws IllegalStateException if the validator is shared
      */
     @Override
 	public void init(Map<String, ? extends Constraint> paramMap)
             throws InvalidMaskException
     {
+        checkMutable();
+
         Constraint constraint = paramMap.get(REQUIRED_RULE_NAME);
         if (constraint != null)
         {
@@ -138,17 +159,91 @@ abstract public class DefaultValidator<T>
     @Override
 	public boolean isValid(Field<T> field)
     {
-        boolean valid = false;
-        try
+        return validate(field, new ValidationResult());
+    }
+
+    /**
+     * Determine whether a field meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    public boolean validate(Field<T> field, ValidationResult result)
+    {
+        if (OVERRIDES_ASSERT_FIELD.get(getClass()).booleanValue())
+        {
+            // subclass still implements the throwing contract
+            try
+            {
+                assertValidity(field);
+                return true;
+            }
+            catch (ValidationException ve)
+            {
+                return result.fail(ve.getMessage());
+            }
+        }
+
+        return doValidate(field, result);
+    }
+
+    /**
+     * Validate the test value(s) of a field. Subclasses which convert
+     * the input override this method to hand the converted values to
+     * the field.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    protected boolean doValidate(Field<T> field, ValidationResult result)
+    {
+        if (field.isMultiValued())
         {
-            assertValidity(field);
-            valid = true;
+            String[] stringValues = (String[])field.getTestValue();
+
+            for (int i = 0; i < stringValues.length; i++)
+            {
+                if (!validateValue(stringValues[i], result))
+                {
+                    return false;
+                }
+            }
+
+            return true;
         }
-        catch (ValidationException ve)
+
+        return validateValue((String)field.getTestValue(), result);
+    }
+
+    /**
+     * Validate a single value, calling the throwing method if a
+     * subclass overrides it.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    private boolean validateValue(String testValue, ValidationResult result)
+    {
+        if (OVERRIDES_ASSERT_STRING.get(getClass()).booleanValue())
         {
-            valid = false;
+            try
+            {
+                assertValidity(testValue);
+                return true;
+            }
+            catch (ValidationException ve)
+            {
+                return result.fail(ve.getMessage());
+            }
         }
-        return valid;
+
+        return validate(testValue, result);
     }
 
     /**
@@ -163,19 +258,9 @@ abstract public class DefaultValidator<T>
 	public void assertValidity(Field<T> field)
             throws ValidationException
     {
-    	if (field.isMultiValued())
-    	{
-    		String[] stringValues = (String[])field.getTestValue();
-
-    		for (int i = 0; i < stringValues.length; i++)
-    		{
-    			assertValidity(stringValues[i]);
-    		}
-    	}
-    	else
-    	{
-    		assertValidity((String)field.getTestValue());
-    	}
+        ValidationResult result = new ValidationResult();
+        doValidate(field, result);
+        result.assertValid();
     }
 
     /**
@@ -191,59 +276,77 @@ abstract public class DefaultValidator<T>
     @Override
 	public boolean isValid(String testValue)
     {
-        boolean valid = false;
-        try
-        {
-            assertValidity(testValue);
-            valid = true;
-        }
-        catch (ValidationException ve)
-        {
-            valid = false;
-        }
-        return valid;
+        return validateValue(testValue, new ValidationResult());
     }
 
     /**
      * Determine whether a testValue meets the criteria specified
-     * in the constraints defined for this validator
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
      *
      * @param testValue a <code>String</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(String testValue)
-            throws ValidationException
+    public boolean validate(String testValue, ValidationResult result)
     {
-        if (!required && StringUtils.isEmpty(testValue))
-        {
-            return;
-        }
-        if (required && StringUtils.isEmpty(testValue))
+        if (StringUtils.isEmpty(testValue))
         {
-            errorMessage = requiredMessage;
-            throw new ValidationException(requiredMessage);
+            return required ? fail(result, requiredMessage) : true;
         }
 
         if (minLength > 0 && testValue.length() < minLength)
         {
-            errorMessage = minLengthMessage;
-            throw new ValidationException(minLengthMessage);
+            return fail(result, minLengthMessage);
         }
         if (maxLength > 0 && testValue.length() > maxLength)
         {
-            errorMessage = maxLengthMessage;
-            throw new ValidationException(maxLengthMessage);
+            return fail(result, maxLengthMessage);
         }
+
+        return true;
     }
 
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @throws ValidationException containing an error message if the
+     * testValue did not pass the validation tests.
+     */
+    @Override
+	public void assertValidity(String testValue)
+            throws ValidationException
+    {
+        ValidationResult result = new ValidationResult();
+        validate(testValue, result);
+        result.assertValid();
+    }
+
+    /**
+     * Record a broken rule
+     *
+     * @param result the sink for the validation outcome
+     * @param message the message of the broken rule
+     * @return always <code>false</code>
+     */
+    protected boolean fail(ValidationResult result, String message)
+    {
+        return result.fail(message);
+    }
 
     /**
      * Get the error message resulting from invalid input.
      *
      * @return a <code>String</code> message, or the empty String "".
+     *
+     * @deprecated validators may be shared between fields and threads, so
+     * the message of a failed validation is only reported through the
+     * {@link ValidationResult} or the {@link ValidationException}
      */
+    @Deprecated
     @Override
 	public String getMessage()
     {
@@ -257,6 +360,57 @@ abstract public class DefaultValidator<T>
         return retValue;
     }
 
+    /**
+     * Can this validator be shared between fields and threads? This is
+     * true for the built-in validators, which do not change after they
+     * have been initialized. Validator classes which are stateless after
+     * initialization may override this method to return
+     * <code>true</code>.
+     *
+     * @return true if one instance may serve all fields with the same rules
+     */
+    public boolean isShareable()
+    {
+        Class<?> type = getClass();
+
+        return type.getPackageName().equals(DefaultValidator.class.getPackageName())
+                && !OVERRIDES_ASSERT_FIELD.get(type).booleanValue()
+                && !OVERRIDES_ASSERT_STRING.get(type).booleanValue();
+    }
+
+    /**
+     * Is this validator shared between fields?
+     *
+     * @return true if the validator has been shared and cannot be changed
+     */
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    /**
+     * Mark this validator as shared between fields. Its configuration
+     * cannot be changed afterwards.
+     */
+    void setShared()
+    {
+        this.shared = true;
+    }
+
+    /**
+     * Make sure that the configuration of this validator may be changed
+     *
+     * @throws IllegalStateException if the validator is shared
+     */
+    protected void checkMutable()
+    {
+        if (shared)
+        {
+            throw new IllegalStateException("The validator " + getClass().getName()
+                    + " is shared between fields and cannot be changed");
+        }
+    }
+
     // ************************************************************
     // **                Bean accessor methods                   **
     // ************************************************************
@@ -278,6 +432,7 @@ abstract public class DefaultValidator<T>
      */
     public void setRequired(boolean required)
     {
+        checkMutable();
         this.required = required;
     }
 
@@ -298,6 +453,7 @@ abstract public class DefaultValidator<T>
      */
     public void setRequiredMessage(String requiredMessage)
     {
+        checkMutable();
         this.requiredMessage = requiredMessage;
     }
 
@@ -318,6 +474,7 @@ abstract public class DefaultValidator<T>
      */
     public void setMinLength(int minLength)
     {
+        checkMutable();
         this.minLength = minLength;
     }
 
@@ -338,6 +495,7 @@ abstract public class DefaultValidator<T>
      */
     public void setMinLengthMessage(String minLengthMessage)
     {
+        checkMutable();
         this.minLengthMessage = minLengthMessage;
     }
 
@@ -358,6 +516,7 @@ abstract public class DefaultValidator<T>
      */
     public void setMaxLength(int maxLength)
     {
+        checkMutable();
         this.maxLength = maxLength;
     }
 
@@ -378,6 +537,42 @@ abstract public class DefaultValidator<T>
      */
     public void setMaxLengthMessage(String maxLengthMessage)
     {
+        checkMutable();
         this.maxLengthMessage = maxLengthMessage;
     }
+
+    /**
+     * Finds out if a validator class still implements the throwing
+     * <code>assertValidity</code> contract for the given parameter type,
+     * so that the non-throwing methods do not bypass it.
+     */
+    private static final class OverrideCheck extends ClassValue<Boolean>
+    {
+        /** The parameter type of the checked method */
+        private final Class<?> parameterType;
+
+        /**
+         * Constructor
+         *
+         * @param parameterType the parameter type of the checked method
+         */
+        OverrideCheck(Class<?> parameterType)
+        {
+            this.parameterType = parameterType;
+        }
+
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                Method method = type.getMethod("assertValidity", parameterType);
+                return Boolean.valueOf(method.getDeclaringClass() != DefaultValidator.class);
+            }
+            catch (NoSuchMethodException e)
+            {
+                return Boolean.TRUE;
+            }
+        }
+    }
 }
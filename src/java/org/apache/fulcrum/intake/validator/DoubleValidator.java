@@ -63,4 +63,14 @@ public class DoubleValidator
         Number number = parseIntoNumber(stringValue, locale);
 		return Double.valueOf(number.doubleValue());
     }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected Double parseNumberOrNull(String stringValue, Locale locale)
+    {
+        Number number = parseIntoNumberOrNull(stringValue, locale);
+        return (number == null) ? null : Double.valueOf(number.doubleValue());
+    }
 }
@@ -193,6 +193,29 @@ public class FieldReference
     public static <T> void checkReferences(List<FieldReference> fieldReferences, CompareCallback<T> compareCallback,
             T value, Group group)
         throws ValidationException
+    {
+        ValidationResult result = new ValidationResult();
+        checkReferences(fieldReferences, compareCallback, value, group, result);
+        result.assertValid();
+    }
+
+    /**
+     * Check the parsed value against the referenced fields without
+     * throwing an exception. The message of the first failed reference
+     * is recorded in the given result.
+     *
+     * @param fieldReferences List of field references to check
+     * @param compareCallback Callback to the actual compare operation
+     * @param value the parsed value of the related field
+     * @param group the group the related field belongs to
+     * @param result the sink for the validation outcome
+     *
+     * @param <T> the field type
+     *
+     * @return true if the validation against all related fields succeeded
+     */
+    public static <T> boolean checkReferences(List<FieldReference> fieldReferences, CompareCallback<T> compareCallback,
+            T value, Group group, ValidationResult result)
     {
         for (FieldReference ref : fieldReferences)
         {
@@ -225,13 +248,15 @@ public class FieldReference
             }
             catch (IntakeException e)
             {
-                throw new ValidationException(ref.getMessage());
+                comp_true = false;
             }
 
             if (comp_true == false)
             {
-                throw new ValidationException(ref.getMessage());
+                return result.fail(ref.getMessage());
             }
         }
+
+        return true;
     }
 }
@@ -21,8 +21,21 @@ package org.apache.fulcrum.intake.validator;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -33,6 +46,26 @@ import jakarta.servlet.http.Part;
  * A validator that will compare a Part testValue against the following
  * constraints in addition to those listed in DefaultValidator.
  *
+ * <table>
+ * <caption>Supported rules</caption>
+ * <tr><th>Name</th><th>Valid Values</th><th>Default Value</th></tr>
+ * <tr><td>digest</td><td>the name of a <code>MessageDigest</code>
+ * algorithm, e.g. <code>SHA-256</code></td><td>&nbsp;</td></tr>
+ * <tr><td>allowedMagic</td><td>a comma separated list of magic numbers
+ * in hex, each optionally preceded by a content type and '=', e.g.
+ * <code>image/png=89504E470D0A1A0A, image/jpeg=FFD8FF</code></td>
+ * <td>&nbsp;</td></tr>
+ * </table>
+ *
+ * The content of the part is never held in memory as a whole. The length
+ * rules are checked against the size of the part first and only if this
+ * does not decide the outcome, the content is decoded from the input
+ * stream of the part in chunks while the characters are counted. The
+ * digest and the magic number are computed in the same pass and reported
+ * through a {@link PartInspection}. Reading stops as soon as the outcome
+ * is known and nothing else needs to be computed. The buffers used for
+ * reading are taken from a small pool.
+ *
  * This validator can serve as the base class for more specific validators
  *
  * @author <a href="mailto:jmcnally@collab.net">John McNally</a>
@@ -45,6 +78,34 @@ public class FileValidator
 {
     private final static Pattern charsetPattern = Pattern.compile(".+charset\\s*=\\s*(.+)");
 
+    /** Size of the buffers used for decoding the content */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Number of bytes kept as header of the content */
+    private static final int HEADER_SIZE = 16;
+
+    /** Maximum number of idle buffers kept in the pool */
+    private static final int POOL_SIZE = 16;
+
+    /** The idle buffers */
+    private static final BlockingQueue<Buffers> BUFFER_POOL =
+            new ArrayBlockingQueue<Buffers>(POOL_SIZE);
+
+    /** The name of the digest algorithm */
+    private String digestAlgorithm = null;
+
+    /** The allowed magic numbers as given in the rule */
+    private String allowedMagicString = null;
+
+    /** The allowed magic numbers */
+    private Magic[] allowedMagic = null;
+
+    /** The length of the longest allowed magic number */
+    private int maxMagicLength = 0;
+
+    /** The message of the allowedMagic rule */
+    private String allowedMagicMessage = null;
+
     /**
      * Default constructor
      */
@@ -53,6 +114,35 @@ public class FileValidator
         super();
     }
 
+    /**
+     * Extract the relevant parameters from the constraints listed
+     * in &lt;rule&gt; tags within the intake.xml file.
+     *
+     * @param paramMap a <code>Map</code> of <code>Rule</code>'s
+     * containing constraints on the input.
+     * @throws InvalidMaskException an invalid digest algorithm or magic
+     * number was specified
+     */
+    @Override
+    public void init(Map<String, ? extends Constraint> paramMap)
+            throws InvalidMaskException
+    {
+        super.init(paramMap);
+
+        Constraint constraint = paramMap.get(DIGEST_RULE_NAME);
+        if (constraint != null)
+        {
+            setDigestAlgorithm(constraint.getValue());
+        }
+
+        constraint = paramMap.get(ALLOWED_MAGIC_RULE_NAME);
+        if (constraint != null)
+        {
+            setAllowedMagic(constraint.getValue());
+            allowedMagicMessage = constraint.getMessage();
+        }
+    }
+
     /**
      * Determine whether a testValue meets the criteria specified
      * in the constraints defined for this validator
@@ -64,46 +154,529 @@ public class FileValidator
     public void assertValidity(Part testValue)
             throws ValidationException
     {
-        byte[] fileData = new byte[(int) testValue.getSize()];
+        ValidationResult result = new ValidationResult();
+        validate(testValue, result);
+        result.assertValid();
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>Part</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(Part testValue, ValidationResult result)
+    {
+        return validate(testValue, result, null);
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result, the
+     * digest and the header of the content are recorded in the given
+     * inspection.
+     *
+     * @param testValue a <code>Part</code> to be tested
+     * @param result the sink for the validation outcome
+     * @param inspection the sink for the properties of the content,
+     * may be <code>null</code>
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(Part testValue, ValidationResult result,
+            PartInspection inspection)
+    {
         String contentType = testValue.getContentType();
-        String charset = Charset.defaultCharset().name();
+        String charsetName = Charset.defaultCharset().name();
 
-        if (contentType.contains("charset"))
+        if (contentType != null && contentType.contains("charset"))
         {
             Matcher matcher = charsetPattern.matcher(contentType);
             if (matcher.matches())
             {
-                charset = matcher.group(1);
+                charsetName = matcher.group(1);
+            }
+        }
+
+        Charset charset;
+        try
+        {
+            charset = Charset.forName(charsetName);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return fail(result, "Invalid charset " + charsetName);
+        }
+
+        long size = testValue.getSize();
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        // single byte charsets decode every byte to exactly one character
+        if (size == 0 || decoder.maxCharsPerByte() == 1.0f && charset.canEncode()
+                && charset.newEncoder().maxBytesPerChar() == 1.0f)
+        {
+            if (!validateLength(size, result))
+            {
+                return false;
             }
+
+            decoder = null;
+        }
+        // the content cannot decode to more than this number of characters
+        else if (minLength > 0 && size * (double) decoder.maxCharsPerByte() < minLength)
+        {
+            return fail(result, minLengthMessage);
         }
 
+        if (decoder == null && allowedMagic == null
+                && (inspection == null || digestAlgorithm == null))
+        {
+            return true;
+        }
+
+        Buffers buffers = BUFFER_POOL.poll();
+        if (buffers == null)
+        {
+            buffers = new Buffers();
+        }
+
+        try
+        {
+            return validateContent(testValue, size, decoder, buffers, result, inspection);
+        }
+        finally
+        {
+            buffers.in.clear();
+            buffers.out.clear();
+            BUFFER_POOL.offer(buffers);
+        }
+    }
+
+    /**
+     * Read the content of a part in one pass. The number of characters
+     * is checked against the length rules if a decoder is given, the
+     * header is checked against the allowed magic numbers and the digest
+     * is computed if requested.
+     *
+     * @param testValue the <code>Part</code> to be tested
+     * @param size the expected number of bytes
+     * @param decoder the decoder for the charset of the part or
+     * <code>null</code> if the characters need not be counted
+     * @param buffers the buffers to use
+     * @param result the sink for the validation outcome
+     * @param inspection the sink for the properties of the content,
+     * may be <code>null</code>
+     * @return true if valid, false otherwise
+     */
+    private boolean validateContent(Part testValue, long size, CharsetDecoder decoder,
+            Buffers buffers, ValidationResult result, PartInspection inspection)
+    {
+        ByteBuffer in = buffers.in;
+        CharBuffer out = buffers.out;
+        byte[] bytes = in.array();
+
+        MessageDigest md = (inspection != null) ? newDigest() : null;
+        int headerSize = (inspection != null) ? Math.max(HEADER_SIZE, maxMagicLength) : maxMagicLength;
+        byte[] header = new byte[headerSize];
+        int headerCount = 0;
+        boolean magicPending = allowedMagic != null;
+        long byteCount = 0;
+        long charCount = 0;
+
+        // without a maximum length, the outcome is known after this many characters
+        long sufficient = (decoder == null) ? 0 : (maxLength > 0) ? Long.MAX_VALUE : Math.max(minLength, 1);
+
         try (InputStream fis = testValue.getInputStream())
         {
-            int byteSize = fis.read(fileData);
-            if ( fileData.length != byteSize )
+            boolean endOfInput = false;
+
+            while (!endOfInput)
             {
-            	throw new ValidationException("Byte length mismatch found");
+                int offset = in.position();
+                int read = fis.read(bytes, offset, in.remaining());
+                if (read < 0)
+                {
+                    endOfInput = true;
+                    read = 0;
+                }
+
+                byteCount += read;
+
+                if (md != null)
+                {
+                    md.update(bytes, offset, read);
+                }
+                if (headerCount < headerSize)
+                {
+                    int n = Math.min(read, headerSize - headerCount);
+                    System.arraycopy(bytes, offset, header, headerCount, n);
+                    headerCount += n;
+                }
+                if (magicPending && (headerCount >= maxMagicLength || endOfInput))
+                {
+                    if (!matchMagic(header, headerCount, inspection))
+                    {
+                        return fail(result, allowedMagicMessage);
+                    }
+
+                    magicPending = false;
+                }
+
+                if (decoder == null)
+                {
+                    in.clear();
+                }
+                else
+                {
+                    in.position(offset + read);
+                    charCount += decode(decoder, in, out, endOfInput);
+
+                    if (maxLength > 0 && charCount > maxLength)
+                    {
+                        return fail(result, maxLengthMessage);
+                    }
+                }
+
+                if (!magicPending && md == null && charCount >= sufficient)
+                {
+                    return true;
+                }
             }
-            
         }
         catch (IOException e)
         {
-            fileData = null;
+            return super.validate((String) null, result);
+        }
+        finally
+        {
+            if (inspection != null)
+            {
+                inspection.setHeader(Arrays.copyOf(header, headerCount));
+            }
+        }
+
+        if (byteCount != size)
+        {
+            return fail(result, "Byte length mismatch found");
+        }
+
+        if (inspection != null)
+        {
+            inspection.setSize(byteCount);
+
+            if (md != null)
+            {
+                inspection.setDigest(digestAlgorithm, md.digest());
+            }
+        }
+
+        return decoder == null || validateLength(charCount, result);
+    }
+
+    /**
+     * Decode the bytes in the input buffer
+     *
+     * @param decoder the decoder
+     * @param in the input buffer in write mode
+     * @param out the output buffer
+     * @param endOfInput true if no more input follows
+     * @return the number of characters decoded
+     */
+    private static long decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out,
+            boolean endOfInput)
+    {
+        long count = 0;
+        CoderResult cr;
+
+        in.flip();
+        do
+        {
+            cr = decoder.decode(in, out, endOfInput);
+            count += out.position();
+            out.clear();
+        }
+        while (cr.isOverflow());
+        in.compact();
+
+        if (endOfInput)
+        {
+            do
+            {
+                cr = decoder.flush(out);
+                count += out.position();
+                out.clear();
+            }
+            while (cr.isOverflow());
+        }
+
+        return count;
+    }
+
+    /**
+     * Check the header of the content against the allowed magic numbers.
+     * Empty content is always accepted.
+     *
+     * @param header the first bytes of the content
+     * @param length the number of valid bytes in the header
+     * @param inspection the sink for the detected content type, may be
+     * <code>null</code>
+     * @return true if the content is empty or starts with one of the
+     * allowed magic numbers
+     */
+    private boolean matchMagic(byte[] header, int length, PartInspection inspection)
+    {
+        if (length == 0)
+        {
+            return true;
+        }
+
+        for (Magic magic : allowedMagic)
+        {
+            if (magic.matches(header, length))
+            {
+                if (inspection != null)
+                {
+                    inspection.setDetectedContentType(magic.contentType);
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Create a message digest for the configured algorithm
+     *
+     * @return the message digest or <code>null</code> if no digest is
+     * configured
+     */
+    private MessageDigest newDigest()
+    {
+        if (digestAlgorithm == null)
+        {
+            return null;
         }
 
-        String content = null;
         try
         {
-        	if ( fileData != null )
-        	{
-        		content = new String(fileData, charset);
-        	}
+            return MessageDigest.getInstance(digestAlgorithm);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // checked when the algorithm was set
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Check the number of characters of the content against the
+     * required and length rules
+     *
+     * @param length the number of characters
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    private boolean validateLength(long length, ValidationResult result)
+    {
+        if (length == 0)
+        {
+            return required ? fail(result, requiredMessage) : true;
+        }
+
+        if (minLength > 0 && length < minLength)
+        {
+            return fail(result, minLengthMessage);
+        }
+        if (maxLength > 0 && length > maxLength)
+        {
+            return fail(result, maxLengthMessage);
+        }
+
+        return true;
+    }
+
+    // ************************************************************
+    // **                Bean accessor methods                   **
+    // ************************************************************
+
+    /**
+     * Get the name of the digest algorithm
+     *
+     * @return the name of the algorithm or <code>null</code>
+     */
+    public String getDigestAlgorithm()
+    {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Set the name of the digest algorithm. The digest of the content is
+     * computed while validating and reported through a PartInspection.
+     *
+     * @param digestAlgorithm the name of a MessageDigest algorithm
+     * @throws InvalidMaskException the algorithm is not available
+     */
+    public void setDigestAlgorithm(String digestAlgorithm)
+            throws InvalidMaskException
+    {
+        checkMutable();
+
+        if (digestAlgorithm != null)
+        {
+            try
+            {
+                MessageDigest.getInstance(digestAlgorithm);
+            }
+            catch (NoSuchAlgorithmException e)
+            {
+                throw new InvalidMaskException("Unknown digest algorithm " + digestAlgorithm, e);
+            }
+        }
+
+        this.digestAlgorithm = digestAlgorithm;
+    }
+
+    /**
+     * Get the allowed magic numbers
+     *
+     * @return the allowed magic numbers as given in the rule
+     */
+    public String getAllowedMagic()
+    {
+        return allowedMagicString;
+    }
+
+    /**
+     * Set the allowed magic numbers. The value is a comma separated list
+     * of hex strings, each optionally preceded by a content type and '='.
+     *
+     * @param allowedMagic the allowed magic numbers or <code>null</code>
+     * to accept any content
+     * @throws InvalidMaskException the value could not be parsed
+     */
+    public void setAllowedMagic(String allowedMagic)
+            throws InvalidMaskException
+    {
+        checkMutable();
+
+        Magic[] magics = null;
+        int maxLength = 0;
+
+        if (allowedMagic != null)
+        {
+            List<Magic> list = new ArrayList<Magic>();
+
+            for (String entry : allowedMagic.split(","))
+            {
+                entry = entry.trim();
+                if (entry.isEmpty())
+                {
+                    continue;
+                }
+
+                int eq = entry.indexOf('=');
+                String type = (eq < 0) ? null : entry.substring(0, eq).trim();
+                String hex = (eq < 0) ? entry : entry.substring(eq + 1).trim();
+
+                try
+                {
+                    byte[] bytes = HexFormat.of().parseHex(hex);
+                    if (bytes.length == 0)
+                    {
+                        throw new IllegalArgumentException("Empty magic number");
+                    }
+
+                    list.add(new Magic(type, bytes));
+                    maxLength = Math.max(maxLength, bytes.length);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    throw new InvalidMaskException("Invalid magic number " + entry, e);
+                }
+            }
+
+            magics = list.toArray(new Magic[list.size()]);
         }
-        catch (UnsupportedEncodingException e)
+
+        this.allowedMagicString = allowedMagic;
+        this.allowedMagic = magics;
+        this.maxMagicLength = maxLength;
+    }
+
+    /**
+     * Get the message of the allowedMagic rule
+     *
+     * @return the message
+     */
+    public String getAllowedMagicMessage()
+    {
+        return allowedMagicMessage;
+    }
+
+    /**
+     * Set the message of the allowedMagic rule
+     *
+     * @param allowedMagicMessage the message
+     */
+    public void setAllowedMagicMessage(String allowedMagicMessage)
+    {
+        checkMutable();
+        this.allowedMagicMessage = allowedMagicMessage;
+    }
+
+    /**
+     * An allowed magic number
+     */
+    private static final class Magic
+    {
+        /** The content type or <code>null</code> */
+        final String contentType;
+
+        /** The leading bytes of the content */
+        final byte[] bytes;
+
+        /**
+         * Constructor
+         *
+         * @param contentType the content type or <code>null</code>
+         * @param bytes the leading bytes of the content
+         */
+        Magic(String contentType, byte[] bytes)
         {
-            throw new ValidationException("Invalid charset " + charset);
+            this.contentType = contentType;
+            this.bytes = bytes;
         }
 
-        super.assertValidity(content);
+        /**
+         * Check whether the content starts with the magic number
+         *
+         * @param header the first bytes of the content
+         * @param length the number of valid bytes in the header
+         * @return true if the header starts with the magic number
+         */
+        boolean matches(byte[] header, int length)
+        {
+            return length >= bytes.length
+                    && Arrays.equals(header, 0, bytes.length, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * The buffers used for reading and decoding the content
+     */
+    private static final class Buffers
+    {
+        /** The byte buffer */
+        final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /** The char buffer */
+        final CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
     }
 }
@@ -63,4 +63,14 @@ public class FloatValidator
         Number number = parseIntoNumber(stringValue, locale);
         return Float.valueOf(number.floatValue());
     }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected Float parseNumberOrNull(String stringValue, Locale locale)
+    {
+        Number number = parseIntoNumberOrNull(stringValue, locale);
+        return (number == null) ? null : Float.valueOf(number.floatValue());
+    }
 }
@@ -0,0 +1,76 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalQuery;
+
+/**
+ * Validates instants on the time line (<code>Instant</code>) with the
+ * constraints listed in TemporalValidator and DefaultValidator.
+ * Without a format rule, values are expected in the ISO format,
+ * e.g. <code>2001-12-23T12:45:00Z</code>.
+ * Patterns of format rules are interpreted in the default time zone.
+ *
+ * @version $Id$
+ */
+public class InstantValidator
+        extends TemporalValidator<Instant>
+{
+    /**
+     * Default Constructor
+     */
+    public InstantValidator()
+    {
+        super();
+        invalidDateMessage = "Entry was not a valid instant";
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.TemporalValidator#getIsoFormatter()
+     */
+    @Override
+    protected DateTimeFormatter getIsoFormatter()
+    {
+        return DateTimeFormatter.ISO_INSTANT;
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.TemporalValidator#getQuery()
+     */
+    @Override
+    protected TemporalQuery<Instant> getQuery()
+    {
+        return Instant::from;
+    }
+
+    /**
+     * Patterns for instants are interpreted in the default time zone.
+     *
+     * @see org.apache.fulcrum.intake.validator.TemporalValidator#compileFormat(java.lang.String)
+     */
+    @Override
+    protected DateTimeFormatter compileFormat(String pattern)
+    {
+        return super.compileFormat(pattern).withZone(ZoneId.systemDefault());
+    }
+}
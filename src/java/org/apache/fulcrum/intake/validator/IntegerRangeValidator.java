@@ -158,37 +158,72 @@ public class IntegerRangeValidator
     }
 
     /**
-     * Determine whether a testValue meets the criteria specified
+     * Determine whether a field meets the criteria specified
      * in the constraints defined for this validator
      *
      * @param testField a <code>Field</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(final Field<Integer> testField)
-        throws ValidationException
+    protected boolean doValidate(final Field<Integer> testField, ValidationResult result)
     {
-        super.assertValidity(testField);
+        if (!super.doValidate(testField, result))
+        {
+            return false;
+        }
 
         Group thisGroup = testField.getGroup();
-        Locale locale = testField.getLocale();
 
+        // the values have already been parsed by the super class
         if (testField.isMultiValued())
         {
-            String[] stringValues = (String[])testField.getTestValue();
+            Object[] values = testField.getParsedValue();
 
-            for (int i = 0; i < stringValues.length; i++)
+            for (int i = 0; i < values.length; i++)
             {
-                assertValidity(stringValues[i], thisGroup, locale);
+                if (!checkReferences((Integer) values[i], thisGroup, result))
+                {
+                    return false;
+                }
             }
+
+            return true;
         }
-        else
+
+        Integer value = testField.getParsedValue();
+
+        return checkReferences(value, thisGroup, result);
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param group the group this field belongs to
+     * @param locale the locale for this field
+     * @param result the sink for the validation outcome
+     *
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(final String testValue, final Group group, final Locale locale,
+            ValidationResult result)
+    {
+        if (required || StringUtils.isNotEmpty(testValue))
         {
-            String testValue = (String)testField.getTestValue();
+            Integer testInt = parseNumberOrNull(testValue, locale);
+
+            if (testInt == null)
+            {
+                return fail(result, invalidNumberMessage);
+            }
 
-            assertValidity(testValue, thisGroup, locale);
+            return checkReferences(testInt, group, result);
         }
+
+        return true;
     }
 
     /**
@@ -205,30 +240,25 @@ public class IntegerRangeValidator
     public void assertValidity(final String testValue, final Group group, final Locale locale)
         throws ValidationException
     {
-        if (required || StringUtils.isNotEmpty(testValue))
-        {
-            Integer testInt;
-
-			try
-			{
-				testInt = parseNumber(testValue, locale);
-			}
-			catch (NumberFormatException e)
-			{
-				errorMessage = invalidNumberMessage;
-				throw new ValidationException(invalidNumberMessage);
-			}
-
-            try
-            {
-                FieldReference.checkReferences(fieldReferences, compareCallback,
-                        testInt, group);
-            }
-            catch (ValidationException e)
-            {
-                errorMessage = e.getMessage();
-                throw e;
-            }
-        }
+        ValidationResult result = new ValidationResult();
+        validate(testValue, group, locale, result);
+        result.assertValid();
+    }
+
+    /**
+     * Compare a parsed value with the referenced fields
+     *
+     * @param testInt the value to compare or <code>null</code> if empty
+     * @param group the group this field belongs to
+     * @param result the sink for the validation outcome
+     *
+     * @return true if the value passed the comparison
+     */
+    private boolean checkReferences(final Integer testInt, final Group group,
+            ValidationResult result)
+    {
+        return testInt == null
+                || FieldReference.checkReferences(fieldReferences, compareCallback,
+                        testInt, group, result);
     }
 }
@@ -61,4 +61,14 @@ public class IntegerValidator
     {
         return Integer.valueOf(stringValue);
     }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected Integer parseNumberOrNull(String stringValue, Locale locale)
+    {
+        Long number = NumberParser.parseInteger(stringValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return (number == null) ? null : Integer.valueOf(number.intValue());
+    }
 }
@@ -0,0 +1,63 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalQuery;
+
+/**
+ * Validates dates with time of day (<code>LocalDateTime</code>) with the
+ * constraints listed in TemporalValidator and DefaultValidator.
+ * Without a format rule, values are expected in the ISO format,
+ * e.g. <code>2001-12-23T13:45:00</code>.
+ *
+ * @version $Id$
+ */
+public class LocalDateTimeValidator
+        extends TemporalValidator<LocalDateTime>
+{
+    /**
+     * Default Constructor
+     */
+    public LocalDateTimeValidator()
+    {
+        super();
+        invalidDateMessage = "Entry was not a valid date and time";
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.TemporalValidator#getIsoFormatter()
+     */
+    @Override
+    protected DateTimeFormatter getIsoFormatter()
+    {
+        return DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.TemporalValidator#getQuery()
+     */
+    @Override
+    protected TemporalQuery<LocalDateTime> getQuery()
+    {
+        return LocalDateTime::from;
+    }
+}
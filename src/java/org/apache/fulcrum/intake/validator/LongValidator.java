@@ -61,4 +61,13 @@ public class LongValidator
     {
         return Long.valueOf(stringValue);
     }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected Long parseNumberOrNull(String stringValue, Locale locale)
+    {
+        return NumberParser.parseInteger(stringValue, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
 }
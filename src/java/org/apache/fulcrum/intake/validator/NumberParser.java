@@ -0,0 +1,350 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parses numbers for a locale like <code>NumberFormat.getInstance(locale)</code>
+ * with a check for complete consumption of the input. Instances are
+ * immutable and cached per locale.
+ *
+ * Plain ASCII numbers (an optional minus sign, digits and an optional
+ * decimal separator followed by digits) are parsed directly if the
+ * number format of the locale uses the simple default syntax. The
+ * result is the same as that of <code>DecimalFormat</code>: a
+ * <code>Long</code> for integral values except negative zero, a
+ * <code>Double</code> otherwise. All other input goes through a copy
+ * of the number format of the locale which is confined to the current
+ * thread and reused for all values parsed by that thread.
+ *
+ * @version $Id$
+ */
+final class NumberParser
+{
+    /** The parsers by locale */
+    private static final ConcurrentMap<Locale, NumberParser> PARSERS =
+            new ConcurrentHashMap<Locale, NumberParser>();
+
+    /** Maximum number of significant digits handled by the fast path */
+    private static final int MAX_DIGITS = 18;
+
+    /** Largest mantissa that is exactly representable as double */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Powers of ten that are exactly representable as double */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+        1e21, 1e22
+    };
+
+    /** The number format of the locale, never used directly */
+    private final NumberFormat prototype;
+
+    /** The copies of the number format, one per thread */
+    private final ThreadLocal<NumberFormat> formats;
+
+    /** May plain ASCII input be parsed directly? */
+    private final boolean simpleSyntax;
+
+    /** The decimal separator of the locale */
+    private final char decimalSeparator;
+
+    /**
+     * Constructor
+     *
+     * @param locale the locale
+     */
+    private NumberParser(Locale locale)
+    {
+        this.prototype = NumberFormat.getInstance(locale);
+        this.formats = ThreadLocal.withInitial(() -> (NumberFormat) prototype.clone());
+
+        boolean simple = false;
+        char separator = '.';
+
+        if (prototype instanceof DecimalFormat df)
+        {
+            DecimalFormatSymbols symbols = df.getDecimalFormatSymbols();
+            separator = symbols.getDecimalSeparator();
+
+            simple = df.getPositivePrefix().isEmpty()
+                    && df.getPositiveSuffix().isEmpty()
+                    && "-".equals(df.getNegativePrefix())
+                    && df.getNegativeSuffix().isEmpty()
+                    && df.getMultiplier() == 1
+                    && !df.isParseBigDecimal()
+                    && !df.isParseIntegerOnly()
+                    && symbols.getZeroDigit() == '0'
+                    && separator != '-'
+                    && (separator < '0' || separator > '9');
+        }
+
+        this.simpleSyntax = simple;
+        this.decimalSeparator = separator;
+    }
+
+    /**
+     * Get the parser for the given locale
+     *
+     * @param locale the locale
+     * @return the shared parser
+     */
+    static NumberParser forLocale(Locale locale)
+    {
+        NumberParser parser = PARSERS.get(locale);
+
+        if (parser == null)
+        {
+            parser = PARSERS.computeIfAbsent(locale, NumberParser::new);
+        }
+
+        return parser;
+    }
+
+    /**
+     * Parse a number. The whole string must be consumed.
+     *
+     * @param stringValue the string value
+     * @return the number or <code>null</code> if the value could not be
+     * parsed
+     */
+    Number parse(String stringValue)
+    {
+        if (stringValue == null)
+        {
+            return null;
+        }
+
+        Number number = simpleSyntax ? parseSimple(stringValue) : null;
+
+        if (number == null)
+        {
+            ParsePosition pos = new ParsePosition(0);
+            number = formats.get().parse(stringValue, pos);
+
+            if (pos.getIndex() != stringValue.length())
+            {
+                return null;
+            }
+        }
+
+        return number;
+    }
+
+    /**
+     * Parse a decimal integer like <code>Long.parseLong()</code>, but
+     * without throwing an exception
+     *
+     * @param s the string value
+     * @param min the smallest allowed value
+     * @param max the largest allowed value
+     * @return the value or <code>null</code> if the string is not an
+     * integer in the given range
+     */
+    static Long parseInteger(String s, long min, long max)
+    {
+        if (s == null || s.isEmpty())
+        {
+            return null;
+        }
+
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+
+        if (first == '-' || first == '+')
+        {
+            if (length == 1)
+            {
+                return null;
+            }
+
+            negative = first == '-';
+            i++;
+        }
+
+        // accumulate negatively, which also covers Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        long result = 0;
+
+        for (; i < length; i++)
+        {
+            int digit = Character.digit(s.charAt(i), 10);
+
+            if (digit < 0 || result < multmin)
+            {
+                return null;
+            }
+
+            result *= 10;
+
+            if (result < limit + digit)
+            {
+                return null;
+            }
+
+            result -= digit;
+        }
+
+        long value = negative ? result : -result;
+
+        if (value < min || value > max)
+        {
+            return null;
+        }
+
+        return Long.valueOf(value);
+    }
+
+    /**
+     * Parse a plain ASCII number
+     *
+     * @param s the string value
+     * @return the number or <code>null</code> if the string is not a
+     * plain number that can be handled here
+     */
+    private Number parseSimple(String s)
+    {
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+
+        if (length > 0 && s.charAt(0) == '-')
+        {
+            negative = true;
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean integral = true;
+        int start = i;
+
+        // integer part
+        for (; i < length; i++)
+        {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+            {
+                break;
+            }
+            if (mantissa != 0 || c != '0')
+            {
+                if (++digits > MAX_DIGITS)
+                {
+                    return null;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            }
+        }
+
+        if (i == start)
+        {
+            return null;
+        }
+
+        // fraction part
+        if (i < length)
+        {
+            if (s.charAt(i) != decimalSeparator)
+            {
+                return null;
+            }
+
+            start = ++i;
+            long intPart = mantissa;
+
+            for (; i < length; i++)
+            {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9')
+                {
+                    return null;
+                }
+                if (c != '0')
+                {
+                    integral = false;
+                }
+                if (mantissa != 0 || c != '0')
+                {
+                    if (++digits > MAX_DIGITS)
+                    {
+                        return null;
+                    }
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                scale++;
+            }
+
+            if (i == start)
+            {
+                return null;
+            }
+
+            if (integral)
+            {
+                mantissa = intPart;
+                scale = 0;
+            }
+        }
+
+        if (mantissa == 0)
+        {
+            // negative zero can only be represented as a double
+            if (negative)
+            {
+                return Double.valueOf(-0.0d);
+            }
+
+            return Long.valueOf(0);
+        }
+
+        if (scale == 0)
+        {
+            return Long.valueOf(negative ? -mantissa : mantissa);
+        }
+
+        double value;
+
+        if (mantissa < MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length)
+        {
+            // both operands are exact, so the quotient is correctly rounded
+            value = mantissa / POWERS_OF_TEN[scale];
+        }
+        else
+        {
+            value = Double.parseDouble(s.substring(negative ? 1 : 0)
+                    .replace(decimalSeparator, '.'));
+        }
+
+        return Double.valueOf(negative ? -value : value);
+    }
+}
@@ -1,9 +1,5 @@
 package org.apache.fulcrum.intake.validator;
 
-import java.text.NumberFormat;
-import java.text.ParseException;
-import java.text.ParsePosition;
-
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
  * or more contributor license agreements.  See the NOTICE file
@@ -136,6 +132,45 @@ public abstract class NumberValidator<T extends Number>
      */
     protected abstract T parseNumber(String stringValue, Locale locale) throws NumberFormatException;
 
+    /**
+     * Parse the actual value out of a string without throwing an
+     * exception. The built-in validators override this method. The
+     * default implementation calls {@link #parseNumber(String, Locale)}
+     * for subclasses which only implement that method.
+     *
+     * @param stringValue the string value
+     * @param locale the locale to use while parsing
+     *
+     * @return the value or <code>null</code> if the value could not be
+     * parsed
+     */
+    protected T parseNumberOrNull(String stringValue, Locale locale)
+    {
+        try
+        {
+            return parseNumber(stringValue, locale);
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Helper method to parse a number object out of a string without
+     * throwing an exception
+     *
+     * @param stringValue the string value
+     * @param locale the locale to use while parsing
+     *
+     * @return the Number or <code>null</code> if the value could not be
+     * parsed
+     */
+    protected Number parseIntoNumberOrNull(String stringValue, Locale locale)
+    {
+        return NumberParser.forLocale(locale).parse(stringValue);
+    }
+
     /**
      * Helper method to parse a number object out of a string
      *
@@ -148,52 +183,76 @@ public abstract class NumberValidator<T extends Number>
      */
     protected Number parseIntoNumber(String stringValue, Locale locale) throws NumberFormatException
     {
-        NumberFormat nf = NumberFormat.getInstance(locale);
+        Number number = parseIntoNumberOrNull(stringValue, locale);
 
-        try
+        if (number == null)
         {
-            ParsePosition pos = new ParsePosition(0);
-            Number number = nf.parse(stringValue, pos);
-
-            if (pos.getIndex() != stringValue.length())
-            {
-                throw new ParseException("Could not parse string completely", pos.getErrorIndex());
-            }
-
-            return number;
-        }
-        catch (ParseException e)
-        {
-            throw new NumberFormatException(e.getMessage());
+            throw new NumberFormatException("Could not parse string completely");
         }
+
+        return number;
     }
 
     /**
      * Determine whether a field meets the criteria specified
-     * in the constraints defined for this validator
+     * in the constraints defined for this validator. The parsed
+     * numbers are handed to the field.
      *
      * @param field a <code>Field</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(Field<T> field) throws ValidationException
+    protected boolean doValidate(Field<T> field, ValidationResult result)
     {
         Locale locale = field.getLocale();
 
         if (field.isMultiValued())
         {
             String[] stringValues = (String[])field.getTestValue();
+            Object[] values = new Object[stringValues.length];
 
             for (int i = 0; i < stringValues.length; i++)
             {
-                assertValidity(stringValues[i], locale);
+                values[i] = parseValidNumber(stringValues[i], locale, result);
+
+                if (!result.isValid())
+                {
+                    return false;
+                }
             }
+
+            field.setParsedValue(values);
         }
         else
         {
-            assertValidity((String)field.getTestValue(), locale);
+            T value = parseValidNumber((String)field.getTestValue(), locale, result);
+
+            if (!result.isValid())
+            {
+                return false;
+            }
+
+            field.setParsedValue(value);
         }
+
+        return true;
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param locale the Locale of the associated field
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(String testValue, Locale locale, ValidationResult result)
+    {
+        parseValidNumber(testValue, locale, result);
+        return result.isValid();
     }
 
     /**
@@ -207,32 +266,49 @@ public abstract class NumberValidator<T extends Number>
      */
     public void assertValidity(String testValue, Locale locale) throws ValidationException
     {
-        super.assertValidity(testValue);
+        ValidationResult result = new ValidationResult();
+        parseValidNumber(testValue, locale, result);
+        result.assertValid();
+    }
 
-        if (required || StringUtils.isNotEmpty(testValue))
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator and return the
+     * parsed number. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param locale the Locale of the associated field
+     * @param result the sink for the validation outcome
+     * @return the number or <code>null</code> if the testValue is empty
+     * or invalid
+     */
+    protected T parseValidNumber(String testValue, Locale locale, ValidationResult result)
+    {
+        if (!super.validate(testValue, result) || StringUtils.isEmpty(testValue))
         {
-            T number = null;
-            try
-            {
-                number = parseNumber(testValue, locale);
-            }
-            catch (NumberFormatException e)
-            {
-                errorMessage = invalidNumberMessage;
-                throw new ValidationException(invalidNumberMessage);
-            }
+            return null;
+        }
 
-            if (minValue != null && number.doubleValue() < minValue.doubleValue())
-            {
-                errorMessage = minValueMessage;
-                throw new ValidationException(minValueMessage);
-            }
-            if (maxValue != null && number.doubleValue() > maxValue.doubleValue())
-            {
-                errorMessage = maxValueMessage;
-                throw new ValidationException(maxValueMessage);
-            }
+        T number = parseNumberOrNull(testValue, locale);
+
+        if (number == null)
+        {
+            fail(result, invalidNumberMessage);
+            return null;
         }
+
+        if (minValue != null && number.doubleValue() < minValue.doubleValue())
+        {
+            fail(result, minValueMessage);
+            return null;
+        }
+        if (maxValue != null && number.doubleValue() > maxValue.doubleValue())
+        {
+            fail(result, maxValueMessage);
+            return null;
+        }
+
+        return number;
     }
 
     // ************************************************************
@@ -256,6 +332,7 @@ public abstract class NumberValidator<T extends Number>
      */
     public void setMinValueMessage(String minValueMessage)
     {
+        checkMutable();
         this.minValueMessage = minValueMessage;
     }
 
@@ -276,6 +353,7 @@ public abstract class NumberValidator<T extends Number>
      */
     public void setMaxValueMessage(String maxValueMessage)
     {
+        checkMutable();
         this.maxValueMessage = maxValueMessage;
     }
 
@@ -296,6 +374,7 @@ public abstract class NumberValidator<T extends Number>
      */
     public void setInvalidNumberMessage(String invalidNumberMessage)
     {
+        checkMutable();
         this.invalidNumberMessage = invalidNumberMessage;
     }
 
@@ -316,6 +395,7 @@ public abstract class NumberValidator<T extends Number>
      */
     public void setMinValue(T minValue)
     {
+        checkMutable();
         this.minValue = minValue;
     }
 
@@ -336,6 +416,7 @@ public abstract class NumberValidator<T extends Number>
      */
     public void setMaxValue(T maxValue)
     {
+        checkMutable();
         this.maxValue = maxValue;
     }
 }
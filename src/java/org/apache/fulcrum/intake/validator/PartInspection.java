@@ -0,0 +1,155 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HexFormat;
+
+/**
+ * Holds what the FileValidator found out about an uploaded part while
+ * validating it, so that the content does not have to be read again.
+ * The digest is only available if the <code>digest</code> rule is
+ * defined and the content has been read completely. The detected
+ * content type is only available if the <code>allowedMagic</code> rule
+ * is defined and the matching entry names a type.
+ *
+ * @version $Id$
+ */
+public final class PartInspection
+{
+    /** Number of bytes read, -1 if the content has not been read completely */
+    private long size = -1;
+
+    /** The first bytes of the content */
+    private byte[] header;
+
+    /** The name of the digest algorithm */
+    private String digestAlgorithm;
+
+    /** The digest of the content */
+    private byte[] digest;
+
+    /** The content type of the matching magic number */
+    private String detectedContentType;
+
+    /**
+     * Get the number of bytes of the content
+     *
+     * @return the number of bytes or -1 if the content has not been read
+     * completely
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Set the number of bytes of the content
+     *
+     * @param size the number of bytes
+     */
+    void setSize(long size)
+    {
+        this.size = size;
+    }
+
+    /**
+     * Get the first bytes of the content
+     *
+     * @return a copy of the first bytes of the content or <code>null</code>
+     * if the content has not been read
+     */
+    public byte[] getHeader()
+    {
+        return (header == null) ? null : header.clone();
+    }
+
+    /**
+     * Set the first bytes of the content
+     *
+     * @param header the first bytes
+     */
+    void setHeader(byte[] header)
+    {
+        this.header = header;
+    }
+
+    /**
+     * Get the name of the digest algorithm
+     *
+     * @return the algorithm or <code>null</code> if no digest was computed
+     */
+    public String getDigestAlgorithm()
+    {
+        return digestAlgorithm;
+    }
+
+    /**
+     * Get the digest of the content
+     *
+     * @return a copy of the digest or <code>null</code> if no digest was
+     * computed
+     */
+    public byte[] getDigest()
+    {
+        return (digest == null) ? null : digest.clone();
+    }
+
+    /**
+     * Get the digest of the content as lower case hex string
+     *
+     * @return the hex string or <code>null</code> if no digest was computed
+     */
+    public String getDigestHex()
+    {
+        return (digest == null) ? null : HexFormat.of().formatHex(digest);
+    }
+
+    /**
+     * Set the digest of the content
+     *
+     * @param algorithm the name of the digest algorithm
+     * @param digest the digest
+     */
+    void setDigest(String algorithm, byte[] digest)
+    {
+        this.digestAlgorithm = algorithm;
+        this.digest = digest;
+    }
+
+    /**
+     * Get the content type derived from the magic number of the content
+     *
+     * @return the content type or <code>null</code> if it is unknown
+     */
+    public String getDetectedContentType()
+    {
+        return detectedContentType;
+    }
+
+    /**
+     * Set the content type derived from the magic number of the content
+     *
+     * @param contentType the content type
+     */
+    void setDetectedContentType(String contentType)
+    {
+        this.detectedContentType = contentType;
+    }
+}
@@ -61,4 +61,14 @@ public class ShortValidator
     {
         return Short.valueOf(stringValue);
     }
+
+    /**
+     * @see org.apache.fulcrum.intake.validator.NumberValidator#parseNumberOrNull(java.lang.String, java.util.Locale)
+     */
+    @Override
+    protected Short parseNumberOrNull(String stringValue, Locale locale)
+    {
+        Long number = NumberParser.parseInteger(stringValue, Short.MIN_VALUE, Short.MAX_VALUE);
+        return (number == null) ? null : Short.valueOf(number.shortValue());
+    }
 }
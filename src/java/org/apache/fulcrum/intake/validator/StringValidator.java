@@ -92,32 +92,39 @@ public class StringValidator
 
     /**
      * Determine whether a testValue meets the criteria specified
-     * in the constraints defined for this validator
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
      *
      * @param testValue a <code>String</code> to be tested
-     * @throws ValidationException containing an error message if the
-     * testValue did not pass the validation tests.
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
      */
     @Override
-	public void assertValidity(String testValue)
-            throws ValidationException
+    public boolean validate(String testValue, ValidationResult result)
     {
-        super.assertValidity(testValue);
+        if (!super.validate(testValue, result))
+        {
+            return false;
+        }
 
-        if ((required || StringUtils.isNotEmpty(testValue)) && maskPattern != null)
+        if (StringUtils.isNotEmpty(testValue) && maskPattern != null)
         {
             /** JDK 1.4 matcher */
             boolean patternMatch = maskPattern.matcher(testValue).matches();
 
-            log.debug("Trying to match " + testValue
-                    + " to pattern " + maskString);
+            if (log.isDebugEnabled())
+            {
+                log.debug("Trying to match " + testValue
+                        + " to pattern " + maskString);
+            }
 
             if (!patternMatch)
             {
-                errorMessage = maskMessage;
-                throw new ValidationException(maskMessage);
+                return fail(result, maskMessage);
             }
         }
+
+        return true;
     }
 
     // ************************************************************
@@ -143,6 +150,7 @@ public class StringValidator
     public void setMask(String mask)
             throws InvalidMaskException
     {
+        checkMutable();
         maskString = mask;
 
         // Fixme. We should make this configureable by the XML file -- hps
@@ -176,6 +184,7 @@ public class StringValidator
      */
     public void setMaskMessage(String message)
     {
+        checkMutable();
         this.maskMessage = message;
     }
 }
@@ -0,0 +1,667 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.ParsePosition;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.Temporal;
+import java.time.temporal.TemporalQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fulcrum.intake.model.Field;
+import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.validator.FieldReference.Comparison;
+
+/**
+ * Validates java.time values with the following constraints in addition
+ * to those listed in DefaultValidator.
+ *
+ * <table>
+ * <caption>Validation rules</caption>
+ * <tr><th>Name</th><th>Valid Values</th><th>Default Value</th></tr>
+ * <tr><td>format</td><td>see DateTimeFormatter javadoc</td>
+ * <td>ISO format of the type</td></tr>
+ * <tr><td>formatx</td><td>see DateTimeFormatter javadoc</td>
+ * <td>&nbsp;</td></tr>
+ * <tr><td colspan=3>where x is &gt;= 1 to specify multiple formats.
+ *         Only one format rule should have a message</td></tr>
+ * <tr><td>flexible</td><td>true, to roll over out of range values, and false</td>
+ * <td>false</td></tr>
+ * <tr><td>minValue</td><td>ISO format of the type</td>
+ * <td>&nbsp;</td></tr>
+ * <tr><td>maxValue</td><td>ISO format of the type</td>
+ * <td>&nbsp;</td></tr>
+ * <tr><td>less-than, greater-than, less-than-or-equal, greater-than-or-equal</td>
+ * <td>&lt;name of other field&gt;</td>
+ * <td>&nbsp;</td></tr>
+ * </table>
+ *
+ * The formats are compiled once when the validator is initialized.
+ *
+ * @param <T> the java.time type
+ *
+ * @version $Id$
+ */
+public abstract class TemporalValidator<T extends Temporal & Comparable<? super T>>
+        extends DefaultValidator<T>
+{
+    /** The message to show if field fails min-value test */
+    String minValueMessage = null;
+
+    /** The message to show if field fails max-value test */
+    String maxValueMessage = null;
+
+    /** The message to use if the value could not be parsed */
+    String invalidDateMessage = null;
+
+    /** The minimum value */
+    private T minValue = null;
+
+    /** The maximum value */
+    private T maxValue = null;
+
+    /** The patterns of the formats */
+    private List<String> formats = null;
+
+    /** Roll over out of range values? */
+    private boolean flexible = false;
+
+    /** The compiled formatters in the order they are tried */
+    private List<DateTimeFormatter> formatters = null;
+
+    /** List of FieldReferences for multiple comparisons */
+    private List<FieldReference> fieldReferences = null;
+
+    /** Callback for the actual compare operation */
+    private final CompareCallback<T> compareCallback = (compare, thisValue, refValue) ->
+    {
+        int result = thisValue.compareTo(refValue);
+
+        switch (compare)
+        {
+            case LT:
+                return result < 0;
+
+            case LTE:
+                return result <= 0;
+
+            case GT:
+                return result > 0;
+
+            case GTE:
+                return result >= 0;
+
+            default:
+                return true;
+        }
+    };
+
+    /**
+     * Default Constructor
+     */
+    public TemporalValidator()
+    {
+        super();
+        formats = new ArrayList<String>(5);
+        fieldReferences = new ArrayList<FieldReference>(5);
+    }
+
+    /**
+     * Extract the relevant parameters from the constraints listed
+     * in &lt;rule&gt; tags within the intake.xml file.
+     *
+     * @param paramMap a <code>Map</code> of <code>rule</code>'s
+     * containing constraints on the input.
+     * @throws InvalidMaskException an invalid format or value was specified
+     */
+    @Override
+    public void init(Map<String, ? extends Constraint> paramMap)
+            throws InvalidMaskException
+    {
+        super.init(paramMap);
+
+        Constraint constraint = paramMap.get(FORMAT_RULE_NAME);
+
+        if (constraint != null)
+        {
+            formats.add(constraint.getValue());
+            setInvalidDateMessage(constraint.getMessage());
+        }
+
+        for (int i = 1 ;; i++)
+        {
+            constraint = paramMap.get(FORMAT_RULE_NAME + i);
+
+            if (constraint == null)
+            {
+                break; // for
+            }
+
+            formats.add(constraint.getValue());
+            setInvalidDateMessage(constraint.getMessage());
+        }
+
+        constraint = paramMap.get(FLEXIBLE_RULE_NAME);
+
+        if (constraint != null)
+        {
+            flexible = Boolean.valueOf(constraint.getValue()).booleanValue();
+        }
+
+        try
+        {
+            compileFormats();
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new InvalidMaskException("Could not compile formats " + formats, e);
+        }
+
+        constraint = paramMap.get(MIN_VALUE_RULE_NAME);
+
+        if (constraint != null)
+        {
+            minValue = parseIsoValue(constraint.getValue());
+            minValueMessage = constraint.getMessage();
+        }
+
+        constraint = paramMap.get(MAX_VALUE_RULE_NAME);
+
+        if (constraint != null)
+        {
+            maxValue = parseIsoValue(constraint.getValue());
+            maxValueMessage = constraint.getMessage();
+        }
+
+        for (Map.Entry<String, ? extends Constraint> entry : paramMap.entrySet())
+        {
+            Comparison compare = FieldReference.getComparisonType(entry.getKey());
+
+            if (compare != null)
+            {
+                FieldReference fieldref = new FieldReference();
+                fieldref.setComparison(compare);
+                fieldref.setFieldName(entry.getValue().getValue());
+                fieldref.setMessage(entry.getValue().getMessage());
+
+                fieldReferences.add(fieldref);
+            }
+        }
+    }
+
+    /**
+     * Get the formatter for the ISO representation of the type
+     *
+     * @return the formatter
+     */
+    protected abstract DateTimeFormatter getIsoFormatter();
+
+    /**
+     * Get the query which extracts the value from a parsed temporal
+     *
+     * @return the query, e.g. <code>LocalDate::from</code>
+     */
+    protected abstract TemporalQuery<T> getQuery();
+
+    /**
+     * Compile a formatter from a pattern given in a format rule
+     *
+     * @param pattern the pattern
+     * @return the formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    protected DateTimeFormatter compileFormat(String pattern)
+    {
+        // the era is needed to resolve years of era strictly
+        return new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .appendPattern(pattern)
+                .parseDefaulting(ChronoField.ERA, 1)
+                .toFormatter(Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Compile the formats. The formats provided by the "formatx" rules
+     * come first, then the "format" rule, then the ISO format.
+     */
+    private void compileFormats()
+    {
+        ResolverStyle style = flexible ? ResolverStyle.LENIENT : ResolverStyle.STRICT;
+        List<DateTimeFormatter> list = new ArrayList<DateTimeFormatter>(formats.size() + 1);
+
+        for (int i = 1; i < formats.size(); i++)
+        {
+            list.add(compileFormat(formats.get(i)).withResolverStyle(style));
+        }
+
+        if (!formats.isEmpty())
+        {
+            list.add(compileFormat(formats.get(0)).withResolverStyle(style));
+        }
+
+        list.add(getIsoFormatter().withResolverStyle(style));
+
+        formatters = list;
+    }
+
+    /**
+     * Get the compiled formatters, compile them if the validator
+     * has not been initialized
+     *
+     * @return the formatters in the order they are tried
+     */
+    private List<DateTimeFormatter> getFormatters()
+    {
+        if (formatters == null)
+        {
+            compileFormats();
+        }
+
+        return formatters;
+    }
+
+    /**
+     * Parse a value from a rule in the ISO format
+     *
+     * @param value the value of the rule
+     * @return the parsed value
+     * @throws InvalidMaskException if the value could not be parsed
+     */
+    private T parseIsoValue(String value) throws InvalidMaskException
+    {
+        T parsed = parseValue(value, getIsoFormatter(), null);
+
+        if (parsed == null)
+        {
+            throw new InvalidMaskException("Could not parse value " + value);
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Parse a complete string with the given formatter
+     *
+     * @param s the string
+     * @param formatter the formatter
+     * @param locale the locale to use or <code>null</code> for the
+     * locale of the formatter
+     * @return the value or <code>null</code> if the string could not be parsed
+     */
+    private T parseValue(String s, DateTimeFormatter formatter, Locale locale)
+    {
+        DateTimeFormatter localized = locale == null ? formatter : formatter.withLocale(locale);
+        ParsePosition pos = new ParsePosition(0);
+
+        @SuppressWarnings("unchecked")
+        T value = (T) localized.toFormat(getQuery()).parseObject(s, pos);
+
+        return pos.getIndex() == s.length() ? value : null;
+    }
+
+    /**
+     * Parses the String s according to the formats of this validator.
+     * The formats provided by the "formatx" rules (where x is &gt;= 1) are
+     * used <strong>before</strong> the "format" rule, the ISO format is
+     * tried last.
+     *
+     * @param s possibly a date string
+     * @param locale the locale of the field
+     * @return the value or <code>null</code> if the string could not be parsed
+     */
+    public T parse(String s, Locale locale)
+    {
+        if (s == null)
+        {
+            return null;
+        }
+
+        for (DateTimeFormatter formatter : getFormatters())
+        {
+            T value = parseValue(s, formatter, locale);
+
+            if (value != null)
+            {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Formats a value into a String. The format used is from
+     * the first format rule found for the field or the ISO format.
+     *
+     * @param value the value to convert into a string.
+     * @param locale the locale of the field
+     * @return formatted value
+     */
+    public String format(T value, Locale locale)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        List<DateTimeFormatter> list = getFormatters();
+        DateTimeFormatter formatter = list.get(list.size() - (formats.isEmpty() ? 1 : 2));
+
+        return (locale == null ? formatter : formatter.withLocale(locale)).format(value);
+    }
+
+    /**
+     * Determine whether a field meets the criteria specified
+     * in the constraints defined for this validator. The parsed
+     * values are handed to the field.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    protected boolean doValidate(Field<T> field, ValidationResult result)
+    {
+        Locale locale = field.getLocale();
+        Group group = field.getGroup();
+
+        if (field.isMultiValued())
+        {
+            String[] stringValues = (String[])field.getTestValue();
+            Object[] values = new Object[stringValues.length];
+
+            for (int i = 0; i < stringValues.length; i++)
+            {
+                values[i] = parseValidValue(stringValues[i], group, locale, result);
+
+                if (!result.isValid())
+                {
+                    return false;
+                }
+            }
+
+            field.setParsedValue(values);
+        }
+        else
+        {
+            T value = parseValidValue((String)field.getTestValue(), group, locale, result);
+
+            if (!result.isValid())
+            {
+                return false;
+            }
+
+            field.setParsedValue(value);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. Comparisons with other fields are skipped.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    @Override
+    public boolean validate(String testValue, ValidationResult result)
+    {
+        parseValidValue(testValue, null, null, result);
+        return result.isValid();
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param group the group this field belongs to
+     * @param locale the Locale of the associated field
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    public boolean validate(String testValue, Group group, Locale locale, ValidationResult result)
+    {
+        parseValidValue(testValue, group, locale, result);
+        return result.isValid();
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator and return the
+     * parsed value. A failure is recorded in the given result.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param group the group this field belongs to or <code>null</code>
+     * to skip the comparisons with other fields
+     * @param locale the Locale of the associated field or <code>null</code>
+     * for the default locale
+     * @param result the sink for the validation outcome
+     * @return the value or <code>null</code> if the testValue is empty
+     * or invalid
+     */
+    protected T parseValidValue(String testValue, Group group, Locale locale,
+            ValidationResult result)
+    {
+        if (!super.validate(testValue, result) || StringUtils.isEmpty(testValue))
+        {
+            return null;
+        }
+
+        T value = parse(testValue, locale);
+
+        if (value == null)
+        {
+            fail(result, invalidDateMessage);
+            return null;
+        }
+
+        if (minValue != null && value.compareTo(minValue) < 0)
+        {
+            fail(result, minValueMessage);
+            return null;
+        }
+
+        if (maxValue != null && value.compareTo(maxValue) > 0)
+        {
+            fail(result, maxValueMessage);
+            return null;
+        }
+
+        if (group != null && !fieldReferences.isEmpty()
+                && !FieldReference.checkReferences(fieldReferences, compareCallback,
+                        value, group, result))
+        {
+            return null;
+        }
+
+        return value;
+    }
+
+    // ************************************************************
+    // **                Bean accessor methods                   **
+    // ************************************************************
+
+    /**
+     * Get the value of invalidDateMessage.
+     *
+     * @return value of invalidDateMessage.
+     */
+    public String getInvalidDateMessage()
+    {
+        return invalidDateMessage;
+    }
+
+    /**
+     * Only sets the message if the new message has some information.
+     * So the last setMessage call with valid data wins.  But later calls
+     * with null or empty string will not affect a previous valid setting.
+     *
+     * @param message  Value to assign to invalidDateMessage.
+     */
+    public void setInvalidDateMessage(String message)
+    {
+        checkMutable();
+        if (StringUtils.isNotEmpty(message))
+        {
+            invalidDateMessage = message;
+        }
+    }
+
+    /**
+     * Get the value of minValueMessage.
+     *
+     * @return value of minValueMessage.
+     */
+    public String getMinValueMessage()
+    {
+        return minValueMessage;
+    }
+
+    /**
+     * Set the value of minValueMessage.
+     *
+     * @param minValueMessage  Value to assign to minValueMessage.
+     */
+    public void setMinValueMessage(String minValueMessage)
+    {
+        checkMutable();
+        this.minValueMessage = minValueMessage;
+    }
+
+    /**
+     * Get the value of maxValueMessage.
+     *
+     * @return value of maxValueMessage.
+     */
+    public String getMaxValueMessage()
+    {
+        return maxValueMessage;
+    }
+
+    /**
+     * Set the value of maxValueMessage.
+     *
+     * @param maxValueMessage  Value to assign to maxValueMessage.
+     */
+    public void setMaxValueMessage(String maxValueMessage)
+    {
+        checkMutable();
+        this.maxValueMessage = maxValueMessage;
+    }
+
+    /**
+     * Get the value of minValue.
+     *
+     * @return value of minValue.
+     */
+    public T getMinValue()
+    {
+        return minValue;
+    }
+
+    /**
+     * Set the value of minValue.
+     *
+     * @param minValue  Value to assign to minValue.
+     */
+    public void setMinValue(T minValue)
+    {
+        checkMutable();
+        this.minValue = minValue;
+    }
+
+    /**
+     * Get the value of maxValue.
+     *
+     * @return value of maxValue.
+     */
+    public T getMaxValue()
+    {
+        return maxValue;
+    }
+
+    /**
+     * Set the value of maxValue.
+     *
+     * @param maxValue  Value to assign to maxValue.
+     */
+    public void setMaxValue(T maxValue)
+    {
+        checkMutable();
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Get the patterns of the formats.
+     *
+     * @return the patterns, unmodifiable.
+     */
+    public List<String> getFormats()
+    {
+        return Collections.unmodifiableList(formats);
+    }
+
+    /**
+     * Set the patterns of the formats.
+     *
+     * @param formats  the patterns to use.
+     */
+    public void setFormats(List<String> formats)
+    {
+        checkMutable();
+        this.formats = new ArrayList<String>(formats);
+        compileFormats();
+    }
+
+    /**
+     * Get the value of flexible.
+     *
+     * @return value of flexible.
+     */
+    public boolean isFlexible()
+    {
+        return flexible;
+    }
+
+    /**
+     * Set the value of flexible.
+     *
+     * @param flexible  Value to assign to flexible.
+     */
+    public void setFlexible(boolean flexible)
+    {
+        checkMutable();
+        this.flexible = flexible;
+        compileFormats();
+    }
+}
@@ -0,0 +1,109 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Collects the outcome of a validation without throwing an exception.
+ * A result starts out valid and records the first failure reported to
+ * it. Once failed, it stays failed until it is reset, so a single
+ * instance can be passed through a chain of checks and reused for the
+ * next value.
+ *
+ * @version $Id$
+ */
+public final class ValidationResult
+{
+    /** Did all checks pass so far? */
+    private boolean valid = true;
+
+    /** Error message of the first failed check */
+    private String message = null;
+
+    /**
+     * Default constructor
+     */
+    public ValidationResult()
+    {
+        //
+    }
+
+    /**
+     * Did all checks reported to this result pass?
+     *
+     * @return true if no failure has been recorded
+     */
+    public boolean isValid()
+    {
+        return valid;
+    }
+
+    /**
+     * Get the error message of the first failed check.
+     *
+     * @return the message or <code>null</code> if the result is valid
+     */
+    public String getMessage()
+    {
+        return message;
+    }
+
+    /**
+     * Record a failed check. Only the first failure is kept.
+     *
+     * @param message the error message of the failed check
+     * @return always <code>false</code>, for convenient use in
+     * return statements
+     */
+    public boolean fail(String message)
+    {
+        if (valid)
+        {
+            this.valid = false;
+            this.message = message;
+        }
+
+        return false;
+    }
+
+    /**
+     * Clear the result so that it can be reused.
+     */
+    public void reset()
+    {
+        valid = true;
+        message = null;
+    }
+
+    /**
+     * Convert a failed result into an exception. This is the bridge
+     * to the throwing methods of the validators.
+     *
+     * @throws ValidationException containing the error message if
+     * a failure has been recorded
+     */
+    public void assertValid()
+            throws ValidationException
+    {
+        if (!valid)
+        {
+            throw new ValidationException(message);
+        }
+    }
+}
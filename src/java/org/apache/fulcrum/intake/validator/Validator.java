@@ -29,6 +29,12 @@ import org.apache.fulcrum.intake.model.Field;
  */
 public interface Validator<T>
 {
+    /** "allowedMagic" Rule, used in FileValidator */
+    String ALLOWED_MAGIC_RULE_NAME = "allowedMagic";
+
+    /** "digest" Rule, used in FileValidator */
+    String DIGEST_RULE_NAME = "digest";
+
     /** "flexible" Rule, used in DateFormat Validator */
     String FLEXIBLE_RULE_NAME = "flexible";
 
@@ -76,6 +82,54 @@ public interface Validator<T>
     void assertValidity(Field<T> field)
             throws ValidationException;
 
+    /**
+     * Determine whether a field meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * The default implementation adapts {@link #assertValidity(Field)}.
+     *
+     * @param field a <code>Field</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    default boolean validate(Field<T> field, ValidationResult result)
+    {
+        try
+        {
+            assertValidity(field);
+            return true;
+        }
+        catch (ValidationException ve)
+        {
+            return result.fail(ve.getMessage());
+        }
+    }
+
+    /**
+     * Determine whether a testValue meets the criteria specified
+     * in the constraints defined for this validator without throwing
+     * an exception. A failure is recorded in the given result.
+     *
+     * The default implementation adapts {@link #assertValidity(String)}.
+     *
+     * @param testValue a <code>String</code> to be tested
+     * @param result the sink for the validation outcome
+     * @return true if valid, false otherwise
+     */
+    default boolean validate(String testValue, ValidationResult result)
+    {
+        try
+        {
+            assertValidity(testValue);
+            return true;
+        }
+        catch (ValidationException ve)
+        {
+            return result.fail(ve.getMessage());
+        }
+    }
+
     /**
      * Determine whether a testValue meets the criteria specified
      * in the constraints defined for this validator
@@ -103,6 +157,11 @@ public interface Validator<T>
      * Get the last error message resulting from invalid input.
      *
      * @return a <code>String</code> message, or the empty String "".
+     *
+     * @deprecated validators may be shared between fields and threads, so
+     * the message of a failed validation is only reported through the
+     * {@link ValidationResult} or the {@link ValidationException}
      */
+    @Deprecated
     String getMessage();
 }
@@ -0,0 +1,177 @@
+package org.apache.fulcrum.intake.validator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avalon.framework.logger.LogEnabled;
+import org.apache.avalon.framework.logger.Logger;
+import org.apache.fulcrum.intake.IntakeError;
+import org.apache.fulcrum.intake.IntakeException;
+
+/**
+ * Creates validators and keeps one instance for each combination
+ * of validator class and rule set, so that all fields with the
+ * same rules share it. Only validators which declare themselves
+ * shareable through {@link DefaultValidator#isShareable()} are kept.
+ * All other validators are created anew for every request.
+ *
+ * @version $Id$
+ */
+public final class ValidatorCache
+{
+    /** The shared validators keyed by class name and rules */
+    private final ConcurrentMap<String, Validator<?>> validators =
+            new ConcurrentHashMap<String, Validator<?>>();
+
+    /**
+     * Get a validator of the given class initialized with the given rules.
+     *
+     * @param <T> the field type
+     * @param validatorClassName the fully qualified class name of the validator
+     * @param rules the rules of the field keyed by rule name
+     * @param logger the logger to pass to the validator
+     * @return a shared validator if possible, a new one otherwise
+     * @throws IntakeException if the validator could not be created
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Validator<T> getValidator(String validatorClassName,
+            Map<String, ? extends Constraint> rules, Logger logger)
+            throws IntakeException
+    {
+        String key = createKey(validatorClassName, rules);
+        Validator<?> v = validators.get(key);
+
+        if (v == null)
+        {
+            v = createValidator(validatorClassName, rules, logger);
+
+            if (v instanceof DefaultValidator<?> dv && dv.isShareable())
+            {
+                dv.setShared();
+
+                Validator<?> existing = validators.putIfAbsent(key, v);
+                if (existing != null)
+                {
+                    v = existing;
+                }
+            }
+        }
+
+        return (Validator<T>) v;
+    }
+
+    /**
+     * Get the number of shared validators
+     *
+     * @return the number of validators in the cache
+     */
+    public int size()
+    {
+        return validators.size();
+    }
+
+    /**
+     * Create and initialize a new validator
+     *
+     * @param <T> the field type
+     * @param validatorClassName the fully qualified class name of the validator
+     * @param rules the rules of the field keyed by rule name
+     * @param logger the logger to pass to the validator
+     * @return the validator
+     * @throws IntakeException if the validator could not be created
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Validator<T> createValidator(String validatorClassName,
+            Map<String, ? extends Constraint> rules, Logger logger)
+            throws IntakeException
+    {
+        Validator<T> v;
+
+        try
+        {
+            v = (Validator<T>)
+                    Class.forName(validatorClassName).getDeclaredConstructor().newInstance();
+        }
+        catch (InstantiationException | IllegalAccessException | IllegalArgumentException |
+                InvocationTargetException | NoSuchMethodException e)
+        {
+            throw new IntakeException(
+                    "Could not create new instance of Validator("
+                    + validatorClassName + ")", e);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IntakeException(
+                    "Could not load Validator class("
+                    + validatorClassName + ")", e);
+        }
+
+        if (v instanceof LogEnabled logEnabled)
+        {
+        	logEnabled.enableLogging(logger);
+        }
+
+        // this should always be true for now
+        // (until bean property initialization is implemented)
+        if (v instanceof InitableByConstraintMap initable)
+        {
+            initable.init(rules);
+        }
+        else
+        {
+            throw new IntakeError(
+                    "All Validation objects must be subclasses of "
+                    + "InitableByConstraintMap");
+        }
+
+        return v;
+    }
+
+    /**
+     * Build the cache key from the class name and the rules in a
+     * canonical order
+     *
+     * @param validatorClassName the fully qualified class name of the validator
+     * @param rules the rules of the field keyed by rule name
+     * @return the key
+     */
+    private static String createKey(String validatorClassName,
+            Map<String, ? extends Constraint> rules)
+    {
+        StringBuilder key = new StringBuilder(validatorClassName);
+
+        for (Map.Entry<String, ? extends Constraint> entry :
+            new TreeMap<String, Constraint>(rules).entrySet())
+        {
+            Constraint constraint = entry.getValue();
+
+            key.append('\u0000').append(entry.getKey())
+                .append('\u0001').append(constraint.getValue())
+                .append('\u0001').append(constraint.getMessage());
+        }
+
+        return key.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package org.apache.fulcrum.intake;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.apache.fulcrum.intake.model.Field;
+import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.parser.DefaultParameterParser;
+import org.apache.fulcrum.parser.ParserService;
+import org.apache.fulcrum.parser.ValueParser;
+import org.apache.fulcrum.testcontainer.BaseUnit5Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the Intake service with pooling disabled
+ *
+ * @version $Id$
+ */
+public class IntakeFlyweightTest extends BaseUnit5Test
+{
+    private IntakeService intakeService = null;
+
+    /**
+     * @throws Exception generic exception
+     */
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        setConfigurationFileName("src/test/TestFlyweightComponentConfig.xml");
+        try
+        {
+            intakeService = (IntakeService) this.lookup( IntakeService.class.getName() );
+        }
+        catch (Throwable e)
+        {
+            fail(e.getMessage());
+        }
+        assertNotNull(intakeService);
+    }
+
+    /**
+     * Groups are created per request and never pooled
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testGroupsAreNotPooled() throws Exception
+    {
+        Group group1 = intakeService.getGroup("LoginGroup");
+        Group group2 = intakeService.getGroup("LoginGroup");
+        assertNotSame(group1, group2, "Groups should be different instances");
+        assertEquals("loginGroupKey", group1.getGID());
+
+        Field<?> field1 = group1.get("Username");
+        Field<?> field2 = group2.get("Username");
+        assertNotSame(field1, field2, "Groups should not share fields");
+        assertSame(field1.getDefinition(), field2.getDefinition(),
+                "Groups should share the field definitions");
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+        pp.setString("loginGroupKey_0loginUsernameKey", "Joe");
+        group1.init(pp);
+
+        assertTrue(field1.isSet(), "The field should be set");
+        assertEquals("Joe", field1.getValue());
+        assertFalse(field2.isSet(), "The field of the other instance should not be set");
+
+        intakeService.releaseGroup(group1);
+        intakeService.releaseGroup(group2);
+        assertEquals(0, intakeService.getSize("LoginGroup"));
+
+        // releasing does not touch the instance
+        assertTrue(field1.isSet(), "The released field should be unchanged");
+    }
+}
@@ -20,13 +20,57 @@ package org.apache.fulcrum.intake;
  */
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import java.beans.PropertyDescriptor;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.apache.avalon.framework.configuration.DefaultConfiguration;
+import org.apache.avalon.framework.context.DefaultContext;
+import org.apache.avalon.framework.logger.LogEnabled;
+import org.apache.avalon.framework.logger.NullLogger;
+import org.apache.fulcrum.intake.generator.NativeImageMetadataGenerator;
+import org.apache.fulcrum.intake.model.AppData;
+import org.apache.fulcrum.intake.model.DefinitionSnapshot;
+import org.apache.fulcrum.intake.model.Field;
 import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.model.StaxDefinitionLoader;
+import org.apache.fulcrum.intake.test.CountingValidator;
+import org.apache.fulcrum.intake.validator.StringValidator;
+import org.apache.fulcrum.intake.validator.Validator;
+import org.apache.fulcrum.parser.DefaultParameterParser;
+import org.apache.fulcrum.parser.ParserService;
+import org.apache.fulcrum.parser.ValueParser;
 import org.apache.fulcrum.testcontainer.BaseUnit5Test;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -34,6 +78,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.Unmarshaller;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 
 /**
  * Test for Intake service
@@ -97,4 +147,847 @@ public class IntakeServiceTest extends BaseUnit5Test
         assertEquals("AnotherGroup", group2.getIntakeGroupName());
     }
 
+    /**
+     * Instances of the same group must not share their field state
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testIndependentGroupInstances() throws Exception
+    {
+        Group group1 = intakeService.getGroup("LoginGroup");
+        Group group2 = intakeService.getGroup("LoginGroup");
+        assertNotSame(group1, group2, "Borrowed groups should be different instances");
+
+        Field<?> field1 = group1.get("Username");
+        Field<?> field2 = group2.get("Username");
+        assertNotSame(field1, field2, "Borrowed groups should not share fields");
+        assertSame(group1, field1.getGroup());
+        assertSame(group2, field2.getGroup());
+        assertSame(field1.getDefinition(), field2.getDefinition(),
+                "Borrowed groups should share the field definitions");
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+        pp.setString("loginGroupKey_0loginUsernameKey", "Joe");
+        group1.init(pp);
+
+        assertTrue(field1.isSet(), "The field should be set");
+        assertEquals("Joe", field1.getValue());
+        assertFalse(field2.isSet(), "The field of the other instance should not be set");
+        assertEquals(null, field2.getValue());
+
+        intakeService.releaseGroup(group1);
+        intakeService.releaseGroup(group2);
+        assertEquals(2, intakeService.getSize("LoginGroup"));
+    }
+
+    /**
+     * Fields with the same validator class and rules share one validator
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testSharedValidators() throws Exception
+    {
+        Group group1 = intakeService.getGroup("LoginGroup");
+        Group group2 = intakeService.getGroup("LoginGroup");
+        Group group3 = intakeService.getGroup("LoginIfcGroup");
+
+        Validator<?> validator = group1.get("Username").getValidator();
+        assertNotNull(validator);
+        assertSame(validator, group2.get("Username").getValidator(),
+                "Instances of a group should share the validator");
+        assertSame(validator, group3.get("Username").getValidator(),
+                "Fields with the same rules should share the validator");
+
+        StringValidator sv = (StringValidator) validator;
+        assertTrue(sv.isShared());
+        assertThrows(IllegalStateException.class, () -> sv.setMinLength(3),
+                "A shared validator must not be changed");
+        assertThrows(IllegalStateException.class, () -> sv.init(Collections.emptyMap()),
+                "A shared validator must not be initialized again");
+
+        Group group4 = intakeService.getGroup("BooleanTest");
+        assertNotSame(group4.get("BooleanTestField").getValidator(),
+                group4.get("RequiredBooleanTestField").getValidator(),
+                "Fields with different rules should not share the validator");
+
+        intakeService.releaseGroup(group1);
+        intakeService.releaseGroup(group2);
+        intakeService.releaseGroup(group3);
+        intakeService.releaseGroup(group4);
+    }
+
+    /**
+     * Groups are found by unqualified and qualified name
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testGroupIndex() throws Exception
+    {
+        Group group = intakeService.getGroup("LoginGroup");
+        AppData appData = group.getAppData();
+        Group prototype = appData.getGroup("LoginGroup");
+
+        assertNotNull(prototype);
+        assertSame(prototype, appData.getGroup("LoginGroup"));
+        assertEquals("LoginIfcGroup", appData.getGroup("LoginIfcGroup").getIntakeGroupName());
+        assertNull(appData.getGroup("NoSuchGroup"));
+
+        AppData prefixed = new AppData();
+        prefixed.setGroupPrefix("test");
+        prefixed.setGroups(appData.getGroups());
+
+        assertSame(prototype, prefixed.getGroup("LoginGroup"));
+        assertSame(prototype, prefixed.getGroup("test:LoginGroup"));
+        assertNull(prefixed.getGroup("other:LoginGroup"));
+
+        intakeService.releaseGroup(group);
+    }
+
+    /**
+     * The service writes a snapshot of the definitions which is only
+     * read back for the same XML content
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testDefinitionSnapshot() throws Exception
+    {
+        File snapshot = new File( BASEDIR, "target/appData.ser");
+        assertTrue(snapshot.exists());
+
+        List<File> xmlFiles = new ArrayList<File>();
+        xmlFiles.add(new File( BASEDIR, "src/test/intake1.xml"));
+        xmlFiles.add(new File( BASEDIR, "src/test/intake2.xml"));
+        byte[] hash = DefinitionSnapshot.computeHash(xmlFiles);
+
+        Map<AppData, File> loaded = DefinitionSnapshot.load(snapshot, hash, new NullLogger());
+        assertNotNull(loaded);
+        assertEquals(2, loaded.size());
+
+        Group original = intakeService.getGroup("ValidationTest");
+        Group restored = null;
+        for (AppData appData : loaded.keySet())
+        {
+            if (appData.getGroup("ValidationTest") != null)
+            {
+                restored = appData.getGroup("ValidationTest");
+            }
+        }
+        assertNotNull(restored);
+        assertEquals(original.getGID(), restored.getGID());
+        assertEquals(List.of(original.getFieldNames()), List.of(restored.getFieldNames()));
+
+        for (String name : original.getFieldNames())
+        {
+            Field<?> field = original.get(name);
+            Field<?> restoredField = restored.get(name);
+            assertEquals(field.getClass(), restoredField.getClass());
+            assertEquals(field.getKey(), restoredField.getKey());
+            assertEquals(field.getMapToObject(), restoredField.getMapToObject());
+            assertEquals(field.getDefinition().getRuleMap().keySet(),
+                    restoredField.getDefinition().getRuleMap().keySet());
+        }
+        intakeService.releaseGroup(original);
+
+        // different XML content
+        byte[] otherHash = hash.clone();
+        otherHash[0]++;
+        assertNull(DefinitionSnapshot.load(snapshot, otherHash, new NullLogger()));
+
+        // the order of the files decides which redefinition wins
+        List<File> reversed = new ArrayList<File>(xmlFiles);
+        Collections.reverse(reversed);
+        assertNull(DefinitionSnapshot.load(snapshot, DefinitionSnapshot.computeHash(reversed),
+                new NullLogger()), "A different file order should not use the snapshot");
+
+        // same content in another location
+        File moved = new File( BASEDIR, "target/intake1-moved.xml");
+        Files.copy(xmlFiles.get(0).toPath(), moved.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        List<File> movedFiles = List.of(moved, xmlFiles.get(1));
+        assertNull(DefinitionSnapshot.load(snapshot, DefinitionSnapshot.computeHash(movedFiles),
+                new NullLogger()), "Moved files should not use the snapshot");
+        moved.delete();
+
+        // corrupt content
+        File corrupt = new File( BASEDIR, "target/appData-corrupt.ser");
+        byte[] content = Files.readAllBytes(snapshot.toPath());
+        content[content.length - 1]++;
+        Files.write(corrupt.toPath(), content);
+        assertThrows(IOException.class,
+                () -> DefinitionSnapshot.load(corrupt, hash, new NullLogger()));
+        corrupt.delete();
+    }
+
+    /**
+     * Many definition files are parsed concurrently, but the groups are
+     * registered in the configured order of the files
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testParallelParsing() throws Exception
+    {
+        File dir = new File( BASEDIR, "target/parallel");
+        dir.mkdirs();
+
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        for (int i = 0; i < 20; i++)
+        {
+            File xmlFile = new File(dir, "intake" + i + ".xml");
+            Files.writeString(xmlFile.toPath(),
+                    "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\""
+                    + " groupPrefix=\"p" + i + "\">"
+                    + "<group name=\"Shared\" key=\"shared" + i + "\">"
+                    + "<field name=\"Name\" key=\"n\" type=\"String\"/></group>"
+                    + "<group name=\"Unique" + i + "\" key=\"u" + i + "\">"
+                    + "<field name=\"Name\" key=\"n\" type=\"String\"/></group>"
+                    + "</input-data>");
+
+            DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+            xmlPath.setValue("target/parallel/" + xmlFile.getName());
+            xmlPaths.addChild(xmlPath);
+        }
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths);
+        service.initialize();
+
+        // the first configured file wins
+        assertEquals("shared0", service.getGroupKey("Shared"));
+        assertEquals("Shared", service.getGroupName("shared0"));
+        for (int i = 0; i < 20; i++)
+        {
+            assertEquals("u" + i, service.getGroupKey("Unique" + i));
+            assertEquals("shared" + i, service.getGroupKey("p" + i + ":Shared"));
+        }
+
+        // a broken file fails the initialization
+        Files.writeString(new File(dir, "intake7.xml").toPath(), "<input-data");
+        IntakeServiceImpl broken = newIntakeService(xmlPaths);
+        assertThrows(Exception.class, () -> broken.initialize());
+    }
+
+    /**
+     * The StAX loader builds the same definitions as the JAXB unmarshaller
+     * and rejects files which do not conform to the schema
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testStaxLoader() throws Exception
+    {
+        JAXBContext jaxb = JAXBContext.newInstance(AppData.class);
+        Schema schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+                .newSchema(getClass().getResource("/intake.xsd"));
+
+        for (String xmlPath : new String[] { "src/test/intake1.xml", "src/test/intake2.xml" })
+        {
+            File xmlFile = new File( BASEDIR, xmlPath);
+            Unmarshaller um = jaxb.createUnmarshaller();
+            um.setSchema(schema);
+            um.setListener(new Unmarshaller.Listener()
+            {
+                @Override
+                public void beforeUnmarshal(Object target, Object parent)
+                {
+                    if (target instanceof LogEnabled logEnabled)
+                    {
+                        logEnabled.enableLogging(new NullLogger());
+                    }
+                }
+            });
+
+            AppData expected = (AppData) um.unmarshal(xmlFile);
+            AppData actual;
+            try (InputStream is = Files.newInputStream(xmlFile.toPath()))
+            {
+                actual = StaxDefinitionLoader.load(is, new NullLogger());
+            }
+
+            assertEquals(expected.getBasePackage(), actual.getBasePackage());
+            assertEquals(expected.getGroupPrefix(), actual.getGroupPrefix());
+            assertEquals(expected.getGroups().size(), actual.getGroups().size());
+
+            for (int i = 0; i < expected.getGroups().size(); i++)
+            {
+                Group expectedGroup = expected.getGroups().get(i);
+                Group actualGroup = actual.getGroups().get(i);
+                assertSame(actual, actualGroup.getAppData());
+                assertEquals(expectedGroup.toString(), actualGroup.toString());
+                assertEquals(expectedGroup.getPoolCapacity(), actualGroup.getPoolCapacity());
+                assertEquals(List.of(expectedGroup.getFieldNames()), List.of(actualGroup.getFieldNames()));
+
+                for (String name : expectedGroup.getFieldNames())
+                {
+                    Field<?> field = expectedGroup.get(name);
+                    Field<?> actualField = actualGroup.get(name);
+                    assertEquals(field.getClass(), actualField.getClass());
+                    assertEquals(field.getKey(), actualField.getKey());
+                    assertEquals(field.getDisplayName(), actualField.getDisplayName());
+                    assertEquals(field.getMapToObject(), actualField.getMapToObject());
+                    assertEquals(field.getDefinition().getMapToProperty(),
+                            actualField.getDefinition().getMapToProperty());
+                    assertEquals(field.getDefinition().getValidatorClassName(),
+                            actualField.getDefinition().getValidatorClassName());
+                    assertEquals(field.isMultiValued(), actualField.isMultiValued());
+                    assertEquals(field.getDefaultValue(), actualField.getDefaultValue());
+                    assertEquals(field.getDefinition().getRuleMap().toString(),
+                            actualField.getDefinition().getRuleMap().toString());
+                }
+            }
+        }
+
+        String header = "<input-data xmlns=\"" + StaxDefinitionLoader.NAMESPACE + "\">";
+        String[] invalid = {
+            header + "</input-data>",
+            header + "<group name=\"g\" key=\"g\"/></input-data>",
+            header + "<group name=\"g\"><field name=\"f\" key=\"f\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\" size=\"1\"><field name=\"f\" key=\"f\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\"><field name=\"f\" key=\"f\" type=\"char\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\"><field name=\"f\" key=\"f\" multiValued=\"yes\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\"><item name=\"f\" key=\"f\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\"><field name=\"f\" key=\"f\"><rule name=\"r\">x</rule></field></group></input-data>",
+            "<input-data><group name=\"g\" key=\"g\"><field name=\"f\" key=\"f\"/></group></input-data>",
+            header + "<group name=\"g\" key=\"g\"><field name=\"f\" key=\"f\"/>",
+        };
+
+        for (String xml : invalid)
+        {
+            assertThrows(IntakeException.class,
+                    () -> StaxDefinitionLoader.load(
+                            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+                            new NullLogger()), xml);
+        }
+
+        // the service uses the StAX loader if configured
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        for (String xmlPath : new String[] { "src/test/intake1.xml", "src/test/intake2.xml" })
+        {
+            DefaultConfiguration child = new DefaultConfiguration("xmlPath");
+            child.setValue(xmlPath);
+            xmlPaths.addChild(child);
+        }
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths, IntakeService.XML_LOADER, "stax");
+        service.initialize();
+        assertEquals("loginGroupKey", service.getGroupKey("LoginGroup"));
+        assertEquals("anotherGroupKey", service.getGroupKey("AnotherGroup"));
+        assertNotNull(service.getGroup("ValidationTest").get("StringTestField"));
+    }
+
+    /**
+     * In lazy mode, groups and pools are initialized once on first use,
+     * even if many threads request the group at the same time
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testLazyInitialization() throws Exception
+    {
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+        xmlPath.setValue("src/test/intake1.xml");
+        xmlPaths.addChild(xmlPath);
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths, IntakeService.LAZY_INIT, "true");
+        service.initialize();
+
+        assertEquals("loginGroupKey", service.getGroupKey("LoginGroup"));
+        assertFalse(service.isInitialized("LoginGroup"));
+        assertFalse(service.isInitialized("ValidationTest"));
+        assertEquals(0, service.getSize("LoginGroup"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<Group>> futures = new ArrayList<Future<Group>>();
+            for (int i = 0; i < 32; i++)
+            {
+                futures.add(executor.submit(() -> service.getGroup("LoginGroup")));
+            }
+
+            for (Future<Group> future : futures)
+            {
+                Group group = future.get(30, TimeUnit.SECONDS);
+                assertNotNull(group.get("Username").getDefinition().getGetter());
+                service.releaseGroup(group);
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        assertTrue(service.isInitialized("LoginGroup"));
+        assertTrue(service.getSize("LoginGroup") > 0);
+
+        // the pool is shared, but the other groups are still pending
+        assertFalse(service.isInitialized("ValidationTest"));
+        Group group = service.getGroup("ValidationTest");
+        assertTrue(service.isInitialized("ValidationTest"));
+        service.releaseGroup(group);
+    }
+
+    /**
+     * Changed definition files are reloaded and replace the current
+     * definitions at once. Groups borrowed before the reload can still be
+     * released and unchanged files keep their definitions.
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testDefinitionReload() throws Exception
+    {
+        File dir = new File( BASEDIR, "target/reload");
+        dir.mkdirs();
+
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        for (int i = 0; i < 2; i++)
+        {
+            writeReloadDefinition(new File(dir, "intake" + i + ".xml"), i, "Name");
+
+            DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+            xmlPath.setValue("target/reload/intake" + i + ".xml");
+            xmlPaths.addChild(xmlPath);
+        }
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths, IntakeService.RELOAD, "true");
+        service.initialize();
+
+        try
+        {
+            assertFalse(service.reload(), "Nothing has changed");
+
+            Group before = service.getGroup("Group0");
+            assertNotNull(before.get("Name"));
+            Group other = service.getGroup("Group1");
+            AppData unchanged = other.getAppData();
+            service.releaseGroup(other);
+
+            writeReloadDefinition(new File(dir, "intake0.xml"), 0, "Title");
+            assertTrue(service.reload());
+
+            Group after = service.getGroup("Group0");
+            assertNotNull(after.get("Title"));
+            assertNotSame(before.getAppData(), after.getAppData());
+            other = service.getGroup("Group1");
+            assertSame(unchanged, other.getAppData());
+            service.releaseGroup(other);
+
+            // the old instance goes back to its retired pool
+            service.releaseGroup(before);
+            service.releaseGroup(after);
+
+            // a broken file keeps the current definitions
+            Files.writeString(new File(dir, "intake0.xml").toPath(), "<input-data");
+            assertFalse(service.reload());
+            Group current = service.getGroup("Group0");
+            assertNotNull(current.get("Title"));
+            service.releaseGroup(current);
+
+            // the watcher picks up changes in the background
+            writeReloadDefinition(new File(dir, "intake0.xml"), 0, "Subject");
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (true)
+            {
+                current = service.getGroup("Group0");
+                String fieldName = current.getFields().get(0).getName();
+                service.releaseGroup(current);
+
+                if (fieldName.equals("Subject"))
+                {
+                    break;
+                }
+
+                assertTrue(System.currentTimeMillis() < deadline, "Definitions not reloaded");
+                Thread.sleep(50);
+            }
+        }
+        finally
+        {
+            service.dispose();
+        }
+    }
+
+    /**
+     * Write a definition file with a single group
+     *
+     * @param xmlFile the file
+     * @param number the number of the group
+     * @param fieldName the name of the only field
+     * @throws IOException if the file could not be written
+     */
+    private static void writeReloadDefinition(File xmlFile, int number, String fieldName)
+            throws IOException
+    {
+        Files.writeString(xmlFile.toPath(),
+                "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\">"
+                + "<group name=\"Group" + number + "\" key=\"g" + number + "\">"
+                + "<field name=\"" + fieldName + "\" key=\"f\" type=\"String\"/></group>"
+                + "</input-data>");
+    }
+
+    /**
+     * The generated native image configuration covers every validator,
+     * custom field and mapped property of the definition files
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testNativeImageMetadata() throws Exception
+    {
+        NativeImageMetadataGenerator generator = new NativeImageMetadataGenerator();
+        List<AppData> definitions = new ArrayList<AppData>();
+
+        for (String xmlPath : new String[] { "src/test/intake1.xml", "src/test/intake2.xml" })
+        {
+            try (InputStream is = new FileInputStream(new File( BASEDIR, xmlPath)))
+            {
+                AppData appData = StaxDefinitionLoader.load(is, new NullLogger());
+                generator.add(appData);
+                definitions.add(appData);
+            }
+        }
+
+        File dir = new File( BASEDIR, "target/native-image");
+        generator.write(dir);
+        String reflectConfig = Files.readString(
+                new File(dir, NativeImageMetadataGenerator.REFLECT_CONFIG).toPath());
+        List<String> classList = Files.readAllLines(
+                new File(dir, NativeImageMetadataGenerator.CLASS_LIST).toPath());
+        assertTrue(Files.readString(new File(dir, NativeImageMetadataGenerator.RESOURCE_CONFIG).toPath())
+                .contains("intake.xsd"));
+
+        int customFields = 0;
+        int mappedProperties = 0;
+
+        for (AppData appData : definitions)
+        {
+            for (Group group : appData.getGroups())
+            {
+                for (Field<?> field : group.getFields())
+                {
+                    String validator = field.getDefinition().getValidatorClassName();
+                    assertTrue(getReflectionEntry(reflectConfig, validator)
+                            .contains("{ \"name\": \"<init>\", \"parameterTypes\": [] }"), validator);
+                    assertTrue(classList.contains(validator.replace('.', '/')), validator);
+
+                    String fieldClass = field.getClass().getName();
+                    assertTrue(getReflectionEntry(reflectConfig, fieldClass)
+                            .contains("{ \"name\": \"<init>\", \"parameterTypes\": ["
+                                    + "\"org.apache.fulcrum.intake.model.XmlField\", "
+                                    + "\"org.apache.fulcrum.intake.model.Group\"] }"), fieldClass);
+                    assertTrue(classList.contains(fieldClass.replace('.', '/')), fieldClass);
+
+                    if (!fieldClass.startsWith(Field.defaultFieldPackage))
+                    {
+                        customFields++;
+                    }
+
+                    String mapToObject = field.getMapToObject();
+                    if (mapToObject != null)
+                    {
+                        PropertyDescriptor pd = new PropertyDescriptor(
+                                field.getDefinition().getMapToProperty(), Class.forName(mapToObject));
+                        String entry = getReflectionEntry(reflectConfig, mapToObject);
+                        assertTrue(entry.contains("\"queryAllPublicMethods\": true"), mapToObject);
+                        assertTrue(entry.contains("{ \"name\": \"" + pd.getReadMethod().getName()
+                                + "\", \"parameterTypes\": [] }"), pd.getName());
+                        assertTrue(entry.contains("{ \"name\": \"" + pd.getWriteMethod().getName()
+                                + "\", \"parameterTypes\": [\"" + pd.getPropertyType().getTypeName()
+                                + "\"] }"), pd.getName());
+                        mappedProperties++;
+                    }
+                }
+            }
+        }
+
+        assertTrue(customFields > 0, "Definitions should contain custom fields");
+        assertTrue(mappedProperties > 0, "Definitions should contain mapped properties");
+
+        // unknown classes are reported
+        AppData broken = StaxDefinitionLoader.load(new ByteArrayInputStream((
+                "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\">"
+                + "<group name=\"Broken\" key=\"b\">"
+                + "<field name=\"Name\" key=\"n\" type=\"String\" validator=\"NoSuchValidator\"/>"
+                + "</group></input-data>").getBytes(StandardCharsets.UTF_8)), new NullLogger());
+        assertThrows(IntakeException.class, () -> generator.add(broken));
+    }
+
+    /**
+     * Get the entry of a class from the reflection configuration
+     *
+     * @param reflectConfig the reflection configuration
+     * @param className the name of the class
+     * @return the text of the entry
+     */
+    private static String getReflectionEntry(String reflectConfig, String className)
+    {
+        int start = reflectConfig.indexOf("\"name\": \"" + className + "\"");
+        assertTrue(start >= 0, "No reflection entry for " + className);
+
+        return reflectConfig.substring(start, reflectConfig.indexOf("\n  }", start));
+    }
+
+    /**
+     * Create a service outside of the container
+     *
+     * @param xmlPaths the configured definition files
+     * @param settings pairs of names and values of further settings
+     * @return the configured service
+     * @throws Exception generic exception
+     */
+    private static IntakeServiceImpl newIntakeService(DefaultConfiguration xmlPaths,
+            String... settings) throws Exception
+    {
+        DefaultContext context = new DefaultContext();
+        context.put("urn:avalon:home", BASEDIR.getAbsoluteFile());
+
+        DefaultConfiguration conf = new DefaultConfiguration("intake");
+        conf.addChild(xmlPaths);
+        DefaultConfiguration serialDataPath = new DefaultConfiguration(IntakeService.SERIAL_XML);
+        serialDataPath.setValue("none");
+        conf.addChild(serialDataPath);
+        for (int i = 0; i < settings.length; i += 2)
+        {
+            DefaultConfiguration setting = new DefaultConfiguration(settings[i]);
+            setting.setValue(settings[i + 1]);
+            conf.addChild(setting);
+        }
+
+        IntakeServiceImpl service = new IntakeServiceImpl();
+        service.enableLogging(new NullLogger());
+        service.contextualize(context);
+        service.configure(conf);
+
+        return service;
+    }
+
+    /**
+     * Without pooling, shareable validators are created once, but every
+     * group instance creates its own instance of the other validators
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testValidatorsWithoutPooling() throws Exception
+    {
+        File xmlFile = new File( BASEDIR, "target/flyweight/intake.xml");
+        xmlFile.getParentFile().mkdirs();
+        Files.writeString(xmlFile.toPath(),
+                "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\">"
+                + "<group name=\"Counting\" key=\"c\">"
+                + "<field name=\"Shared\" key=\"s\" type=\"String\"/>"
+                + "<field name=\"Counted\" key=\"n\" type=\"String\" validator=\""
+                + CountingValidator.class.getName() + "\"/></group>"
+                + "</input-data>");
+
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+        xmlPath.setValue("target/flyweight/intake.xml");
+        xmlPaths.addChild(xmlPath);
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths, IntakeService.POOLING, "false");
+        service.initialize();
+
+        Validator<?> shared = null;
+        int before = CountingValidator.INSTANCES.get();
+
+        for (int i = 0; i < 3; i++)
+        {
+            Group group = service.getGroup("Counting");
+            Validator<?> validator = group.get("Shared").getValidator();
+            assertTrue(shared == null || shared == validator,
+                    "Group instances should share the shareable validator");
+            shared = validator;
+
+            assertNotNull(group.get("Counted").getValidator());
+            service.releaseGroup(group);
+        }
+
+        assertEquals(3, CountingValidator.INSTANCES.get() - before,
+                "Each group instance should create its own non-shareable validator");
+    }
+
+    /**
+     * An exhausted pool makes getGroup() wait for a released instance
+     * unless overflow is enabled
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testPoolExhaustion() throws Exception
+    {
+        DefaultConfiguration xmlPaths = new DefaultConfiguration(IntakeService.XML_PATHS);
+        DefaultConfiguration xmlPath = new DefaultConfiguration("xmlPath");
+        xmlPath.setValue("src/test/intake1.xml");
+        xmlPaths.addChild(xmlPath);
+
+        IntakeServiceImpl service = newIntakeService(xmlPaths);
+        service.initialize();
+
+        List<Group> borrowed = new ArrayList<Group>();
+        borrowed.add(service.getGroup("LoginGroup"));
+        int capacity = borrowed.get(0).getPoolCapacity();
+        for (int i = 1; i < capacity; i++)
+        {
+            borrowed.add(service.getGroup("LoginGroup"));
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<Group> waiting = executor.submit(() -> service.getGroup("LoginGroup"));
+            assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS),
+                    "getGroup() should wait while the pool is exhausted");
+
+            service.releaseGroup(borrowed.remove(0));
+            assertTrue(waiting.get(30, TimeUnit.SECONDS).isPooled());
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        IntakeServiceImpl overflowService = newIntakeService(xmlPaths,
+                IntakeService.POOL_OVERFLOW, "true");
+        overflowService.initialize();
+
+        for (int i = 0; i < capacity; i++)
+        {
+            assertTrue(overflowService.getGroup("LoginGroup").isPooled());
+        }
+
+        Group overflow = overflowService.getGroup("LoginGroup");
+        assertFalse(overflow.isPooled(), "The instance beyond the capacity should not be pooled");
+        overflowService.releaseGroup(overflow);
+    }
+
+    /**
+     * Many threads acquire, initialize and release groups concurrently.
+     * If the runtime supports virtual threads, they are used and the test
+     * checks that no carrier thread got pinned. Otherwise the pinning check
+     * is skipped.
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testConcurrentGroupAcquisition() throws Exception
+    {
+        final ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        final int tasks = 2000;
+        final AtomicInteger errors = new AtomicInteger();
+        File jfrFile = new File( BASEDIR, "target/intake-pinning.jfr");
+
+        try (Recording recording = new Recording())
+        {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO);
+            recording.start();
+
+            ExecutorService executor = newExecutor();
+            try
+            {
+                List<Future<?>> futures = new ArrayList<>(tasks);
+                for (int i = 0; i < tasks; i++)
+                {
+                    final String name = "User" + i;
+                    futures.add(executor.submit(() ->
+                    {
+                        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+                        try
+                        {
+                            Group group = intakeService.getGroup("LoginGroup");
+                            pp.setString("loginGroupKey_0loginUsernameKey", name);
+                            group.init(pp);
+                            if (!name.equals(group.get("Username").getValue()))
+                            {
+                                errors.incrementAndGet();
+                            }
+                            intakeService.releaseGroup(group);
+                        }
+                        catch (IntakeException e)
+                        {
+                            errors.incrementAndGet();
+                        }
+                        finally
+                        {
+                            ps.putParser(pp);
+                        }
+                        return null;
+                    }));
+                }
+
+                for (Future<?> future : futures)
+                {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+
+            recording.stop();
+            recording.dump(jfrFile.toPath());
+        }
+
+        assertEquals(0, errors.get(), "All tasks should see their own group state");
+        assumeTrue(isVirtualThreadAvailable(), "Virtual threads are not available");
+
+        int pinned = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile.toPath()))
+        {
+            if ("jdk.VirtualThreadPinned".equals(event.getEventType().getName()))
+            {
+                pinned++;
+            }
+        }
+        assertEquals(0, pinned, "No virtual thread should have been pinned");
+    }
+
+    /**
+     * Check whether the runtime supports virtual threads
+     *
+     * @return <code>true</code> if virtual threads are available
+     */
+    private static boolean isVirtualThreadAvailable()
+    {
+        try
+        {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Create an executor running each task in a virtual thread if the
+     * runtime supports them or a thread pool otherwise
+     *
+     * @return the executor
+     */
+    private static ExecutorService newExecutor()
+    {
+        if (isVirtualThreadAvailable())
+        {
+            try
+            {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            }
+            catch (ReflectiveOperationException e)
+            {
+                log.warn("Could not create a virtual thread executor", e);
+            }
+        }
+
+        log.info("Virtual threads are not available, using a thread pool");
+        return Executors.newFixedThreadPool(32);
+    }
 }
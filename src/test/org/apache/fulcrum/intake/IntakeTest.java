@@ -24,15 +24,37 @@ package org.apache.fulcrum.intake;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.avalon.framework.logger.NullLogger;
+import org.apache.fulcrum.intake.generator.GroupClassGenerator;
+import org.apache.fulcrum.intake.model.AppData;
 import org.apache.fulcrum.intake.model.Field;
 import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.model.LocalDateTimeField;
+import org.apache.fulcrum.intake.model.StaxDefinitionLoader;
+import org.apache.fulcrum.intake.model.TypedGroup;
 import org.apache.fulcrum.intake.test.LoginForm;
 import org.apache.fulcrum.intake.validator.BigDecimalValidator;
 import org.apache.fulcrum.intake.validator.BooleanValidator;
@@ -42,6 +64,7 @@ import org.apache.fulcrum.intake.validator.IntegerValidator;
 import org.apache.fulcrum.intake.validator.LongValidator;
 import org.apache.fulcrum.intake.validator.ShortValidator;
 import org.apache.fulcrum.intake.validator.ValidationException;
+import org.apache.fulcrum.intake.validator.ValidationResult;
 import org.apache.fulcrum.parser.DefaultParameterParser;
 import org.apache.fulcrum.parser.ParserService;
 import org.apache.fulcrum.parser.ValueParser;
@@ -128,6 +151,32 @@ public class IntakeTest extends BaseUnit5Test
         assertEquals("Joe", form.getUsername(), "User names should be equal");
     }
 
+    /**
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testTemporalMapTo() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("TemporalTest");
+        assertNotNull(group);
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+
+        pp.add("tmt_0llk", "23.12.2001 13:45");
+        group.init(pp);
+
+        Field<?> lastLoginField = group.get("LastLogin");
+        assertTrue(lastLoginField.isValid());
+        assertEquals("23.12.2001 13:45", lastLoginField.toString());
+
+        LoginForm form = new LoginForm();
+        group.setProperties(form);
+
+        assertEquals(LocalDateTime.of(2001, 12, 23, 13, 45), form.getLastLogin());
+    }
+
     /**
      * @throws Exception generic exception
      */
@@ -152,6 +201,93 @@ public class IntakeTest extends BaseUnit5Test
         assertEquals("Joe", userNameField.getValue(), "The field should have the value Joe");
     }
 
+    /**
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testFieldKeys() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("LoginGroup");
+        Group other = is.getGroup("LoginGroup");
+        assertNotSame(group, other);
+
+        Field<?> userNameField = group.get("Username");
+        Field<?> otherUserNameField = other.get("Username");
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+
+        pp.setString("loginGroupKey_0loginUsernameKey_vifa_", "Joe");
+        group.init(pp);
+        other.init(pp);
+
+        assertEquals("loginGroupKey_0", group.getObjectKey());
+        assertEquals("loginGroupKey_0loginUsernameKey", userNameField.getKey());
+        assertEquals("loginGroupKey_0loginUsernameKey_vifa_", userNameField.getValueIfAbsent());
+        assertSame(userNameField.getKey(), otherUserNameField.getKey(),
+                "The keys for new objects should be shared");
+        assertEquals("Joe", userNameField.getValue(), "The value if absent should be used");
+
+        pp.setString("loginGroupKey42loginUsernameKey", "Jane");
+        group.init("42", pp);
+
+        assertEquals("loginGroupKey42", group.getObjectKey());
+        assertEquals("loginGroupKey42loginUsernameKey", userNameField.getKey());
+        assertEquals("loginGroupKey42loginUsernameKey_vifa_", userNameField.getValueIfAbsent());
+        assertEquals("Jane", userNameField.getValue());
+
+        is.releaseGroup(group);
+        is.releaseGroup(other);
+    }
+
+    /**
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testFieldLookup() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("BooleanTest");
+        Group other = is.getGroup("BooleanTest");
+
+        String[] names = group.getFieldNames();
+        assertSame(group.getFieldNameList(), other.getFieldNameList(),
+                "The field name list should be shared");
+        assertEquals(Arrays.asList(names), group.getFieldNameList());
+        assertThrows(UnsupportedOperationException.class,
+                () -> group.getFieldNameList().set(0, "Changed"));
+
+        String[] copy = other.getFieldNames();
+        assertNotSame(names, copy, "Each caller should get its own array");
+        Arrays.sort(copy, Collections.reverseOrder());
+        assertEquals(Arrays.asList(names), group.getFieldNameList(),
+                "Changing a copy must not change the shared names");
+
+        List<Field<?>> fields = group.getFields();
+        assertEquals(fields.size(), names.length);
+
+        for (int i = 0; i < names.length; i++)
+        {
+            assertSame(fields.get(i), group.get(names[i]));
+            assertEquals(names[i], fields.get(i).getName());
+            assertNotSame(group.get(names[i]), other.get(names[i]));
+        }
+
+        try
+        {
+            group.get("NoSuchField");
+            fail("Group should throw IntakeException");
+        }
+        catch (IntakeException e)
+        {
+            // expected
+        }
+
+        is.releaseGroup(group);
+        is.releaseGroup(other);
+    }
+
     /**
      * @throws Exception generic exception
      */
@@ -227,6 +363,118 @@ public class IntakeTest extends BaseUnit5Test
         assertTrue( Arrays.equals(values, (int[])multiValueField.getValue()), "The field should have the value [1, 2]");
     }
 
+    /**
+     * The values parsed by the validator are used as field values
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testParsedValues() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("NumberTest");
+        assertNotNull(group);
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+
+        pp.add("nt_0eitf", "42");
+        pp.add("nt_0ebdtf", "1.1");
+        pp.add("nt_0mitf", "3");
+        pp.add("nt_0mitf", "4");
+        group.init(pp);
+
+        Field<?> intField = group.get("EmptyIntegerTestField");
+        assertTrue(intField.isParsed(), "The validator should have parsed the value");
+        assertEquals(Integer.valueOf(42), intField.getParsedValue());
+        assertEquals(Integer.valueOf(42), intField.getValue());
+
+        Field<?> bigDecimalField = group.get("EmptyBigDecimalTestField");
+        assertEquals(new BigDecimal("1.1"), bigDecimalField.getValue(),
+                "The value should not be rounded to a double");
+
+        Field<?> multiValueField = group.get("MultiIntegerTestField");
+        assertTrue(multiValueField.isParsed(), "The validator should have parsed the values");
+        assertTrue(Arrays.equals(new int[] { 3, 4 }, (int[])multiValueField.getValue()),
+                "The field should have the value [3, 4]");
+    }
+
+    /**
+     * Numbers are parsed according to the locale of the parser,
+     * with and without grouping separators
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testLocaleNumberParsing() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("NumberTest");
+        assertNotNull(group);
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+        pp.setLocale(Locale.GERMANY);
+
+        pp.add("nt_0edtf", "-12,5");
+        pp.add("nt_0eftf", "3");
+        pp.add("nt_0ebdtf", "1.240,50");
+        group.init(pp);
+
+        assertEquals(Double.valueOf(-12.5), group.get("EmptyDoubleTestField").getValue());
+        assertEquals(Float.valueOf(3f), group.get("EmptyFloatTestField").getValue());
+        assertEquals(new BigDecimal("1240.5"), group.get("EmptyBigDecimalTestField").getValue());
+
+        DoubleValidator v = (DoubleValidator) group.get("EmptyDoubleTestField").getValidator();
+        assertTrue(v.validate("1.234.567,25", Locale.GERMANY, new ValidationResult()));
+        assertFalse(v.validate("12,5x", Locale.GERMANY, new ValidationResult()),
+                "The string should be parsed completely");
+        assertFalse(v.validate("12.5", Locale.FRANCE, new ValidationResult()),
+                "The string should be parsed completely");
+    }
+
+    /**
+     * The built-in number validators reject invalid input without going
+     * through the throwing parseNumber() and accept the same integers as
+     * the valueOf() methods of the wrapper classes
+     */
+    @Test
+    public void testNumberParsingWithoutExceptions()
+    {
+        IntegerValidator v = new IntegerValidator()
+        {
+            @Override
+            protected Integer parseNumber(String stringValue, Locale locale)
+            {
+                throw new AssertionError("parseNumber() should not be called while validating");
+            }
+        };
+
+        for (String valid : new String[] { "42", "+42", "-2147483648", "2147483647", "\u0664\u0662" })
+        {
+            assertTrue(v.validate(valid, Locale.US, new ValidationResult()), valid + " should be valid");
+        }
+
+        for (String invalid : new String[] { "x42", "4 2", "-", "+", "2147483648", "42.0", "--1" })
+        {
+            ValidationResult result = new ValidationResult();
+            assertFalse(v.validate(invalid, Locale.US, result), invalid + " should be invalid");
+            assertEquals("Entry was not a valid Integer", result.getMessage());
+        }
+
+        ShortValidator sv = new ShortValidator();
+        assertTrue(sv.validate("-32768", Locale.US, new ValidationResult()));
+        assertFalse(sv.validate("32768", Locale.US, new ValidationResult()));
+
+        LongValidator lv = new LongValidator();
+        assertTrue(lv.validate("-9223372036854775808", Locale.US, new ValidationResult()));
+        assertFalse(lv.validate("9223372036854775808", Locale.US, new ValidationResult()));
+
+        FloatValidator fv = new FloatValidator();
+        assertTrue(fv.validate("1,234.5", Locale.US, new ValidationResult()));
+        assertFalse(fv.validate("1,234.5x", Locale.US, new ValidationResult()));
+    }
+
     /**
      * @throws Exception generic exception
      */
@@ -345,4 +593,86 @@ public class IntakeTest extends BaseUnit5Test
         
     }
 
+    /**
+     * The generated group classes compile, return the typed fields and
+     * bind them to the mapped beans without reflection
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testGeneratedGroupClasses() throws Exception
+    {
+        File outputDirectory = new File("target/generated-groups");
+        GroupClassGenerator generator = new GroupClassGenerator("org.apache.fulcrum.intake.generated");
+        List<File> sources;
+
+        try (InputStream is = new FileInputStream("src/test/intake1.xml"))
+        {
+            sources = generator.generate(StaxDefinitionLoader.load(is, new NullLogger()),
+                    outputDirectory);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String[] arguments = new String[sources.size() + 4];
+        arguments[0] = "-classpath";
+        arguments[1] = System.getProperty("java.class.path");
+        arguments[2] = "-d";
+        arguments[3] = outputDirectory.getPath();
+        for (int i = 0; i < sources.size(); i++)
+        {
+            arguments[i + 4] = sources.get(i).getPath();
+        }
+        assertEquals(0, compiler.run(null, null, null, arguments), "Generated classes should compile");
+
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+        pp.add("tmt_0llk", "23.12.2001 13:45");
+
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { outputDirectory.toURI().toURL() }, getClass().getClassLoader()))
+        {
+            Class<?> groupClass = loader.loadClass("org.apache.fulcrum.intake.generated.TemporalTest");
+            assertEquals("TemporalTest", groupClass.getField("NAME").get(null));
+
+            TypedGroup typed = (TypedGroup) groupClass.getMethod("from", IntakeService.class)
+                    .invoke(null, is);
+            typed.getGroup().init(pp);
+
+            assertEquals(LocalDateTimeField.class, groupClass.getMethod("lastLogin").getReturnType());
+            LocalDateTimeField lastLogin = (LocalDateTimeField) groupClass.getMethod("lastLogin").invoke(typed);
+            assertTrue(lastLogin.isValid());
+
+            LoginForm form = new LoginForm();
+            groupClass.getMethod("setProperties", LoginForm.class).invoke(typed, form);
+            assertEquals(LocalDateTime.of(2001, 12, 23, 13, 45), form.getLastLogin());
+
+            is.releaseGroup(typed.getGroup());
+
+            // load the fields of a new group from the bean
+            typed = (TypedGroup) groupClass.getMethod("from", IntakeService.class).invoke(null, is);
+            form.setLastLogin(LocalDateTime.of(2020, 2, 29, 8, 15));
+            groupClass.getMethod("getProperties", LoginForm.class).invoke(typed, form);
+            lastLogin = (LocalDateTimeField) groupClass.getMethod("lastLogin").invoke(typed);
+            assertEquals(LocalDateTime.of(2020, 2, 29, 8, 15), lastLogin.getValue());
+
+            is.releaseGroup(typed.getGroup());
+
+            // the class only wraps its own group
+            Group other = is.getGroup("LoginGroup");
+            Exception e = assertThrows(Exception.class,
+                    () -> groupClass.getMethod("of", Group.class).invoke(null, other));
+            assertTrue(e.getCause() instanceof IntakeException);
+            is.releaseGroup(other);
+        }
+
+        // a misspelled property is reported at generation time
+        AppData appData = StaxDefinitionLoader.load(new ByteArrayInputStream((
+                "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\""
+                + " basePackage=\"org.apache.fulcrum.intake.test.\">"
+                + "<group name=\"Broken\" key=\"b\" mapToObject=\"LoginForm\">"
+                + "<field name=\"Username\" key=\"u\" type=\"String\" mapToProperty=\"Usrname\"/>"
+                + "</group></input-data>").getBytes(StandardCharsets.UTF_8)), new NullLogger());
+        assertThrows(IntakeException.class, () -> generator.generate(appData.getGroup("Broken")));
+    }
 }
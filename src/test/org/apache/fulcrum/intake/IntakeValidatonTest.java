@@ -20,24 +20,43 @@ package org.apache.fulcrum.intake;
  * under the License.
  */
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Locale;
+import java.util.Random;
 
 import org.apache.fulcrum.intake.model.Field;
 import org.apache.fulcrum.intake.model.Group;
+import org.apache.fulcrum.intake.test.TestPart;
 import org.apache.fulcrum.intake.validator.BigDecimalValidator;
+import org.apache.fulcrum.intake.validator.CompiledDateFormat;
 import org.apache.fulcrum.intake.validator.DateRangeValidator;
 import org.apache.fulcrum.intake.validator.DateStringValidator;
 import org.apache.fulcrum.intake.validator.DoubleValidator;
+import org.apache.fulcrum.intake.validator.FileValidator;
 import org.apache.fulcrum.intake.validator.FloatValidator;
 import org.apache.fulcrum.intake.validator.IntegerRangeValidator;
 import org.apache.fulcrum.intake.validator.IntegerValidator;
+import org.apache.fulcrum.intake.validator.InvalidMaskException;
+import org.apache.fulcrum.intake.validator.LocalDateValidator;
 import org.apache.fulcrum.intake.validator.LongValidator;
+import org.apache.fulcrum.intake.validator.PartInspection;
 import org.apache.fulcrum.intake.validator.ShortValidator;
 import org.apache.fulcrum.intake.validator.ValidationException;
+import org.apache.fulcrum.intake.validator.ValidationResult;
 import org.apache.fulcrum.parser.DefaultParameterParser;
 import org.apache.fulcrum.parser.ParserService;
 import org.apache.fulcrum.parser.ValueParser;
@@ -536,6 +555,132 @@ public class IntakeValidatonTest extends BaseUnit5Test
         }
     }
 
+    /**
+     * Compare the compiled date formats with SimpleDateFormat
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testCompiledDateFormat() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("ValidationTest");
+        assertNotNull(group);
+
+        Field<?> dateField = group.get("DateStringTestField");
+        DateStringValidator v = (DateStringValidator)dateField.getValidator();
+
+        SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+        Date date = sdf.parse("12/23/2001");
+
+        assertEquals(date, v.parse("12/23/2001"));
+        assertEquals(date, v.parse("23.12.2001"));
+        assertEquals("12/23/2001", v.format(date));
+
+        // flexible=true rolls over
+        assertEquals(sdf.parse("01/04/2002"), v.parse("12/35/2001"));
+
+        CompiledDateFormat strict = CompiledDateFormat.compile("MM/dd/yyyy", false);
+        assertTrue(strict.isCompiled());
+        assertNull(strict.parse("02/30/2020"));
+        assertNull(strict.parse("YEAH"));
+        assertEquals(sdf.parse("02/29/2020"), strict.parse("02/29/2020"));
+
+        CompiledDateFormat twoDigits = CompiledDateFormat.compile("M/d/yy", false);
+        SimpleDateFormat sdf2 = new SimpleDateFormat("M/d/yy");
+        sdf2.setLenient(false);
+
+        for (String s : new String[] { "1/5/20", "1/5/99", "12/31/45", "1/5/2020", "1/5/5" })
+        {
+            assertEquals(sdf2.parse(s), twoDigits.parse(s), s);
+        }
+
+        // blanks before numeric fields are skipped like SimpleDateFormat does
+        String[][] blanks = {
+            { "dd.MM.yyyy", "31. 12. 2020" },
+            { "MM/dd/yyyy", "1/ 2/2020" },
+            { "MM/dd/yyyy", "12/31/ 2020" },
+            { "HH:mm", "9: 05" },
+            { "HH:mm", "9:05" } };
+
+        for (String[] test : blanks)
+        {
+            SimpleDateFormat expected = new SimpleDateFormat(test[0]);
+            expected.setLenient(false);
+            assertEquals(expected.parse(test[1]),
+                    CompiledDateFormat.compile(test[0], false).parse(test[1]), test[1]);
+        }
+
+        // lenient negative values
+        assertEquals(new SimpleDateFormat("yyyyMMdd").parse("2020-12-31"),
+                CompiledDateFormat.compile("yyyyMMdd", true).parse("2020-12-31"));
+
+        CompiledDateFormat dateTime = CompiledDateFormat.compile("yyyyMMdd HH:mm:ss.SSS", false);
+        assertEquals(new SimpleDateFormat("yyyyMMdd HH:mm:ss.SSS").parse("20011223 13:45:12.345"),
+                dateTime.parse("20011223 13:45:12.345"));
+        assertEquals("20011223 00:00:00.000", dateTime.format(date));
+
+        // week fields are handled by SimpleDateFormat
+        CompiledDateFormat week = CompiledDateFormat.compile("YYYY-'W'ww", false);
+        assertFalse(week.isCompiled());
+        assertEquals(new SimpleDateFormat("YYYY-'W'ww").format(date), week.format(date));
+    }
+
+    /**
+     * Validation of java.time fields
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testTemporalValidation() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("ValidationTest");
+        assertNotNull(group);
+
+        Field<?> dateField = group.get("LocalDateTestField");
+        LocalDateValidator v = (LocalDateValidator)dateField.getValidator();
+        ValidationResult result = new ValidationResult();
+
+        assertTrue(v.validate("23.12.2001", result));
+        assertTrue(v.validate("2001-12-23", result));
+        assertEquals(LocalDate.of(2001, 12, 23), v.parse("23.12.2001", Locale.US));
+        assertEquals("23.12.2001", v.format(LocalDate.of(2001, 12, 23), Locale.US));
+
+        assertFalse(v.validate("30.02.2001", result));
+        assertEquals("Bad format", result.getMessage());
+
+        result.reset();
+        assertFalse(v.validate("23.12.2001 trailing", result));
+        assertEquals("Bad format", result.getMessage());
+
+        result.reset();
+        assertFalse(v.validate("31.12.1999", result));
+        assertEquals("Too early", result.getMessage());
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+
+        pp.add("vt_0ldf", "23.12.2001");
+        pp.add("vt_0ldtf", "2001-12-22");
+        pp.add("vt_0inf", "2001-12-23T12:45:00Z");
+        pp.add("vt_0inf", "2001-12-24T12:45:00Z");
+        group.init(pp);
+
+        Field<?> dateToField = group.get("LocalDateToTestField");
+        assertTrue(dateField.isValid());
+        assertEquals(LocalDate.of(2001, 12, 23), dateField.getValue());
+        assertFalse(dateToField.isValid());
+        assertEquals("To-Date must be greater than From-Date", dateToField.getMessage());
+
+        Field<?> instantField = group.get("InstantTestField");
+        assertTrue(instantField.isValid());
+        assertArrayEquals(new Instant[] {
+                Instant.parse("2001-12-23T12:45:00Z"),
+                Instant.parse("2001-12-24T12:45:00Z") },
+                (Instant[]) instantField.getValue());
+    }
+
     /**
      * @throws Exception generic exception
      */
@@ -824,5 +969,171 @@ public class IntakeValidatonTest extends BaseUnit5Test
         }
     }
 
+    /**
+     * Validation through the non-throwing result API
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testValidationResult() throws Exception
+    {
+        IntakeService is = (IntakeService) this.lookup( IntakeService.ROLE );
+        Group group = is.getGroup("ValidationTest");
+        assertNotNull(group);
+
+        Field<?> stringField = group.get("StringTestField");
+        ValidationResult result = new ValidationResult();
+
+        assertFalse(stringField.getValidator().validate("A", result));
+        assertFalse(result.isValid());
+        assertEquals("Too short", result.getMessage());
+
+        // the first failure is kept
+        assertFalse(stringField.getValidator().validate("AbCdEfG", result));
+        assertEquals("Too short", result.getMessage());
+
+        result.reset();
+        assertTrue(result.isValid());
+        assertFalse(stringField.getValidator().validate("AbCdEfG", result));
+        assertEquals("Uppercase letters only", result.getMessage());
+
+        result.reset();
+        assertTrue(stringField.getValidator().validate("ABCDE", result));
+        assertNull(result.getMessage());
+
+        ParserService ps = (ParserService) this.lookup( ParserService.ROLE );
+        ValueParser pp = ps.getParser(DefaultParameterParser.class);
+
+        pp.add("vt_0itf", "15");
+        pp.add("vt_0stf", "A");
+        group.init(pp);
+
+        assertFalse(stringField.isValid());
+        assertEquals("Too short", stringField.getMessage());
+
+        Field<?> intField = group.get("IntegerToTestField");
+        IntegerRangeValidator v = (IntegerRangeValidator)intField.getValidator();
+
+        result.reset();
+        assertFalse(v.validate("YEAH", group, Locale.US, result));
+        assertEquals("Not a number", result.getMessage());
+
+        result.reset();
+        assertFalse(v.validate("14", group, Locale.US, result));
+        assertEquals("To-int must be greater than From-int", result.getMessage());
+
+        result.reset();
+        assertTrue(v.validate("16", group, Locale.US, result));
+    }
+
+    /**
+     * Streaming validation of uploaded parts
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testFileValidation() throws Exception
+    {
+        FileValidator v = new FileValidator();
+        v.setRequired(true);
+        v.setRequiredMessage("Required");
+        v.setMinLength(3);
+        v.setMinLengthMessage("Too short");
+        v.setMaxLength(5);
+        v.setMaxLengthMessage("Too long");
+
+        ValidationResult result = new ValidationResult();
+        assertFalse(v.validate(new TestPart(new byte[0], "text/plain"), result));
+        assertEquals("Required", result.getMessage());
+
+        // decided by the size for a single byte charset
+        TestPart part = new TestPart("abcd".getBytes(StandardCharsets.ISO_8859_1),
+                "text/plain; charset=ISO-8859-1");
+        result.reset();
+        assertTrue(v.validate(part, result));
+        assertEquals(0, part.getStreamsOpened());
+
+        result.reset();
+        assertFalse(v.validate(new TestPart("abcdef".getBytes(StandardCharsets.ISO_8859_1),
+                "text/plain; charset=ISO-8859-1"), result));
+        assertEquals("Too long", result.getMessage());
+
+        // six bytes, but only three characters
+        result.reset();
+        assertTrue(v.validate(new TestPart("\u00e4\u00f6\u00fc".getBytes(StandardCharsets.UTF_8),
+                "text/plain; charset=UTF-8"), result));
+
+        result.reset();
+        assertFalse(v.validate(new TestPart("\u00e4\u00f6".getBytes(StandardCharsets.UTF_8),
+                "text/plain; charset=UTF-8"), result));
+        assertEquals("Too short", result.getMessage());
+
+        // exceeding the maximum length stops long before the end of the content
+        byte[] large = new byte[1 << 20];
+        Arrays.fill(large, (byte) 'x');
+        result.reset();
+        assertFalse(v.validate(new TestPart(large, "text/plain; charset=UTF-8"), result));
+        assertEquals("Too long", result.getMessage());
+
+        result.reset();
+        assertFalse(v.validate(new TestPart(large, "text/plain; charset=NoSuchCharset"), result));
+        assertEquals("Invalid charset NoSuchCharset", result.getMessage());
+
+        v = new FileValidator();
+        v.setMinLength(3);
+        v.setMinLengthMessage("Too short");
+        result.reset();
+        assertTrue(v.validate(new TestPart(large, "text/plain; charset=UTF-8"), result));
+        assertTrue(v.validate(new TestPart(new byte[0], "text/plain"), result));
+    }
+
+    /**
+     * Digest and magic number checks in the validation pass
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testFileInspection() throws Exception
+    {
+        FileValidator v = new FileValidator();
+        v.setDigestAlgorithm("SHA-256");
+        v.setAllowedMagic("image/png=89504E470D0A1A0A, 25504446");
+        v.setAllowedMagicMessage("Unsupported file type");
+
+        byte[] png = new byte[100000];
+        new Random(42).nextBytes(png);
+        System.arraycopy(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' }, 0, png, 0, 8);
+
+        ValidationResult result = new ValidationResult();
+        PartInspection inspection = new PartInspection();
+        assertTrue(v.validate(new TestPart(png, "image/png"), result, inspection));
+        assertEquals("image/png", inspection.getDetectedContentType());
+        assertEquals(png.length, inspection.getSize());
+        assertEquals("SHA-256", inspection.getDigestAlgorithm());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(png), inspection.getDigest());
+        assertArrayEquals(Arrays.copyOf(png, 16), inspection.getHeader());
+
+        inspection = new PartInspection();
+        assertTrue(v.validate(new TestPart("%PDF-1.7".getBytes(StandardCharsets.US_ASCII),
+                "application/pdf"), result, inspection));
+        assertNull(inspection.getDetectedContentType());
+        assertNotNull(inspection.getDigestHex());
+
+        inspection = new PartInspection();
+        assertFalse(v.validate(new TestPart("GIF89a".getBytes(StandardCharsets.US_ASCII),
+                "image/gif"), result, inspection));
+        assertEquals("Unsupported file type", result.getMessage());
+        assertNull(inspection.getDigest());
+
+        try
+        {
+            new FileValidator().setAllowedMagic("image/png=89504G");
+            fail("Validator should throw InvalidMaskException");
+        }
+        catch (InvalidMaskException e)
+        {
+            // expected
+        }
+    }
 }
 
@@ -0,0 +1,219 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the property accessors of the field definitions
+ *
+ * @version $Id$
+ */
+public class FieldDefinitionTest
+{
+    /**
+     * Primitive properties are called directly and boxed on the way
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testPrimitiveProperty() throws Exception
+    {
+        FieldDefinition definition = newDefinition(PublicBean.class, "Count", int.class);
+        assertTrue(definition.isDirectAccess(), "Accessors of a public bean should be direct");
+
+        PublicBean bean = new PublicBean();
+        definition.writeProperty(bean, Integer.valueOf(42));
+        assertEquals(42, bean.getCount());
+        assertEquals(Integer.valueOf(42), definition.readProperty(bean));
+    }
+
+    /**
+     * Boxed properties are called directly and accept null
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testBoxedProperty() throws Exception
+    {
+        FieldDefinition definition = newDefinition(PublicBean.class, "Total", Long.class);
+        assertTrue(definition.isDirectAccess(), "Accessors of a public bean should be direct");
+
+        PublicBean bean = new PublicBean();
+        definition.writeProperty(bean, Long.valueOf(7));
+        assertEquals(Long.valueOf(7), bean.getTotal());
+        assertEquals(Long.valueOf(7), definition.readProperty(bean));
+
+        definition.writeProperty(bean, null);
+        assertEquals(null, definition.readProperty(bean));
+    }
+
+    /**
+     * Beans which are not public are called directly, too
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testNonPublicBean() throws Exception
+    {
+        FieldDefinition definition = newDefinition(HiddenBean.class, "Name", String.class);
+        assertTrue(definition.isDirectAccess(), "Accessors of a hidden bean should be direct");
+
+        HiddenBean bean = new HiddenBean();
+        definition.writeProperty(bean, "intake");
+        assertEquals("intake", bean.getName());
+        assertEquals("intake", definition.readProperty(bean));
+    }
+
+    /**
+     * Methods which cannot be looked up privately are called through
+     * reflection
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testReflectiveFallback() throws Exception
+    {
+        // java.base does not open java.util to the tests
+        FieldDefinition definition = newDefinition(Date.class, "Time", long.class);
+        assertFalse(definition.isDirectAccess(), "Accessors of a closed package should use reflection");
+
+        Date date = new Date();
+        definition.writeProperty(date, Long.valueOf(123456789L));
+        assertEquals(123456789L, date.getTime());
+        assertEquals(Long.valueOf(123456789L), definition.readProperty(date));
+    }
+
+    /**
+     * Checked exceptions of the accessors are wrapped like reflection does
+     *
+     * @throws Exception generic exception
+     */
+    @Test
+    public void testCheckedException() throws Exception
+    {
+        FieldDefinition definition = newDefinition(CheckedBean.class, "Value", String.class);
+        assertFalse(definition.isDirectAccess(), "Accessors throwing checked exceptions should use reflection");
+
+        CheckedBean bean = new CheckedBean();
+        InvocationTargetException e = assertThrows(InvocationTargetException.class,
+                () -> definition.readProperty(bean));
+        assertInstanceOf(IOException.class, e.getCause());
+
+        e = assertThrows(InvocationTargetException.class,
+                () -> definition.writeProperty(bean, "value"));
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    /**
+     * Create a field definition mapped to a bean property
+     *
+     * @param beanClass the bean class
+     * @param property the capitalized property name
+     * @param type the type of the property
+     * @return the definition with its accessors set
+     * @throws NoSuchMethodException if the bean has no such property
+     */
+    private static FieldDefinition newDefinition(Class<?> beanClass, String property,
+            Class<?> type) throws NoSuchMethodException
+    {
+        FieldDefinition definition = new FieldDefinition(new XmlField(), null);
+        Method getter = beanClass.getMethod("get" + property);
+        Method setter = beanClass.getMethod("set" + property, type);
+        definition.setAccessors(getter, setter);
+
+        return definition;
+    }
+
+    /**
+     * A public bean with primitive and boxed properties
+     */
+    public static class PublicBean
+    {
+        private int count;
+
+        private Long total;
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public void setCount(int count)
+        {
+            this.count = count;
+        }
+
+        public Long getTotal()
+        {
+            return total;
+        }
+
+        public void setTotal(Long total)
+        {
+            this.total = total;
+        }
+    }
+
+    /**
+     * A bean which is not visible outside of the test
+     */
+    private static class HiddenBean
+    {
+        private String name;
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    /**
+     * A bean whose accessors throw checked exceptions
+     */
+    public static class CheckedBean
+    {
+        public String getValue() throws IOException
+        {
+            throw new IOException("getter failed");
+        }
+
+        public void setValue(String value) throws IOException
+        {
+            throw new IOException("setter failed");
+        }
+    }
+}
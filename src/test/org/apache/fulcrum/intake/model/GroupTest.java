@@ -0,0 +1,151 @@
+package org.apache.fulcrum.intake.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.avalon.framework.logger.NullLogger;
+import org.apache.fulcrum.intake.IntakeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the binding plans of a group
+ *
+ * @version $Id$
+ */
+public class GroupTest
+{
+    /** Fields mapped to a class, its superclass and an interface */
+    private static final String DEFINITION =
+        "<input-data xmlns=\"http://turbine.apache.org/schema/intake/4.0\""
+        + " basePackage=\"org.apache.fulcrum.intake.model.\">"
+        + "<group name=\"Binding\" key=\"b\">"
+        + "<field name=\"Base1\" key=\"b1\" type=\"String\" mapToObject=\"GroupTest$BaseBean\"/>"
+        + "<field name=\"Sub1\" key=\"s1\" type=\"String\" mapToObject=\"GroupTest$SubBean\"/>"
+        + "<field name=\"Named\" key=\"n\" type=\"String\" mapToObject=\"GroupTest$NamedBean\"/>"
+        + "<field name=\"Base2\" key=\"b2\" type=\"String\" mapToObject=\"GroupTest$BaseBean\"/>"
+        + "<field name=\"Sub2\" key=\"s2\" type=\"String\" mapToObject=\"GroupTest$SubBean\"/>"
+        + "<field name=\"Other\" key=\"o\" type=\"String\"/>"
+        + "</group></input-data>";
+
+    private Group group;
+
+    /**
+     * @throws Exception generic exception
+     */
+    @BeforeEach
+    public void setUp() throws Exception
+    {
+        AppData appData = StaxDefinitionLoader.load(
+                new ByteArrayInputStream(DEFINITION.getBytes(StandardCharsets.UTF_8)),
+                new NullLogger());
+        group = appData.getGroup("Binding");
+    }
+
+    /**
+     * The plan of a class lists its own fields in reverse order, then the
+     * fields of its interfaces, then those of the superclass
+     */
+    @Test
+    public void testPlanOfClassHierarchy()
+    {
+        assertArrayEquals(new String[] { "Sub2", "Sub1", "Named", "Base2", "Base1" },
+                getPlanFieldNames(SubBean.class));
+        assertArrayEquals(new String[] { "Base2", "Base1" },
+                getPlanFieldNames(BaseBean.class));
+    }
+
+    /**
+     * Fields mapped to an interface are bound to every implementation
+     */
+    @Test
+    public void testPlanOfInterface()
+    {
+        assertArrayEquals(new String[] { "Named" },
+                getPlanFieldNames(OtherNamedBean.class));
+        assertArrayEquals(new String[0], getPlanFieldNames(Object.class));
+    }
+
+    /**
+     * The plan is computed once per class and shared by all instances of
+     * the group
+     *
+     * @throws IntakeException if the group instance could not be created
+     */
+    @Test
+    public void testPlanIsReused() throws IntakeException
+    {
+        int[] plan = group.getBindingPlan(SubBean.class);
+        assertSame(plan, group.getBindingPlan(SubBean.class));
+
+        Group instance = group.newInstance();
+        assertSame(plan, instance.getBindingPlan(SubBean.class));
+    }
+
+    /**
+     * Get the names of the fields in the binding plan of a class
+     *
+     * @param cls the class
+     * @return the field names in binding order
+     */
+    private String[] getPlanFieldNames(Class<?> cls)
+    {
+        List<Field<?>> fields = group.getFields();
+        int[] plan = group.getBindingPlan(cls);
+        String[] names = new String[plan.length];
+
+        for (int i = 0; i < plan.length; i++)
+        {
+            names[i] = fields.get(plan[i]).getName();
+        }
+
+        return names;
+    }
+
+    /** A mapped interface */
+    public interface NamedBean
+    {
+        // marker
+    }
+
+    /** A mapped superclass */
+    public static class BaseBean
+    {
+        // empty
+    }
+
+    /** A mapped class with a mapped superclass and interface */
+    public static class SubBean extends BaseBean implements NamedBean
+    {
+        // empty
+    }
+
+    /** An unmapped class implementing a mapped interface */
+    public static class OtherNamedBean implements NamedBean
+    {
+        // empty
+    }
+}
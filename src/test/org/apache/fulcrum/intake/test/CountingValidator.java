@@ -0,0 +1,45 @@
+package org.apache.fulcrum.intake.test;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.fulcrum.intake.validator.StringValidator;
+
+/**
+ * A custom validator which counts its instances. It does not declare
+ * itself shareable, so every field gets its own instance.
+ *
+ * @version $Id$
+ */
+public class CountingValidator extends StringValidator
+{
+    /** The number of instances created */
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /**
+     * Count the new instance
+     */
+    public CountingValidator()
+    {
+        super();
+        INSTANCES.incrementAndGet();
+    }
+}
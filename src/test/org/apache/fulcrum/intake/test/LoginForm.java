@@ -19,6 +19,8 @@ package org.apache.fulcrum.intake.test;
  * under the License.
  */
 
+import java.time.LocalDateTime;
+
 /**
  * Test form for Intake
  * 
@@ -31,6 +33,8 @@ public class LoginForm implements LoginFormInterface
 
     private String username;
 
+    private LocalDateTime lastLogin;
+
     /**
      * @return the user name
      */
@@ -47,4 +51,20 @@ public class LoginForm implements LoginFormInterface
         this.username = username;
     }
 
+    /**
+     * @return the time of the last login
+     */
+    public LocalDateTime getLastLogin()
+    {
+        return lastLogin;
+    }
+
+    /**
+     * @param lastLogin the time of the last login
+     */
+    public void setLastLogin(LocalDateTime lastLogin)
+    {
+        this.lastLogin = lastLogin;
+    }
+
 }
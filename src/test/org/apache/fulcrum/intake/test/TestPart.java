@@ -0,0 +1,114 @@
+package org.apache.fulcrum.intake.test;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+
+import jakarta.servlet.http.Part;
+
+/**
+ * A simple in-memory Part for testing file uploads
+ */
+public class TestPart implements Part
+{
+    private final byte[] content;
+
+    private final String contentType;
+
+    private int streamsOpened = 0;
+
+    public TestPart(byte[] content, String contentType)
+    {
+        this.content = content;
+        this.contentType = contentType;
+    }
+
+    /**
+     * @return the number of times the input stream was requested
+     */
+    public int getStreamsOpened()
+    {
+        return streamsOpened;
+    }
+
+    @Override
+    public InputStream getInputStream()
+    {
+        streamsOpened++;
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return contentType;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "file";
+    }
+
+    @Override
+    public String getSubmittedFileName()
+    {
+        return "file.txt";
+    }
+
+    @Override
+    public long getSize()
+    {
+        return content.length;
+    }
+
+    @Override
+    public void write(String fileName)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void delete()
+    {
+        // nothing to do
+    }
+
+    @Override
+    public String getHeader(String name)
+    {
+        return null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name)
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames()
+    {
+        return Collections.emptyList();
+    }
+}